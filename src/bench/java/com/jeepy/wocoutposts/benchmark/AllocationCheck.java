@@ -0,0 +1,105 @@
+package com.jeepy.wocoutposts.benchmark;
+
+import com.jeepy.wocoutposts.objectives.CaptureModel;
+import com.jeepy.wocoutposts.objectives.CaptureSettings;
+import com.jeepy.wocoutposts.simulation.CaptureSimulation;
+
+import java.lang.management.ManagementFactory;
+
+// Checks that the steady-state capture paths allocate nothing, e.g.
+//
+//   java -cp Woc-Outposts.jar:bench com.jeepy.wocoutposts.benchmark.AllocationCheck
+//
+// One outpost is charged by a team while teammates walk in and out, the clock ticks and kills are credited. Bytes
+// allocated by this thread are read from ThreadMXBean around each phase, after a warm-up so the occupancy tables
+// have grown and the JIT has settled. Ticks, enter/leave and kills (which move the charge deadline) must all allocate
+// nothing; exit status 1 otherwise.
+public final class AllocationCheck {
+
+    private static final int TEAM_SIZE = 50;
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+    private static final int PASSES = 3;
+
+    private AllocationCheck() {
+    }
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("This JVM does not report per-thread allocation.");
+            System.exit(2);
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        // Slow enough charge, with a kill boost small enough, that the outpost keeps charging for the whole run
+        CaptureSettings settings = new CaptureSettings(1_000_000, 1.5, 10, new int[0], 1e-9, 1.0);
+        CaptureSimulation simulation = new CaptureSimulation(settings, 0L, -1L);
+        int outpost = simulation.addOutpost("outpost1", 0.0, 0.0, 20, 40);
+        int[] members = new int[TEAM_SIZE];
+        for (int i = 0; i < TEAM_SIZE; i++) {
+            members[i] = simulation.addPlayer(1);
+            simulation.movePlayer(members[i], 0.0, 0.0);
+        }
+        int victim = simulation.addPlayer(CaptureModel.NO_TEAM);
+        simulation.startOutpost(outpost);
+
+        runRounds(simulation, members, victim, WARMUP_ROUNDS);
+
+        // Best of a few passes, so a one-off allocation by a late JIT recompile is not taken for a steady-state one
+        long tickBytes = Long.MAX_VALUE;
+        long enterLeaveBytes = Long.MAX_VALUE;
+        long killBytes = Long.MAX_VALUE;
+        for (int pass = 0; pass < PASSES; pass++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                simulation.advanceTo(simulation.getMillis() + 50L);
+            }
+            tickBytes = Math.min(tickBytes, threads.getThreadAllocatedBytes(threadId) - before);
+
+            before = threads.getThreadAllocatedBytes(threadId);
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                int member = members[round % TEAM_SIZE];
+                simulation.movePlayer(member, 100.0, 0.0);
+                simulation.movePlayer(member, 0.0, 0.0);
+            }
+            enterLeaveBytes = Math.min(enterLeaveBytes, threads.getThreadAllocatedBytes(threadId) - before);
+
+            before = threads.getThreadAllocatedBytes(threadId);
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                simulation.movePlayer(victim, 30.0, 0.0);
+                simulation.kill(members[round % TEAM_SIZE], victim);
+            }
+            killBytes = Math.min(killBytes, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+
+        System.out.println("Capture state: " + simulation.getModel(outpost).getState() + ", "
+                + simulation.getModel(outpost).getOccupantCount() + " players inside");
+        System.out.println(String.format("Ticks:       %d bytes over %d (%.2f per tick)",
+                tickBytes, MEASURED_ROUNDS, (double) tickBytes / MEASURED_ROUNDS));
+        System.out.println(String.format("Enter/leave: %d bytes over %d (%.2f per pair)",
+                enterLeaveBytes, MEASURED_ROUNDS, (double) enterLeaveBytes / MEASURED_ROUNDS));
+        System.out.println(String.format("Kills:       %d bytes over %d (%.2f per kill)",
+                killBytes, MEASURED_ROUNDS, (double) killBytes / MEASURED_ROUNDS));
+
+        if (tickBytes > 0 || enterLeaveBytes > 0 || killBytes > 0) {
+            System.out.println("FAIL: steady-state ticks, enter/leave or kills allocated");
+            System.exit(1);
+        }
+        System.out.println("OK: no allocation on steady-state ticks, enter/leave or kills");
+    }
+
+    // The measured phases in one mix, so each path is compiled before it is measured
+    private static void runRounds(CaptureSimulation simulation, int[] members, int victim, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int member = members[round % members.length];
+            simulation.movePlayer(member, 100.0, 0.0);
+            simulation.movePlayer(member, 0.0, 0.0);
+            simulation.movePlayer(victim, 30.0, 0.0);
+            simulation.kill(member, victim);
+            simulation.advanceTo(simulation.getMillis() + 50L);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.jeepy.wocoutposts.benchmark;
+
+import com.jeepy.wocoutposts.objectives.CaptureModel;
+import com.jeepy.wocoutposts.objectives.CaptureSettings;
+import com.jeepy.wocoutposts.simulation.CaptureSimulation;
+
+// Cost of one server tick of outpost work at 50/200/1000 players and 1/10/50 outposts, e.g.
+//
+//   java -cp Woc-Outposts.jar:bench com.jeepy.wocoutposts.benchmark.CaptureBenchmark --ticks 2000
+//
+// Runs on the CaptureSimulation, i.e. the CaptureModel and timer wheel the server runs, without Bukkit. Players are
+// spread over the outposts and walk around inside twice the capture radius of theirs, so every tick each player's
+// move does the radius check (entering and leaving the model as they cross it) and the clock then advances one
+// server tick, running the charge, contest and overtime deadlines due. Timings are per tick, over every player.
+public final class CaptureBenchmark {
+
+    private static final int[] PLAYER_COUNTS = {50, 200, 1000};
+    private static final int[] OUTPOST_COUNTS = {1, 10, 50};
+    private static final int CAPTURE_RADIUS = 20;
+    private static final int TEAM_SIZE = 5;
+
+    private CaptureBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Flags flags;
+        try {
+            flags = new Flags(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        if (flags.has("help")) {
+            printUsage();
+            return;
+        }
+        int warmupTicks = flags.getInt("warmup", 2000);
+        int ticks = flags.getInt("ticks", 2000);
+        long seed = flags.getLong("seed", 1L);
+
+        System.out.println("Per tick (every player moves once, then the clock advances 50 ms):");
+        for (int players : PLAYER_COUNTS) {
+            for (int outposts : OUTPOST_COUNTS) {
+                Run run = new Run(players, outposts, seed);
+                run.tick(warmupTicks, null);
+                LatencySamples samples = new LatencySamples(players + " players, " + outposts + " outposts", ticks);
+                run.tick(ticks, samples);
+                System.out.println("  " + samples.describe() + String.format("  %.0f ns/player",
+                        (double) samples.getTotalNanos() / ticks / players));
+            }
+        }
+    }
+
+    // One cell of the matrix
+    private static final class Run {
+        private final CaptureSimulation simulation;
+        private final int players;
+        private final double[] x;
+        private final double[] z;
+        private final double[] homeX;
+        private final double[] homeZ;
+        private long random;
+
+        private Run(int players, int outposts, long seed) {
+            // Charge settings from the shipped config.yml
+            CaptureSettings settings = new CaptureSettings(300, 1.5, 10,
+                    new int[]{10, 20, 30, 40, 50, 60, 70, 80, 90, 100}, 0.5, 1.0);
+            this.simulation = new CaptureSimulation(settings, 0L, 5_000L);
+            this.players = players;
+            this.x = new double[players];
+            this.z = new double[players];
+            this.homeX = new double[players];
+            this.homeZ = new double[players];
+            this.random = seed * 0x9E3779B97F4A7C15L + 1L;
+
+            // Outposts on a ring, far enough apart that their arenas never overlap
+            double ringRadius = outposts == 1 ? 0.0 : 1000.0 * outposts / (2 * Math.PI);
+            for (int i = 0; i < outposts; i++) {
+                double angle = 2 * Math.PI * i / outposts;
+                simulation.addOutpost("outpost" + (i + 1), Math.cos(angle) * ringRadius, Math.sin(angle) * ringRadius,
+                        CAPTURE_RADIUS, CAPTURE_RADIUS * 2);
+            }
+
+            // One player in ten is solo, the rest fill teams; players are dealt round the outposts
+            for (int i = 0; i < players; i++) {
+                int teamId = i % 10 == 0 ? CaptureModel.NO_TEAM : i / TEAM_SIZE + 1;
+                int player = simulation.addPlayer(teamId);
+                int outpost = i % outposts;
+                homeX[player] = simulation.getOutpostX(outpost);
+                homeZ[player] = simulation.getOutpostZ(outpost);
+                x[player] = homeX[player] + (nextDouble() * 2 - 1) * CAPTURE_RADIUS * 2;
+                z[player] = homeZ[player] + (nextDouble() * 2 - 1) * CAPTURE_RADIUS * 2;
+                simulation.movePlayer(player, x[player], z[player]);
+            }
+            simulation.startAll();
+        }
+
+        private void tick(int ticks, LatencySamples samples) {
+            for (int t = 0; t < ticks; t++) {
+                long startTime = System.nanoTime();
+                for (int player = 0; player < players; player++) {
+                    // A sprint-speed step, kept inside the arena around the player's outpost
+                    x[player] = clamp(x[player] + (nextDouble() * 2 - 1) * 0.5, homeX[player]);
+                    z[player] = clamp(z[player] + (nextDouble() * 2 - 1) * 0.5, homeZ[player]);
+                    simulation.movePlayer(player, x[player], z[player]);
+                }
+                simulation.advanceTo(simulation.getMillis() + 50L);
+                if (samples != null) {
+                    samples.record(System.nanoTime() - startTime);
+                }
+            }
+        }
+
+        private static double clamp(double value, double center) {
+            return Math.max(center - CAPTURE_RADIUS * 2, Math.min(center + CAPTURE_RADIUS * 2, value));
+        }
+
+        // xorshift64*, cheap enough not to show up in the timings
+        private double nextDouble() {
+            random ^= random >>> 12;
+            random ^= random << 25;
+            random ^= random >>> 27;
+            return ((random * 0x2545F4914F6CDD1DL) >>> 11) * 0x1.0p-53;
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("  --warmup <ticks> (2000)  --ticks <n> (2000)  --seed <n> (1)");
+    }
+}
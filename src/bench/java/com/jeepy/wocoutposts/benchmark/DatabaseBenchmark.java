@@ -0,0 +1,226 @@
+package com.jeepy.wocoutposts.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+// Save/remove throughput of the Outposts DB writes against an on-disk SQLite file, e.g.
+//
+//   java -cp Woc-Outposts.jar:bench:sqlite-jdbc.jar com.jeepy.wocoutposts.benchmark.DatabaseBenchmark --operations 10000
+//
+// Uses the tables, statements and PRAGMA defaults of OutpostDatabaseManager (kept in step by hand: the manager needs a
+// running plugin), on a fresh file. Team and player saves/removes are timed one statement per transaction, as a
+// lone write would be, and in transactions of --batch statements, as OutpostWriteQueue flushes them through
+// applyBatch. Outpost state saves are timed one upsert per transaction, as OutpostStateStore.saveNow writes them.
+public final class DatabaseBenchmark {
+
+    static final String CREATE_TEAMS_SQL = "CREATE TABLE IF NOT EXISTS teams (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + "teamName TEXT NOT NULL, ownerUUID TEXT NOT NULL)";
+    static final String CREATE_PLAYERS_SQL = "CREATE TABLE IF NOT EXISTS players (uuid TEXT PRIMARY KEY, playerName TEXT NOT NULL)";
+    private static final String CREATE_OUTPOST_STATE_SQL = "CREATE TABLE IF NOT EXISTS outpost_state (name TEXT PRIMARY KEY, "
+            + "world TEXT NOT NULL, x REAL NOT NULL, y REAL NOT NULL, z REAL NOT NULL, deleted INTEGER NOT NULL DEFAULT 0, "
+            + "charging_enabled INTEGER NOT NULL DEFAULT 0, current_charge REAL NOT NULL DEFAULT 0, controlling_team_id INTEGER, "
+            + "in_overtime INTEGER NOT NULL DEFAULT 0, overtime_elapsed_ms INTEGER NOT NULL DEFAULT 0, "
+            + "overtime_remaining_ms INTEGER NOT NULL DEFAULT 0, overtime_duration INTEGER NOT NULL DEFAULT 0, "
+            + "overtime_reset_count INTEGER NOT NULL DEFAULT 0, team_kills TEXT NOT NULL DEFAULT '', "
+            + "player_kills TEXT NOT NULL DEFAULT '', updated_at INTEGER NOT NULL)";
+
+    static final String SAVE_TEAM_SQL = "INSERT INTO teams (id, teamName, ownerUUID) VALUES (?, ?, ?) ON CONFLICT(id) DO NOTHING";
+    static final String REMOVE_TEAM_SQL = "DELETE FROM teams WHERE id = ?";
+    static final String SAVE_PLAYER_SQL = "INSERT INTO players (uuid, playerName) VALUES (?, ?) ON CONFLICT(uuid) DO NOTHING";
+    static final String REMOVE_PLAYER_SQL = "DELETE FROM players WHERE uuid = ?";
+    private static final String UPSERT_OUTPOST_STATE_SQL = "INSERT INTO outpost_state (name, world, x, y, z, deleted, "
+            + "charging_enabled, current_charge, controlling_team_id, in_overtime, overtime_elapsed_ms, overtime_remaining_ms, "
+            + "overtime_duration, overtime_reset_count, team_kills, player_kills, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT(name) DO UPDATE SET world = excluded.world, x = excluded.x, y = excluded.y, z = excluded.z, deleted = 0, "
+            + "charging_enabled = excluded.charging_enabled, current_charge = excluded.current_charge, "
+            + "controlling_team_id = excluded.controlling_team_id, in_overtime = excluded.in_overtime, "
+            + "overtime_elapsed_ms = excluded.overtime_elapsed_ms, overtime_remaining_ms = excluded.overtime_remaining_ms, "
+            + "overtime_duration = excluded.overtime_duration, overtime_reset_count = excluded.overtime_reset_count, "
+            + "team_kills = excluded.team_kills, player_kills = excluded.player_kills, updated_at = excluded.updated_at";
+
+    private DatabaseBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException, IOException, ClassNotFoundException {
+        Flags flags;
+        try {
+            flags = new Flags(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        if (flags.has("help")) {
+            printUsage();
+            return;
+        }
+        int operations = flags.getInt("operations", 10_000);
+        int batchSize = Math.max(flags.getInt("batch", 500), 1);
+        String journalMode = flags.get("journal-mode", "WAL");
+        String synchronous = flags.get("synchronous", "NORMAL");
+
+        File file = flags.has("file") ? new File(flags.get("file", null)) : File.createTempFile("outposts-benchmark", ".db");
+        try (Connection connection = open(file, journalMode, synchronous)) {
+            System.out.println("SQLite file " + file + " (journal_mode " + journalMode + ", synchronous " + synchronous + "), "
+                    + operations + " operations per run:");
+            createTables(connection);
+
+            System.out.println("  " + timeTeams(connection, operations, 1).describe());
+            System.out.println("  " + timeTeams(connection, operations, batchSize).describe());
+            System.out.println("  " + timePlayers(connection, operations, 1).describe());
+            System.out.println("  " + timePlayers(connection, operations, batchSize).describe());
+            System.out.println("  " + timeOutpostStates(connection, operations).describe());
+        } finally {
+            if (!flags.has("file")) {
+                deleteDatabase(file);
+            }
+        }
+    }
+
+    // Same connection setup as OutpostDatabaseManager.connect() with the shipped database: settings
+    static Connection open(File file, String journalMode, String synchronous) throws SQLException, ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = 5000");
+            statement.execute("PRAGMA journal_mode = " + journalMode);
+            statement.execute("PRAGMA synchronous = " + synchronous);
+            statement.execute("PRAGMA cache_size = -8000");
+            statement.execute("PRAGMA mmap_size = 134217728");
+            statement.execute("PRAGMA temp_store = MEMORY");
+        }
+        return connection;
+    }
+
+    static void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(CREATE_TEAMS_SQL);
+            statement.executeUpdate(CREATE_PLAYERS_SQL);
+            statement.executeUpdate(CREATE_OUTPOST_STATE_SQL);
+        }
+    }
+
+    // Half saves, half removes of the rows just saved; one sample per transaction of batchSize statements
+    private static LatencySamples timeTeams(Connection connection, int operations, int batchSize) throws SQLException {
+        LatencySamples samples = new LatencySamples(label("team save/remove", batchSize), operations / batchSize + 1,
+                batchSize);
+        try (PreparedStatement save = connection.prepareStatement(SAVE_TEAM_SQL);
+             PreparedStatement remove = connection.prepareStatement(REMOVE_TEAM_SQL)) {
+            String owner = UUID.randomUUID().toString();
+            runInTransactions(connection, operations, batchSize, samples, operation -> {
+                int teamId = operation / 2 + 1;
+                if (operation % 2 == 0) {
+                    save.setInt(1, teamId);
+                    save.setString(2, "team" + teamId);
+                    save.setString(3, owner);
+                    save.executeUpdate();
+                } else {
+                    remove.setInt(1, teamId);
+                    remove.executeUpdate();
+                }
+            });
+        }
+        return samples;
+    }
+
+    private static LatencySamples timePlayers(Connection connection, int operations, int batchSize) throws SQLException {
+        LatencySamples samples = new LatencySamples(label("player save/remove", batchSize), operations / batchSize + 1,
+                batchSize);
+        try (PreparedStatement save = connection.prepareStatement(SAVE_PLAYER_SQL);
+             PreparedStatement remove = connection.prepareStatement(REMOVE_PLAYER_SQL)) {
+            runInTransactions(connection, operations, batchSize, samples, operation -> {
+                String uuid = playerUUID(operation / 2).toString();
+                if (operation % 2 == 0) {
+                    save.setString(1, uuid);
+                    save.setString(2, "player" + operation / 2);
+                    save.executeUpdate();
+                } else {
+                    remove.setString(1, uuid);
+                    remove.executeUpdate();
+                }
+            });
+        }
+        return samples;
+    }
+
+    // 50 outposts saved round-robin, one upsert per transaction
+    private static LatencySamples timeOutpostStates(Connection connection, int operations) throws SQLException {
+        LatencySamples samples = new LatencySamples("outpost state upsert", operations);
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT_OUTPOST_STATE_SQL)) {
+            runInTransactions(connection, operations, 1, samples, operation -> {
+                upsert.setString(1, "outpost" + (operation % 50 + 1));
+                upsert.setString(2, "world");
+                upsert.setDouble(3, operation % 50 * 1000.0);
+                upsert.setDouble(4, 64.0);
+                upsert.setDouble(5, 0.0);
+                upsert.setBoolean(6, true);
+                upsert.setDouble(7, operation % 100);
+                upsert.setInt(8, operation % 7 + 1);
+                upsert.setBoolean(9, false);
+                upsert.setLong(10, 0L);
+                upsert.setLong(11, 0L);
+                upsert.setInt(12, 10);
+                upsert.setInt(13, 0);
+                upsert.setString(14, "1:2.0,3:1.0");
+                upsert.setString(15, "");
+                upsert.setLong(16, System.currentTimeMillis());
+                upsert.executeUpdate();
+            });
+        }
+        return samples;
+    }
+
+    interface Operation {
+        void run(int operation) throws SQLException;
+    }
+
+    // Run the operations in transactions of batchSize, timing each transaction (commit included)
+    static void runInTransactions(Connection connection, int operations, int batchSize, LatencySamples samples,
+                                  Operation body) throws SQLException {
+        connection.setAutoCommit(batchSize == 1);
+        try {
+            for (int start = 0; start < operations; start += batchSize) {
+                long startTime = System.nanoTime();
+                int end = Math.min(start + batchSize, operations);
+                for (int operation = start; operation < end; operation++) {
+                    body.run(operation);
+                }
+                if (batchSize > 1) {
+                    connection.commit();
+                }
+                samples.record(System.nanoTime() - startTime);
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    static UUID playerUUID(int player) {
+        return UUID.nameUUIDFromBytes(("benchmark-player-" + player).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String label(String name, int batchSize) {
+        return name + (batchSize == 1 ? " (single)" : " (batch " + batchSize + ")");
+    }
+
+    // The database file and the WAL files next to it
+    static void deleteDatabase(File file) {
+        file.delete();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+    }
+
+    private static void printUsage() {
+        System.out.println("  --operations <n> (10000)  --batch <statements per transaction> (500)");
+        System.out.println("  --file <path> (temporary file, deleted afterwards)  --journal-mode <mode> (WAL)  --synchronous <level> (NORMAL)");
+    }
+}
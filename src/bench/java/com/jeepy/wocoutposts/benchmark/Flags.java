@@ -0,0 +1,47 @@
+package com.jeepy.wocoutposts.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// --name value pairs for the benchmark mains; --help takes no value. The benchmarks live in src/bench/java, outside
+// the plugin jar, and are built against it:
+//
+//   javac -cp Woc-Outposts.jar -d bench $(find src/bench/java -name '*.java')
+final class Flags {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    Flags(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (name.equals("help")) {
+                values.put(name, "");
+            } else if (i + 1 < args.length) {
+                values.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+    }
+
+    boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    long getLong(String name, long defaultValue) {
+        String value = values.get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+}
@@ -0,0 +1,62 @@
+package com.jeepy.wocoutposts.benchmark;
+
+import java.util.Arrays;
+
+// Nanosecond timings of one measured operation, summarised as mean and percentiles. A sample may cover several
+// operations (a transaction of a batch), which only the throughput takes into account.
+final class LatencySamples {
+
+    private final String name;
+    private final int operationsPerSample;
+    private long[] samples;
+    private int count = 0;
+    private long totalNanos = 0;
+
+    LatencySamples(String name, int expected) {
+        this(name, expected, 1);
+    }
+
+    LatencySamples(String name, int expected, int operationsPerSample) {
+        this.name = name;
+        this.operationsPerSample = operationsPerSample;
+        this.samples = new long[Math.max(expected, 16)];
+    }
+
+    void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        totalNanos += nanos;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getTotalNanos() {
+        return totalNanos;
+    }
+
+    // Operations per second over the recorded time
+    double getThroughput() {
+        return totalNanos > 0 ? (double) count * operationsPerSample * 1_000_000_000.0 / totalNanos : 0.0;
+    }
+
+    String describe() {
+        if (count == 0) {
+            return String.format("%-32s no samples", name);
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format("%-32s n=%-7d mean %9.1f us  p50 %9.1f us  p99 %9.1f us  max %9.1f us  %,10.0f ops/s",
+                name, count, totalNanos / 1000.0 / count, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                sorted[count - 1] / 1000.0, getThroughput());
+    }
+
+    // In microseconds
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1000.0;
+    }
+}
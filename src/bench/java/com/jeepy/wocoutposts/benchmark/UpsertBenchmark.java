@@ -0,0 +1,182 @@
+package com.jeepy.wocoutposts.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.UUID;
+
+// Per-event latency of the radius entry/exit writes before and after they became single-statement upserts on
+// registered prepared statements, over the same stream of simulated enter/exit events, e.g.
+//
+//   java -cp Woc-Outposts.jar:bench:sqlite-jdbc.jar com.jeepy.wocoutposts.benchmark.UpsertBenchmark --events 10000
+//
+// As in ClassifiedOutpost.updatePlayerInRadius: a team player entering saves their team, a solo player saves
+// themselves, and leaving removes the team or the player. "Before" is the old OutpostDatabaseManager code: an
+// existence SELECT ahead of every insert, each statement prepared per call. "After" is the statement registry with
+// INSERT ... ON CONFLICT DO NOTHING. Both run one event per transaction on a fresh on-disk file (see
+// DatabaseBenchmark for the setup); the last run batches the same events the way OutpostWriteQueue flushes them.
+public final class UpsertBenchmark {
+
+    private static final String SELECT_TEAM_SQL = "SELECT id FROM teams WHERE id = ?";
+    private static final String INSERT_TEAM_SQL = "INSERT INTO teams (id, teamName, ownerUUID) VALUES (?, ?, ?)";
+    private static final String SELECT_PLAYER_SQL = "SELECT uuid FROM players WHERE uuid = ?";
+    private static final String INSERT_PLAYER_SQL = "INSERT INTO players (uuid, playerName) VALUES (?, ?)";
+
+    private static final int TEAM_SIZE = 5;
+
+    private UpsertBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException, IOException, ClassNotFoundException {
+        Flags flags;
+        try {
+            flags = new Flags(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        if (flags.has("help")) {
+            printUsage();
+            return;
+        }
+        int eventCount = flags.getInt("events", 10_000);
+        int players = Math.max(flags.getInt("players", 200), 1);
+        int batchSize = Math.max(flags.getInt("batch", 500), 1);
+        String journalMode = flags.get("journal-mode", "WAL");
+        String synchronous = flags.get("synchronous", "NORMAL");
+        Event[] events = generateEvents(eventCount, players, flags.getLong("seed", 1L));
+
+        System.out.println(eventCount + " enter/exit events by " + players + " players (journal_mode " + journalMode
+                + ", synchronous " + synchronous + "):");
+        // Untimed pass first, so neither measured run pays for class loading and JIT warm-up
+        run(events, journalMode, synchronous, 1, false);
+        System.out.println("  " + run(events, journalMode, synchronous, 1, false).describe());
+        System.out.println("  " + run(events, journalMode, synchronous, 1, true).describe());
+        System.out.println("  " + run(events, journalMode, synchronous, batchSize, true).describe());
+    }
+
+    // One radius entry or exit
+    private static final class Event {
+        private final boolean enter;
+        private final int teamId;  // 0 for solo players
+        private final UUID playerUUID;
+        private final String playerName;
+
+        private Event(boolean enter, int teamId, UUID playerUUID, String playerName) {
+            this.enter = enter;
+            this.teamId = teamId;
+            this.playerUUID = playerUUID;
+            this.playerName = playerName;
+        }
+    }
+
+    // Random players alternate between entering and leaving; one in ten is solo, the rest are in teams of TEAM_SIZE,
+    // so a team is often saved again by a teammate while already stored
+    private static Event[] generateEvents(int eventCount, int players, long seed) {
+        Random random = new Random(seed);
+        boolean[] inside = new boolean[players];
+        Event[] events = new Event[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            int player = random.nextInt(players);
+            inside[player] = !inside[player];
+            int teamId = player % 10 == 0 ? 0 : player / TEAM_SIZE + 1;
+            events[i] = new Event(inside[player], teamId, DatabaseBenchmark.playerUUID(player), "player" + player);
+        }
+        return events;
+    }
+
+    private static LatencySamples run(Event[] events, String journalMode, String synchronous, int batchSize,
+                                      boolean upserts) throws SQLException, IOException, ClassNotFoundException {
+        String name = upserts ? (batchSize > 1 ? "after (upsert, batch " + batchSize + ")" : "after (upsert)")
+                : "before (select + insert)";
+        LatencySamples samples = new LatencySamples(name, events.length / batchSize + 1, batchSize);
+        File file = File.createTempFile("outposts-upsert-benchmark", ".db");
+        try (Connection connection = DatabaseBenchmark.open(file, journalMode, synchronous)) {
+            DatabaseBenchmark.createTables(connection);
+            String owner = UUID.randomUUID().toString();
+            if (upserts) {
+                try (PreparedStatement saveTeam = connection.prepareStatement(DatabaseBenchmark.SAVE_TEAM_SQL);
+                     PreparedStatement removeTeam = connection.prepareStatement(DatabaseBenchmark.REMOVE_TEAM_SQL);
+                     PreparedStatement savePlayer = connection.prepareStatement(DatabaseBenchmark.SAVE_PLAYER_SQL);
+                     PreparedStatement removePlayer = connection.prepareStatement(DatabaseBenchmark.REMOVE_PLAYER_SQL)) {
+                    DatabaseBenchmark.runInTransactions(connection, events.length, batchSize, samples, i -> {
+                        Event event = events[i];
+                        if (event.teamId != 0) {
+                            PreparedStatement statement = event.enter ? saveTeam : removeTeam;
+                            statement.clearParameters();
+                            statement.setInt(1, event.teamId);
+                            if (event.enter) {
+                                statement.setString(2, "team" + event.teamId);
+                                statement.setString(3, owner);
+                            }
+                            statement.executeUpdate();
+                        } else {
+                            PreparedStatement statement = event.enter ? savePlayer : removePlayer;
+                            statement.clearParameters();
+                            statement.setString(1, event.playerUUID.toString());
+                            if (event.enter) {
+                                statement.setString(2, event.playerName);
+                            }
+                            statement.executeUpdate();
+                        }
+                    });
+                }
+            } else {
+                DatabaseBenchmark.runInTransactions(connection, events.length, batchSize, samples, i -> {
+                    Event event = events[i];
+                    if (event.teamId != 0) {
+                        if (event.enter) {
+                            if (!exists(connection, SELECT_TEAM_SQL, event.teamId)) {
+                                executeOnce(connection, INSERT_TEAM_SQL, event.teamId, "team" + event.teamId, owner);
+                            }
+                        } else {
+                            executeOnce(connection, DatabaseBenchmark.REMOVE_TEAM_SQL, event.teamId);
+                        }
+                    } else {
+                        String uuid = event.playerUUID.toString();
+                        if (event.enter) {
+                            if (!exists(connection, SELECT_PLAYER_SQL, uuid)) {
+                                executeOnce(connection, INSERT_PLAYER_SQL, uuid, event.playerName);
+                            }
+                        } else {
+                            executeOnce(connection, DatabaseBenchmark.REMOVE_PLAYER_SQL, uuid);
+                        }
+                    }
+                });
+            }
+        } finally {
+            DatabaseBenchmark.deleteDatabase(file);
+        }
+        return samples;
+    }
+
+    // The old isTeamInDatabase / isPlayerInDatabase: prepared, run and closed on every call
+    private static boolean exists(Connection connection, String sql, Object key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void executeOnce(Connection connection, String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("  --events <n> (10000)  --players <n> (200)  --batch <events per transaction> (500)  --seed <n> (1)");
+        System.out.println("  --journal-mode <mode> (WAL)  --synchronous <level> (NORMAL)");
+    }
+}
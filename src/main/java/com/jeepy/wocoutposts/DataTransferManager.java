@@ -1,13 +1,15 @@
 package com.jeepy.wocoutposts;
 
 import com.jeepy.database.WocTeamsDatabaseManager;
+import com.jeepy.wocoutposts.database.DatabaseExecutor;
 import com.jeepy.wocoutposts.database.OutpostDatabaseManager;
 import com.jeepy.teams.Team;  // Import the Team class from Woc-Teams
-import org.bukkit.Location;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 public class DataTransferManager {
@@ -23,27 +25,53 @@ public class DataTransferManager {
         this.plugin = plugin;  // Assign the plugin for logging purposes
     }
 
-    // Transfer team data from Woc-Teams to Woc-Outposts
-    public void transferTeamsData() throws SQLException {
+    // Transfer team data from Woc-Teams to Woc-Outposts. The Woc-Teams read runs on the database read thread, like
+    // every other Woc-Teams call, and the result is written on the writer thread.
+    // Only new or changed teams are written, in a single batched transaction.
+    public CompletableFuture<Void> transferTeamsData() {
+        DatabaseExecutor executor = wocOutpostsDatabaseManager.getExecutor();
+        long startTime = System.nanoTime();
+        return executor.read(() -> plugin.getMetrics().timeDb("teams.get_all_teams", wocTeamsDatabaseManager::getAllTeams))
+                .thenCompose(teams -> executor.write(() -> {
+                    storeTeams(teams, startTime);
+                    return null;
+                }));
+    }
+
+    private void storeTeams(List<Team> teams, long startTime) throws SQLException {
         try {
-            // Fetch all teams from Woc-Teams
-            List<Team> teams = wocTeamsDatabaseManager.getAllTeams();
-            plugin.getLogger().info("Number of teams fetched from Woc-Teams: " + teams.size());
-            for (Team team : teams) {
-                plugin.getLogger().info("Team fetched: ID=" + team.getId() + ", Name=" + team.getName());
-            }
+            // Compare against the teams already stored in Woc-Outposts
+            Map<Integer, String[]> storedTeams = wocOutpostsDatabaseManager.loadAllTeams();
 
-            for (Team team : teams) {
-                Integer teamId = team.getId();
-                String teamName = team.getName();
-                UUID ownerUUID = team.getOwner();
+            List<Team> changedTeams = new ArrayList<>();
+            int inserted = 0;
+            int updated = 0;
+            int skipped = 0;
 
-                plugin.getLogger().info("Transferring team: ID=" + teamId + ", Name=" + teamName + ", Owner=" + ownerUUID);
+            for (Team team : teams) {
+                if (team.getId() == null || team.getName() == null || team.getOwner() == null) {
+                    skipped++;
+                    continue;
+                }
 
-                // Save the team into Woc-Outposts database
-                wocOutpostsDatabaseManager.saveTeamToOutpostsDb(teamId, teamName, ownerUUID);
-                plugin.getLogger().info("Team transferred successfully to Woc-Outposts DB: " + teamName);
+                String[] storedTeam = storedTeams.get(team.getId());
+                if (storedTeam == null) {
+                    inserted++;
+                    changedTeams.add(team);
+                } else if (!team.getName().equals(storedTeam[0]) || !team.getOwner().toString().equals(storedTeam[1])) {
+                    updated++;
+                    changedTeams.add(team);
+                }
             }
+
+            // Save the new and changed teams into Woc-Outposts database
+            wocOutpostsDatabaseManager.upsertTeams(changedTeams);
+
+            long elapsedMillis = Math.max(1L, (System.nanoTime() - startTime) / 1_000_000L);
+            int unchanged = teams.size() - changedTeams.size() - skipped;
+            plugin.getLogger().info("Synced " + teams.size() + " teams from Woc-Teams in " + elapsedMillis + " ms ("
+                    + inserted + " inserted, " + updated + " updated, " + unchanged + " unchanged, " + skipped + " skipped, "
+                    + (teams.size() * 1000L / elapsedMillis) + " teams/s).");
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Could not transfer teams data from Woc-Teams to Woc-Outposts", e);
             throw new SQLException("Could not transfer teams data", e);
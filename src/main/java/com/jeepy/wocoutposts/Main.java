@@ -2,44 +2,91 @@ package com.jeepy.wocoutposts;
 
 import com.jeepy.database.WocTeamsDatabaseManager;
 import com.jeepy.wocoutposts.commands.OutpostCommand;
+import com.jeepy.wocoutposts.database.DatabaseExecutor;
+import com.jeepy.wocoutposts.database.LootPoolStore;
 import com.jeepy.wocoutposts.database.OutpostDatabaseManager;
+import com.jeepy.wocoutposts.database.OutpostState;
+import com.jeepy.wocoutposts.database.OutpostStateStore;
+import com.jeepy.wocoutposts.database.OutpostWriteQueue;
+import com.jeepy.wocoutposts.database.TeamMembershipCache;
+import com.jeepy.wocoutposts.listeners.ChestRefillListener;
 import com.jeepy.wocoutposts.listeners.ClassifiedOutpostListener;
+import com.jeepy.wocoutposts.listeners.LootPoolListener;
+import com.jeepy.wocoutposts.listeners.OutpostRadiusListener;
+import com.jeepy.wocoutposts.listeners.TeamCacheListener;
+import com.jeepy.wocoutposts.logging.CaptureJournal;
+import com.jeepy.wocoutposts.logging.OutpostEventLog;
+import com.jeepy.wocoutposts.managers.ChestRefillManager;
 import com.jeepy.wocoutposts.managers.ConfigManager;
 import com.jeepy.wocoutposts.managers.LootPoolManager;
 import com.jeepy.wocoutposts.managers.OutpostManager;
+import com.jeepy.wocoutposts.metrics.OutpostMetrics;
+import com.jeepy.wocoutposts.notifications.OutpostNotifier;
 import com.jeepy.wocoutposts.objectives.ClassifiedOutpost;
-import com.jeepy.wocoutposts.objectives.Outpost;
+import com.jeepy.wocoutposts.scheduling.BukkitRegionScheduler;
+import com.jeepy.wocoutposts.scheduling.FoliaRegionScheduler;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
-import java.sql.SQLException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 public class Main extends JavaPlugin {
 
+    private RegionScheduler regionScheduler;
     private ConfigManager configManager;
     private WocTeamsDatabaseManager teamsDatabaseManager;
     private OutpostDatabaseManager wocOutpostsDatabaseManager;
     private DataTransferManager dataTransferManager;
     private static OutpostDatabaseManager databaseManager;
-    private final Map<String, ClassifiedOutpost> activeClassifiedOutposts = new ConcurrentHashMap<>();
+    private OutpostWriteQueue writeQueue;
+    private OutpostStateStore stateStore;
+    private LootPoolStore lootPoolStore;
+    private TeamMembershipCache teamCache;
+    private OutpostEventLog eventLog;
+    private CaptureJournal captureJournal;
+    private OutpostMetrics metrics;
+    private OutpostNotifier notifier;
     private OutpostManager outpostManager;
     private LootPoolManager lootPoolManager;
+    private ChestRefillManager chestRefillManager;
 
     @Override
     public void onEnable() {
         // Save the default config if it doesn't exist
         saveDefaultConfig();
 
+        // Region-owned schedulers on Folia, the main thread for everything elsewhere
+        regionScheduler = FoliaRegionScheduler.isSupported() ? new FoliaRegionScheduler(this) : new BukkitRegionScheduler(this);
+        getLogger().info("Using " + (regionScheduler.isRegionThreaded() ? "region-threaded" : "main-thread") + " scheduling.");
+
         // Initialize ConfigManager and load config values
         configManager = new ConfigManager(this);
         configManager.loadConfigValues();  // This method will handle loading all configurable settings
 
+        // Tick, database and queue metrics, shown by /outpost stats
+        metrics = new OutpostMetrics(this);
+
+        // Outpost event log, recorded to a rotating file while /outpost debug is on
+        eventLog = new OutpostEventLog(this, new File(getDataFolder(), "logs"),
+                configManager.getEventLogMaxFileBytes(), configManager.getEventLogMaxFiles());
+
+        // Binary journal of outpost state transitions, for replay after an incident
+        captureJournal = new CaptureJournal(this, new File(getDataFolder(), "journal"),
+                configManager.getCaptureJournalMaxSegmentBytes(), configManager.getCaptureJournalMaxSegments());
+        if (configManager.isCaptureJournalEnabled()) {
+            captureJournal.start();
+        }
+
         // Get the Woc-Teams Main class instance
         com.jeepy.Main wocTeamsMain = JavaPlugin.getPlugin(com.jeepy.Main.class);
 
@@ -49,20 +96,57 @@ public class Main extends JavaPlugin {
         wocOutpostsDatabaseManager = new OutpostDatabaseManager(this, wocDbPath);
         databaseManager = wocOutpostsDatabaseManager;
 
-        try {
+        // Connect and initialize both databases on the database writer thread
+        DatabaseExecutor databaseExecutor = wocOutpostsDatabaseManager.getExecutor();
+        databaseExecutor.start(() -> {
             teamsDatabaseManager.connect();
             wocOutpostsDatabaseManager.connect();
 
             teamsDatabaseManager.initialize();
             wocOutpostsDatabaseManager.initialize();
-        } catch (SQLException e) {
-            getLogger().log(Level.SEVERE, "An error occurred during database setup", e);
-            return;
+            return null;
+        }).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                getLogger().log(Level.SEVERE, "An error occurred during database setup", error);
+                getServer().getPluginManager().disablePlugin(this);
+            }
+        }, databaseExecutor.mainThread());
+
+        // Start the write-behind queue for radius entry/exit mutations
+        writeQueue = new OutpostWriteQueue(this, wocOutpostsDatabaseManager,
+                configManager.getWriteQueueCapacity(), configManager.getWriteQueueFlushIntervalMillis());
+        writeQueue.start();
+
+        // Outpost definitions and capture progress, saved on the writer thread
+        stateStore = new OutpostStateStore(this, wocOutpostsDatabaseManager, configManager.getOutpostStateSaveIntervalSeconds());
+        stateStore.start();
+
+        // Cache team membership so the charging and kill paths never query Woc-Teams on the main thread
+        teamCache = new TeamMembershipCache(this, teamsDatabaseManager,
+                configManager.getTeamCacheTtlMillis(), configManager.getTeamCacheMaxEntries());
+        getServer().getPluginManager().registerEvents(new TeamCacheListener(teamCache), this);
+        for (Player player : getServer().getOnlinePlayers()) {
+            teamCache.load(player, null);  // Warm the cache for players already online (e.g. after a reload)
         }
 
         // Initialize Managers
         getLogger().info("Initializing LootPoolManager...");
-        lootPoolManager = new LootPoolManager();
+        lootPoolStore = new LootPoolStore(this, wocOutpostsDatabaseManager, configManager.getLootPoolSaveIntervalSeconds());
+        lootPoolStore.start();
+        lootPoolManager = new LootPoolManager(lootPoolStore, databaseExecutor.mainThread(), regionScheduler, getLogger(),
+                configManager.getRarityDropRates());
+
+        // Loot chests are rolled off the main thread and filled a few per tick
+        chestRefillManager = new ChestRefillManager(this, lootPoolManager, wocOutpostsDatabaseManager,
+                configManager.getMinItemsPerChest(), configManager.getMaxItemsPerChest(),
+                configManager.getChestRefillsPerTick(), configManager.getLootRefillIntervals());
+        chestRefillManager.start();
+        getServer().getPluginManager().registerEvents(new ChestRefillListener(chestRefillManager), this);
+
+        // Rate-limited player messages and the outpost progress boss bars
+        notifier = new OutpostNotifier(regionScheduler, getServer(), configManager.getMessageIntervalMillis(),
+                configManager.getMessageRepeatWindowMillis(), configManager.isBossBarEnabled());
+        notifier.start();
 
         getLogger().info("Initializing OutpostManager...");
         outpostManager = new OutpostManager(lootPoolManager, this);
@@ -71,115 +155,242 @@ public class Main extends JavaPlugin {
             getLogger().info("Both LootPoolManager and OutpostManager are initialized successfully.");
         }
 
-        // Create and register outposts dynamically based on configuration
-        initializeOutpostsFromConfig();
+        // Restore stored outposts (and import any new ones from config.yml) once the state table has been read. The
+        // outpost commands and listeners are only registered after that, so nothing can create or touch an outpost
+        // the restore has not put back yet.
+        long restoreStart = System.nanoTime();
+        stateStore.loadAll().whenCompleteAsync((storedStates, error) -> {
+            if (error != null) {
+                getLogger().log(Level.SEVERE, "Could not load stored outpost state, using config.yml definitions only", error);
+                storedStates = Collections.emptyList();
+            }
+            initializeOutpostsFromConfig(storedStates);
+            getLogger().info("Outposts restored in " + (System.nanoTime() - restoreStart) / 1_000_000L + " ms.");
+            registerOutpostHandlers();
+        }, databaseExecutor.mainThread());
 
         // Conditional data transfer based on config
         dataTransferManager = new DataTransferManager(teamsDatabaseManager, wocOutpostsDatabaseManager, this);
         if (configManager.isDataTransferEnabled()) {
-            try {
-                dataTransferManager.transferTeamsData();
-                getLogger().info("Teams data transferred successfully.");
-            } catch (SQLException e) {
-                getLogger().log(Level.SEVERE, "Error during data transfer from Woc-Teams to Woc-Outposts", e);
-            }
-        }
-
-        // Setup command executors
-        if (this.getCommand("outpost") != null) {
-            this.getCommand("outpost").setExecutor(new OutpostCommand(outpostManager, lootPoolManager));
-        }
-
-        if (this.getCommand("lootpool") != null) {
-            this.getCommand("lootpool").setExecutor(new OutpostCommand(outpostManager, lootPoolManager));
+            dataTransferManager.transferTeamsData().whenCompleteAsync((ignored, error) -> {
+                if (error != null) {
+                    getLogger().log(Level.SEVERE, "Error during data transfer from Woc-Teams to Woc-Outposts", error);
+                } else {
+                    getLogger().info("Teams data transferred successfully.");
+                }
+            }, databaseExecutor.mainThread());
         }
 
-        // Add the BukkitRunnable to update outpost charging every second
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                for (Outpost outpost : outpostManager.getActiveClassifiedOutposts()) {
-                    if (outpost instanceof ClassifiedOutpost) {
-                        ((ClassifiedOutpost) outpost).updateCharging();  // Call updateCharging from ClassifiedOutpost
-                    }
+        // Keep items in the loot pool GUI in place and handle its page buttons
+        getServer().getPluginManager().registerEvents(new LootPoolListener(lootPoolManager, regionScheduler), this);
+
+        // Outpost deadlines (charge thresholds, contest decay, overtime) run as they fall due on the shard ticking
+        // each outpost's region; shards start with their first outpost
+
+        // Periodically rewrite the Prometheus metrics file, if enabled
+        int metricsDumpInterval = configManager.getMetricsDumpIntervalSeconds();
+        if (metricsDumpInterval > 0) {
+            File metricsFile = new File(getDataFolder(), configManager.getMetricsFileName());
+            regionScheduler.runAsyncAtFixedRate(() -> {
+                try {
+                    metrics.writePrometheusFile(metricsFile);
+                } catch (IOException e) {
+                    getLogger().log(Level.WARNING, "Could not write metrics file " + metricsFile, e);
                 }
-            }
-        }.runTaskTimer(this, 0L, 20L);  // Run every second (20 ticks)
+            }, metricsDumpInterval * 20L, metricsDumpInterval * 20L);
+        }
     }
 
     @Override
     public void onDisable() {
-        try {
-            teamsDatabaseManager.close();
-            wocOutpostsDatabaseManager.close();
-        } catch (SQLException e) {
-            getLogger().severe("Error closing database connections: " + e.getMessage());
-            e.printStackTrace();
+        if (outpostManager != null) {
+            outpostManager.shutdown();
+        }
+        if (notifier != null) {
+            notifier.shutdown();
+        }
+        if (chestRefillManager != null) {
+            chestRefillManager.shutdown();
+        }
+
+        // Save the final outpost state ahead of the queued writes and the connection close
+        if (stateStore != null && outpostManager != null) {
+            stateStore.shutdown(outpostManager.getActiveClassifiedOutposts());
+        }
+        if (lootPoolStore != null) {
+            lootPoolStore.shutdown();
+        }
+
+        // Drain queued DB mutations before the connections are closed
+        if (writeQueue != null) {
+            writeQueue.shutdown();
+        }
+
+        // Close the connections on the writer, after everything queued ahead of it, then stop the database threads
+        if (wocOutpostsDatabaseManager != null) {
+            DatabaseExecutor databaseExecutor = wocOutpostsDatabaseManager.getExecutor();
+            databaseExecutor.write(() -> {
+                teamsDatabaseManager.close();
+                wocOutpostsDatabaseManager.close();
+                return null;
+            }).exceptionally(error -> {
+                getLogger().log(Level.SEVERE, "Error closing database connections", error);
+                return null;
+            });
+            databaseExecutor.shutdown();
+        }
+        if (captureJournal != null) {
+            captureJournal.shutdown();
+        }
+        if (eventLog != null) {
+            eventLog.shutdown();
         }
         getLogger().info("Woc-Outposts plugin has been disabled.");
     }
 
+    public RegionScheduler getRegionScheduler() {
+        return regionScheduler;
+    }
+
     public OutpostDatabaseManager getDatabaseManager() {
         return databaseManager;
     }
 
-    public ConfigManager getConfigManager() {
-        return configManager;
+    public OutpostWriteQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    public OutpostStateStore getStateStore() {
+        return stateStore;
+    }
+
+    public OutpostEventLog getEventLog() {
+        return eventLog;
+    }
+
+    public CaptureJournal getCaptureJournal() {
+        return captureJournal;
     }
 
-    public Map<String, ClassifiedOutpost> getActiveClassifiedOutposts() {
-        return activeClassifiedOutposts;
+    public OutpostMetrics getMetrics() {
+        return metrics;
+    }
+
+    public OutpostNotifier getNotifier() {
+        return notifier;
+    }
+
+    public TeamMembershipCache getTeamCache() {
+        return teamCache;
+    }
+
+    public ConfigManager getConfigManager() {
+        return configManager;
     }
 
     public OutpostManager getOutpostManager() {
         return outpostManager;
     }
 
+    public ChestRefillManager getChestRefillManager() {
+        return chestRefillManager;
+    }
+
     public WocTeamsDatabaseManager getTeamsDatabaseManager() {
         return teamsDatabaseManager;
     }
 
-    // Initialize outposts dynamically from the configuration
-    private void initializeOutpostsFromConfig() {
-        // Access the outposts section from the config
-        if (!getConfig().contains("outposts")) {
-            getLogger().warning("No outposts found in the configuration.");
-            return;
+    // Commands and listeners that act on outposts; registered once the stored outposts have been restored
+    private void registerOutpostHandlers() {
+        // Setup command executors
+        if (this.getCommand("outpost") != null) {
+            this.getCommand("outpost").setExecutor(new OutpostCommand(outpostManager, lootPoolManager));
         }
 
-        ConfigurationSection outpostsSection = getConfig().getConfigurationSection("outposts");
-
-        if (outpostsSection == null) {
-            getLogger().warning("The outposts section is null in the config.");
-            return;
+        if (this.getCommand("lootpool") != null) {
+            this.getCommand("lootpool").setExecutor(new OutpostCommand(outpostManager, lootPoolManager));
         }
 
-        for (String outpostName : outpostsSection.getKeys(false)) {
-            ConfigurationSection outpostConfig = outpostsSection.getConfigurationSection(outpostName);
+        // Route player kills to the outposts whose combat zone they happen in
+        getServer().getPluginManager().registerEvents(new ClassifiedOutpostListener(outpostManager), this);
+
+        // Track players entering and leaving outpost radii from movement events
+        getServer().getPluginManager().registerEvents(new OutpostRadiusListener(outpostManager), this);
+    }
+
+    // Create outposts from the stored state, then import config.yml outposts the Outposts DB has never seen
+    private void initializeOutpostsFromConfig(List<OutpostState> storedStates) {
+        Map<String, OutpostState> statesByName = new HashMap<>();
+        int restored = 0;
 
-            if (outpostConfig == null) {
-                getLogger().warning("No configuration found for outpost: " + outpostName);
+        for (OutpostState state : storedStates) {
+            statesByName.put(state.getName(), state);
+            if (state.isDeleted()) {
                 continue;
             }
 
-            String worldName = outpostConfig.getString("world");
-            double x = outpostConfig.getDouble("x");
-            double y = outpostConfig.getDouble("y");
-            double z = outpostConfig.getDouble("z");
-
-            World world = getServer().getWorld(worldName);
+            World world = getServer().getWorld(state.getWorldName());
             if (world == null) {
-                getLogger().warning("World " + worldName + " not found for outpost: " + outpostName);
+                getLogger().warning("World " + state.getWorldName() + " not found for outpost: " + state.getName());
+                continue;
+            }
+
+            // Registered right away so the name is taken; restored on the thread owning the beacon, which schedules
+            // its deadlines (work for the outpost queued on that thread later runs after the restore)
+            ClassifiedOutpost classifiedOutpost = new ClassifiedOutpost(state.getName(),
+                    new Location(world, state.getX(), state.getY(), state.getZ()), this);
+            if (!outpostManager.addOutpost(state.getName(), classifiedOutpost)) {
+                getLogger().warning("Outpost " + state.getName() + " already exists, not restoring its stored state.");
                 continue;
             }
+            regionScheduler.execute(classifiedOutpost.getBeaconLocation(), () -> {
+                classifiedOutpost.restoreState(state);
+                outpostManager.resumeOutpost(classifiedOutpost);
+            });
+            restored++;
+        }
+
+        // Access the outposts section from the config
+        ConfigurationSection outpostsSection = getConfig().getConfigurationSection("outposts");
+        int imported = 0;
+
+        if (outpostsSection != null) {
+            for (String outpostName : outpostsSection.getKeys(false)) {
+                if (statesByName.containsKey(outpostName)) {
+                    continue;  // Already stored (or deleted in-game)
+                }
+
+                ConfigurationSection outpostConfig = outpostsSection.getConfigurationSection(outpostName);
+
+                if (outpostConfig == null) {
+                    getLogger().warning("No configuration found for outpost: " + outpostName);
+                    continue;
+                }
+
+                String worldName = outpostConfig.getString("world");
+                double x = outpostConfig.getDouble("x");
+                double y = outpostConfig.getDouble("y");
+                double z = outpostConfig.getDouble("z");
 
-            Location beaconLocation = new Location(world, x, y, z);
+                World world = getServer().getWorld(worldName);
+                if (world == null) {
+                    getLogger().warning("World " + worldName + " not found for outpost: " + outpostName);
+                    continue;
+                }
+
+                Location beaconLocation = new Location(world, x, y, z);
 
-            // Create the outpost instance and store it
-            ClassifiedOutpost classifiedOutpost = new ClassifiedOutpost(outpostName, beaconLocation, this);
-            outpostManager.addOutpost(outpostName, classifiedOutpost);
-            getLogger().info("Outpost " + outpostName + " loaded successfully.");
+                // Create the outpost instance and store it
+                ClassifiedOutpost classifiedOutpost = new ClassifiedOutpost(outpostName, beaconLocation, this);
+                if (!outpostManager.addOutpost(outpostName, classifiedOutpost)) {
+                    continue;
+                }
+                regionScheduler.execute(beaconLocation, () -> stateStore.saveNow(classifiedOutpost));
+                imported++;
+            }
         }
+
+        getLogger().info("Loaded " + restored + " outposts from the Outposts DB and imported " + imported + " from config.yml.");
     }
 
     // Utility method to load a location from config
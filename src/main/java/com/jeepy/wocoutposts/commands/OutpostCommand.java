@@ -30,7 +30,7 @@ public class OutpostCommand implements CommandExecutor {
 
         if (command.getName().equalsIgnoreCase("outpost")) {
             if (args.length < 1) {
-                player.sendMessage("Usage: /outpost <start|stop|create|delete|refill|debug>");
+                player.sendMessage("Usage: /outpost <start|stop|create|delete|refill|chest|debug|stats>");
                 return true;
             }
 
@@ -91,13 +91,42 @@ public class OutpostCommand implements CommandExecutor {
                     outpostManager.refillLoot(player, outpostName);
                     break;
 
+                case "chest":
+                    // Add, remove or list the loot chests refilled for an outpost
+                    if (args.length != 3) {
+                        player.sendMessage("Usage: /outpost chest <add|remove|list> <name>");
+                        break;
+                    }
+
+                    if (args[1].equalsIgnoreCase("add")) {
+                        outpostManager.addLootChest(player, args[2]);
+                    } else if (args[1].equalsIgnoreCase("remove")) {
+                        outpostManager.removeLootChest(player, args[2]);
+                    } else if (args[1].equalsIgnoreCase("list")) {
+                        outpostManager.listLootChests(player, args[2]);
+                    } else {
+                        player.sendMessage("Usage: /outpost chest <add|remove|list> <name>");
+                    }
+                    break;
+
                 case "debug":
                     // Enable debug mode
                     outpostManager.toggleDebug(player);
                     break;
 
+                case "stats":
+                    // Show tick, database and queue metrics, or write them to the Prometheus file
+                    if (args.length == 2 && args[1].equalsIgnoreCase("dump")) {
+                        outpostManager.dumpStats(player);
+                    } else if (args.length == 1) {
+                        outpostManager.showStats(player);
+                    } else {
+                        player.sendMessage("Usage: /outpost stats [dump]");
+                    }
+                    break;
+
                 default:
-                    player.sendMessage("Unknown command. Use: /outpost <start|stop|create|delete|refill|debug>");
+                    player.sendMessage("Unknown command. Use: /outpost <start|stop|create|delete|refill|chest|debug|stats>");
                     break;
             }
             return true;
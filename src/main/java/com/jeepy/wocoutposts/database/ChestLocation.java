@@ -0,0 +1,70 @@
+package com.jeepy.wocoutposts.database;
+
+import org.bukkit.block.Block;
+
+// Block position of a loot chest registered to an outpost, as stored in the outpost_chests table
+public final class ChestLocation {
+
+    private final String worldName;
+    private final int x;
+    private final int y;
+    private final int z;
+
+    public ChestLocation(String worldName, int x, int y, int z) {
+        this.worldName = worldName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public static ChestLocation of(Block block) {
+        return new ChestLocation(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    // Chunk coordinates packed into one long (x in the high half, z in the low half)
+    public long getChunkKey() {
+        return chunkKey(x >> 4, z >> 4);
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ChestLocation)) {
+            return false;
+        }
+        ChestLocation that = (ChestLocation) other;
+        return x == that.x && y == that.y && z == that.z && worldName.equals(that.worldName);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((worldName.hashCode() * 31 + x) * 31 + y) * 31 + z;
+    }
+
+    @Override
+    public String toString() {
+        return worldName + " X: " + x + ", Y: " + y + ", Z: " + z;
+    }
+}
@@ -0,0 +1,111 @@
+package com.jeepy.wocoutposts.database;
+
+import com.jeepy.wocoutposts.Main;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Dedicated database threads: a single writer that runs all Outposts DB work in submission order,
+// and a small pool for read-only lookups. Results are handed back to the server thread via mainThread().
+public class DatabaseExecutor {
+
+    // A unit of database work that may throw SQLException
+    @FunctionalInterface
+    public interface SqlTask<T> {
+        T call() throws SQLException;
+    }
+
+    private final Main plugin;
+    private final ScheduledExecutorService writer;
+    private final ExecutorService readers;
+    private final Executor mainThreadExecutor;
+    private volatile Thread writerThread;
+    // Completes once startup (connect/initialize) has run; reads wait for it
+    private volatile CompletableFuture<Void> ready = CompletableFuture.completedFuture(null);
+
+    public DatabaseExecutor(Main plugin, int readThreads) {
+        this.plugin = plugin;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Woc-Outposts DB Writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        });
+        this.readers = Executors.newFixedThreadPool(readThreads, namedThreads("Woc-Outposts DB Reader"));
+        this.mainThreadExecutor = runnable -> {
+            if (plugin.isEnabled()) {
+                plugin.getRegionScheduler().executeGlobal(runnable);
+            }
+        };
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + " #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Run startup work on the writer; reads submitted from now on wait until it has finished
+    public CompletableFuture<Void> start(SqlTask<Void> startup) {
+        ready = write(startup);
+        return ready;
+    }
+
+    public <T> CompletableFuture<T> write(SqlTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> call(task), writer);
+    }
+
+    public <T> CompletableFuture<T> read(SqlTask<T> task) {
+        return ready.thenApplyAsync(ignored -> call(task), readers);
+    }
+
+    // Run a task periodically on the writer thread
+    public ScheduledFuture<?> scheduleWrite(Runnable task, long periodMillis) {
+        return writer.scheduleWithFixedDelay(task, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Executor that runs callbacks on the server main thread, or the global region thread on a region-threaded
+    // server (dropped once the plugin is disabled)
+    public Executor mainThread() {
+        return mainThreadExecutor;
+    }
+
+    public boolean isWriterThread() {
+        return Thread.currentThread() == writerThread;
+    }
+
+    // Finish queued work and stop all database threads; called from Main.onDisable()
+    public void shutdown() {
+        readers.shutdown();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(15, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Outpost DB writer did not finish queued work in time.");
+                writer.shutdownNow();
+            }
+            readers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> T call(SqlTask<T> task) {
+        try {
+            return task.call();
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
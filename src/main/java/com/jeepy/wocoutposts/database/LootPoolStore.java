@@ -0,0 +1,157 @@
+package com.jeepy.wocoutposts.database;
+
+import com.jeepy.wocoutposts.Main;
+import com.jeepy.wocoutposts.managers.LootPoolManager;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+// Persists loot pools to the loot_items table. A pool is read the first time its outpost's loot is needed, and
+// pools changed since the last save are written back on the database writer every save interval.
+public class LootPoolStore {
+
+    private final Main plugin;
+    private final OutpostDatabaseManager databaseManager;
+    private final long saveIntervalTicks;
+    // Pools changed since the last save (outpostName -> pool), guarded by itself: pools are edited from the
+    // command sender's region thread
+    private final Map<String, Map<String, LootPoolManager.LootItem>> dirtyPools = new LinkedHashMap<>();
+    // Pools deleted whose removal has not been written yet, so a failed save does not put them back (guarded by
+    // dirtyPools)
+    private final Set<String> deletingPools = new HashSet<>();
+    private RegionScheduler.Task saveTask;
+
+    public LootPoolStore(Main plugin, OutpostDatabaseManager databaseManager, int saveIntervalSeconds) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.saveIntervalTicks = saveIntervalSeconds * 20L;
+    }
+
+    public void start() {
+        saveTask = plugin.getRegionScheduler().runGlobalAtFixedRate(this::saveDirty, saveIntervalTicks, saveIntervalTicks);
+    }
+
+    // Read and deserialize one outpost's pool on a database read thread (itemId -> item)
+    public CompletableFuture<Map<String, LootPoolManager.LootItem>> load(String outpostName) {
+        return databaseManager.getExecutor().read(() -> {
+            Map<String, LootPoolManager.LootItem> lootPool = new LinkedHashMap<>();
+            for (StoredLootItem stored : databaseManager.loadLootPool(outpostName)) {
+                ItemStack item = deserialize(stored.getItemBytes());
+                if (item == null) {
+                    plugin.getLogger().warning("Skipping unreadable loot item '" + stored.getItemId() + "' of outpost " + outpostName);
+                    continue;
+                }
+                lootPool.put(stored.getItemId(), new LootPoolManager.LootItem(item, stored.getRarity(), stored.getDropChance()));
+            }
+            return lootPool;
+        });
+    }
+
+    // Save the pool on the next periodic flush; the map is copied at save time
+    public void markDirty(String outpostName, Map<String, LootPoolManager.LootItem> lootPool) {
+        synchronized (dirtyPools) {
+            dirtyPools.put(outpostName, lootPool);
+            deletingPools.remove(outpostName);
+        }
+    }
+
+    public void saveDirty() {
+        // Loot items are immutable, so copying the maps is enough to hand them to the writer
+        Map<String, Map<String, LootPoolManager.LootItem>> snapshot = new LinkedHashMap<>();
+        synchronized (dirtyPools) {
+            if (dirtyPools.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, Map<String, LootPoolManager.LootItem>> entry : dirtyPools.entrySet()) {
+                snapshot.put(entry.getKey(), new LinkedHashMap<>(entry.getValue()));
+            }
+            dirtyPools.clear();
+        }
+
+        databaseManager.getExecutor().write(() -> {
+            Map<String, List<StoredLootItem>> lootPools = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, LootPoolManager.LootItem>> pool : snapshot.entrySet()) {
+                List<StoredLootItem> stored = new ArrayList<>(pool.getValue().size());
+                for (Map.Entry<String, LootPoolManager.LootItem> entry : pool.getValue().entrySet()) {
+                    LootPoolManager.LootItem lootItem = entry.getValue();
+                    byte[] itemBytes = serialize(lootItem.getItem());
+                    if (itemBytes != null) {
+                        stored.add(new StoredLootItem(entry.getKey(), itemBytes, lootItem.getRarity(), lootItem.getDropChance()));
+                    }
+                }
+                lootPools.put(pool.getKey(), stored);
+            }
+            databaseManager.saveLootPools(lootPools);
+            return null;
+        }).exceptionally(error -> {
+            // Already logged by saveLootPools; try again on the next save unless a newer version is waiting
+            synchronized (dirtyPools) {
+                for (Map.Entry<String, Map<String, LootPoolManager.LootItem>> pool : snapshot.entrySet()) {
+                    if (!deletingPools.contains(pool.getKey())) {
+                        dirtyPools.putIfAbsent(pool.getKey(), pool.getValue());
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    // Remove a deleted outpost's pool
+    public void delete(String outpostName) {
+        synchronized (dirtyPools) {
+            dirtyPools.remove(outpostName);
+            deletingPools.add(outpostName);
+        }
+        databaseManager.getExecutor().write(() -> {
+            databaseManager.removeLootPool(outpostName);
+            return null;
+        }).whenComplete((ignored, error) -> {
+            // A failure is logged by removeLootPool
+            synchronized (dirtyPools) {
+                deletingPools.remove(outpostName);
+            }
+        });
+    }
+
+    // Write out unsaved pools; queued on the writer ahead of the connection close in Main.onDisable()
+    public void shutdown() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+        saveDirty();
+    }
+
+    private byte[] serialize(ItemStack item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+            out.writeObject(item);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not serialize loot item " + item, e);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private ItemStack deserialize(byte[] itemBytes) {
+        try (BukkitObjectInputStream in = new BukkitObjectInputStream(new ByteArrayInputStream(itemBytes))) {
+            return (ItemStack) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not deserialize loot item", e);
+            return null;
+        }
+    }
+}
@@ -1,19 +1,69 @@
 package com.jeepy.wocoutposts.database;
 
+import com.jeepy.teams.Team;
 import com.jeepy.wocoutposts.Main;
+import org.bukkit.configuration.file.FileConfiguration;
 
 import java.io.File;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 public class OutpostDatabaseManager {
     private final Main plugin;
     private Connection connection;
+    private final DatabaseExecutor executor;
     private static final String DEFAULT_RANK = "MEMBER";
 
+    // SQL for the long-lived prepared statements, each mutation is a single statement execution
+    private static final String SAVE_TEAM_SQL = "INSERT INTO teams (id, teamName, ownerUUID) VALUES (?, ?, ?) ON CONFLICT(id) DO NOTHING";
+    private static final String REMOVE_TEAM_SQL = "DELETE FROM teams WHERE id = ?";
+    private static final String SAVE_PLAYER_SQL = "INSERT INTO players (uuid, playerName) VALUES (?, ?) ON CONFLICT(uuid) DO NOTHING";
+    private static final String REMOVE_PLAYER_SQL = "DELETE FROM players WHERE uuid = ?";
+    private static final String UPSERT_TEAM_SQL = "INSERT INTO teams (id, teamName, ownerUUID) VALUES (?, ?, ?) "
+            + "ON CONFLICT(id) DO UPDATE SET teamName = excluded.teamName, ownerUUID = excluded.ownerUUID";
+    private static final String UPSERT_OUTPOST_STATE_SQL = "INSERT INTO outpost_state (name, world, x, y, z, deleted, "
+            + "charging_enabled, current_charge, controlling_team_id, in_overtime, overtime_elapsed_ms, overtime_remaining_ms, "
+            + "overtime_duration, overtime_reset_count, team_kills, player_kills, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT(name) DO UPDATE SET world = excluded.world, x = excluded.x, y = excluded.y, z = excluded.z, deleted = 0, "
+            + "charging_enabled = excluded.charging_enabled, current_charge = excluded.current_charge, "
+            + "controlling_team_id = excluded.controlling_team_id, in_overtime = excluded.in_overtime, "
+            + "overtime_elapsed_ms = excluded.overtime_elapsed_ms, overtime_remaining_ms = excluded.overtime_remaining_ms, "
+            + "overtime_duration = excluded.overtime_duration, overtime_reset_count = excluded.overtime_reset_count, "
+            + "team_kills = excluded.team_kills, player_kills = excluded.player_kills, updated_at = excluded.updated_at";
+    private static final String DELETE_OUTPOST_STATE_SQL = "UPDATE outpost_state SET deleted = 1, updated_at = ? WHERE name = ?";
+    private static final String SAVE_CHEST_SQL = "INSERT INTO outpost_chests (outpost_name, world, x, y, z) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT(outpost_name, world, x, y, z) DO NOTHING";
+    private static final String REMOVE_CHEST_SQL = "DELETE FROM outpost_chests WHERE outpost_name = ? AND world = ? AND x = ? AND y = ? AND z = ?";
+    private static final String REMOVE_OUTPOST_CHESTS_SQL = "DELETE FROM outpost_chests WHERE outpost_name = ?";
+    private static final String SAVE_LOOT_ITEM_SQL = "INSERT INTO loot_items (outpost_name, item_id, item, rarity, drop_chance) VALUES (?, ?, ?, ?, ?)";
+    private static final String REMOVE_LOOT_POOL_SQL = "DELETE FROM loot_items WHERE outpost_name = ?";
+
+    // Accepted values for the enumerated SQLite PRAGMAs in the database: config section
+    private static final List<String> JOURNAL_MODES = Arrays.asList("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final List<String> SYNCHRONOUS_LEVELS = Arrays.asList("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final List<String> TEMP_STORES = Arrays.asList("DEFAULT", "FILE", "MEMORY");
+
+    // Registry of prepared statements, created once in initialize() and closed in close()
+    private final Map<String, PreparedStatement> preparedStatements = new HashMap<>();
+
     public OutpostDatabaseManager(Main plugin, String teamsDbPath) {
         this.plugin = plugin;
+        this.executor = new DatabaseExecutor(plugin, plugin.getConfigManager().getDatabaseReadThreads());
+    }
+
+    // Executor that owns every Outposts DB call; use the *Async methods below from the server thread
+    public DatabaseExecutor getExecutor() {
+        return executor;
     }
 
     public void connect() throws SQLException {
@@ -33,9 +83,54 @@ public class OutpostDatabaseManager {
             plugin.getLogger().severe("Unable to create a database connection: " + e.getMessage());
             throw new SQLException("Unable to create a database connection.", e);
         }
+
+        applyTuningPragmas();
+    }
+
+    // Apply the SQLite tuning profile from the database: section of config.yml
+    private void applyTuningPragmas() throws SQLException {
+        FileConfiguration config = plugin.getConfig();
+
+        applyPragma("busy_timeout", String.valueOf(Math.max(0, config.getInt("database.busy_timeout", 5000))));
+        applyPragma("journal_mode", validateChoice("journal_mode", config.getString("database.journal_mode", "WAL"), JOURNAL_MODES, "WAL"));
+        applyPragma("synchronous", validateChoice("synchronous", config.getString("database.synchronous", "NORMAL"), SYNCHRONOUS_LEVELS, "NORMAL"));
+        applyPragma("cache_size", String.valueOf(config.getInt("database.cache_size", -8000)));
+        applyPragma("mmap_size", String.valueOf(Math.max(0L, config.getLong("database.mmap_size", 134217728L))));
+        applyPragma("temp_store", validateChoice("temp_store", config.getString("database.temp_store", "MEMORY"), TEMP_STORES, "MEMORY"));
+    }
+
+    // Fall back to the default (with a warning) when a configured PRAGMA value is not recognised
+    private String validateChoice(String pragma, String value, List<String> allowed, String defaultValue) {
+        String normalized = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        if (!allowed.contains(normalized)) {
+            plugin.getLogger().warning("Invalid database." + pragma + " '" + value + "'. Valid values are: "
+                    + String.join(", ", allowed) + ". Using " + defaultValue + ".");
+            return defaultValue;
+        }
+        return normalized;
+    }
+
+    // Set a PRAGMA and log the value SQLite reports back
+    private void applyPragma(String pragma, String value) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA " + pragma + " = " + value);
+
+            try (ResultSet rs = statement.executeQuery("PRAGMA " + pragma)) {
+                String reported = rs.next() ? rs.getString(1) : "unknown";
+                plugin.getLogger().info("SQLite PRAGMA " + pragma + " = " + value + " (reported: " + reported + ")");
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not apply SQLite PRAGMA " + pragma, e);
+            throw new SQLException("Could not apply SQLite PRAGMA " + pragma, e);
+        }
     }
 
     public void close() throws SQLException {
+        for (PreparedStatement statement : preparedStatements.values()) {
+            statement.close();
+        }
+        preparedStatements.clear();
+
         if (connection != null && !connection.isClosed()) {
             connection.close();
         }
@@ -69,49 +164,116 @@ public class OutpostDatabaseManager {
                 plugin.getLogger().info("Players table in Outposts DB initialized successfully.");
             }
 
+            // Create outpost state table (outpost definitions and capture progress, restored on startup)
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "CREATE TABLE IF NOT EXISTS outpost_state (" +
+                            "name TEXT PRIMARY KEY, " +
+                            "world TEXT NOT NULL, " +
+                            "x REAL NOT NULL, " +
+                            "y REAL NOT NULL, " +
+                            "z REAL NOT NULL, " +
+                            "deleted INTEGER NOT NULL DEFAULT 0, " +
+                            "charging_enabled INTEGER NOT NULL DEFAULT 0, " +
+                            "current_charge REAL NOT NULL DEFAULT 0, " +
+                            "controlling_team_id INTEGER, " +
+                            "in_overtime INTEGER NOT NULL DEFAULT 0, " +
+                            "overtime_elapsed_ms INTEGER NOT NULL DEFAULT 0, " +
+                            "overtime_remaining_ms INTEGER NOT NULL DEFAULT 0, " +
+                            "overtime_duration INTEGER NOT NULL DEFAULT 0, " +
+                            "overtime_reset_count INTEGER NOT NULL DEFAULT 0, " +
+                            "team_kills TEXT NOT NULL DEFAULT '', " +
+                            "player_kills TEXT NOT NULL DEFAULT '', " +
+                            "updated_at INTEGER NOT NULL" +
+                            ")")) {
+                statement.executeUpdate();
+                plugin.getLogger().info("Outpost state table in Outposts DB initialized successfully.");
+            }
+
+            // Create outpost chests table (loot chests refilled from each outpost's loot pool)
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "CREATE TABLE IF NOT EXISTS outpost_chests (" +
+                            "outpost_name TEXT NOT NULL, " +
+                            "world TEXT NOT NULL, " +
+                            "x INTEGER NOT NULL, " +
+                            "y INTEGER NOT NULL, " +
+                            "z INTEGER NOT NULL, " +
+                            "PRIMARY KEY (outpost_name, world, x, y, z)" +
+                            ")")) {
+                statement.executeUpdate();
+                plugin.getLogger().info("Outpost chests table in Outposts DB initialized successfully.");
+            }
+
+            // Create loot items table (each outpost's loot pool, loaded when the pool is first used)
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "CREATE TABLE IF NOT EXISTS loot_items (" +
+                            "outpost_name TEXT NOT NULL, " +
+                            "item_id TEXT NOT NULL, " +
+                            "item BLOB NOT NULL, " +
+                            "rarity TEXT NOT NULL, " +
+                            "drop_chance REAL NOT NULL, " +
+                            "PRIMARY KEY (outpost_name, item_id)" +
+                            ")")) {
+                statement.executeUpdate();
+                plugin.getLogger().info("Loot items table in Outposts DB initialized successfully.");
+            }
+
+            // Prepare the mutation statements once
+            prepareStatement(SAVE_TEAM_SQL);
+            prepareStatement(REMOVE_TEAM_SQL);
+            prepareStatement(SAVE_PLAYER_SQL);
+            prepareStatement(REMOVE_PLAYER_SQL);
+            prepareStatement(UPSERT_TEAM_SQL);
+            prepareStatement(UPSERT_OUTPOST_STATE_SQL);
+            prepareStatement(DELETE_OUTPOST_STATE_SQL);
+            prepareStatement(SAVE_CHEST_SQL);
+            prepareStatement(REMOVE_CHEST_SQL);
+            prepareStatement(REMOVE_OUTPOST_CHESTS_SQL);
+            prepareStatement(SAVE_LOOT_ITEM_SQL);
+            prepareStatement(REMOVE_LOOT_POOL_SQL);
+
         } catch (SQLException e) {
             plugin.getLogger().severe("Error initializing database: " + e.getMessage());
             throw e;
         }
     }
 
-    // ---- Team-related methods ----
+    // Prepare a statement and register it under its SQL
+    private void prepareStatement(String sql) throws SQLException {
+        PreparedStatement previous = preparedStatements.put(sql, connection.prepareStatement(sql));
+        if (previous != null) {
+            previous.close();
+        }
+    }
 
-    // Method to check if a team is already in the database
-    private boolean isTeamInDatabase(Integer teamId) throws SQLException {
-        String query = "SELECT id FROM teams WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, teamId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next();  // Returns true if a result is found
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not check if team exists in database", e);
-            throw new SQLException("Could not check if team exists in database", e);
+    // Look up a prepared statement from the registry
+    private PreparedStatement getStatement(String sql) throws SQLException {
+        PreparedStatement statement = preparedStatements.get(sql);
+        if (statement == null) {
+            throw new SQLException("Outposts DB has not been initialized");
         }
+        statement.clearParameters();
+        return statement;
     }
 
+    // ---- Team-related methods ----
+
     // Save team to database only if not already present
     public synchronized void saveTeamToOutpostsDb(Integer teamId, String teamName, UUID ownerUUID) throws SQLException {
-        plugin.getLogger().info("Saving team to Outposts DB: ID=" + teamId + ", Name=" + teamName + ", OwnerUUID=" + ownerUUID);
+        plugin.getEventLog().debug("db", "save_team", "team", teamId);
 
         if (teamId == null || teamName == null || ownerUUID == null) {
             throw new SQLException("Team ID, Team Name, or Owner UUID cannot be null");
         }
 
-        // Check if the team is already in the database
-        if (isTeamInDatabase(teamId)) {
-            plugin.getLogger().info("Team " + teamName + " is already in the database.");
-            return;  // Team already exists, no need to add
-        }
-
-        // Add the team to the database
-        String sql = "INSERT INTO teams (id, teamName, ownerUUID) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        // Add the team to the database, ignoring it if it is already present
+        try {
+            PreparedStatement pstmt = getStatement(SAVE_TEAM_SQL);
             pstmt.setInt(1, teamId);
             pstmt.setString(2, teamName);
             pstmt.setString(3, ownerUUID.toString());
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() == 0) {
+                plugin.getEventLog().debug("db", "save_team_exists", "team", teamId);
+            }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Could not save team to database", e);
             throw new SQLException("Could not save team to database", e);
@@ -120,10 +282,10 @@ public class OutpostDatabaseManager {
 
     // Remove a team from the database
     public synchronized void removeTeamFromOutpostsDb(Integer teamId) throws SQLException {
-        plugin.getLogger().info("Removing team from Outposts DB: ID=" + teamId);
+        plugin.getEventLog().debug("db", "remove_team", "team", teamId);
 
-        String sql = "DELETE FROM teams WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try {
+            PreparedStatement pstmt = getStatement(REMOVE_TEAM_SQL);
             pstmt.setInt(1, teamId);
             pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -132,45 +294,71 @@ public class OutpostDatabaseManager {
         }
     }
 
-    // ---- Player-related methods ----
+    // Fetch every stored team as id -> {teamName, ownerUUID}, used to skip unchanged rows when syncing
+    public synchronized Map<Integer, String[]> loadAllTeams() throws SQLException {
+        long startTime = System.nanoTime();
+        Map<Integer, String[]> teams = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, teamName, ownerUUID FROM teams")) {
+            while (rs.next()) {
+                teams.put(rs.getInt(1), new String[]{rs.getString(2), rs.getString(3)});
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load teams from database", e);
+            throw new SQLException("Could not load teams from database", e);
+        } finally {
+            plugin.getMetrics().recordDb("outposts.load_all_teams", System.nanoTime() - startTime);
+        }
+        return teams;
+    }
 
-    // Method to check if a player is already in the database
-    private boolean isPlayerInDatabase(UUID playerUUID) throws SQLException {
-        String query = "SELECT uuid FROM players WHERE uuid = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, playerUUID.toString());
-            try (ResultSet rs = pstmt.executeQuery()) {
-                boolean exists = rs.next();
-                plugin.getLogger().info("Player exists in database: " + exists);
-                return exists;  // Returns true if a result is found
+    // Insert or update teams in a single transaction using one JDBC batch
+    public synchronized void upsertTeams(Collection<Team> teams) throws SQLException {
+        if (teams.isEmpty()) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            PreparedStatement pstmt = getStatement(UPSERT_TEAM_SQL);
+            for (Team team : teams) {
+                pstmt.setInt(1, team.getId());
+                pstmt.setString(2, team.getName());
+                pstmt.setString(3, team.getOwner().toString());
+                pstmt.addBatch();
             }
+            pstmt.executeBatch();
+            connection.commit();
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Could not check if player exists in database", e);
-            throw new SQLException("Could not check if player exists in database", e);
+            connection.rollback();
+            plugin.getLogger().log(Level.SEVERE, "Could not save teams to database", e);
+            throw new SQLException("Could not save teams to database", e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            plugin.getMetrics().recordDb("outposts.upsert_teams", System.nanoTime() - startTime);
         }
     }
 
+    // ---- Player-related methods ----
+
     // Save player to database if not already present
     public synchronized void savePlayerToOutpostsDb(UUID playerUUID, String playerName) throws SQLException {
-        plugin.getLogger().info("Saving player to Outposts DB: UUID=" + playerUUID + ", Name=" + playerName);
+        plugin.getEventLog().debug("db", "save_player", "player", playerUUID);
 
         if (playerUUID == null || playerName == null) {
             throw new SQLException("Player UUID or Name cannot be null");
         }
 
-        // Check if the player is already in the database
-        if (isPlayerInDatabase(playerUUID)) {
-            plugin.getLogger().info("Player " + playerName + " is already in the database.");
-            return;  // Player already exists
-        }
-
-        // Add the player to the database
-        String sql = "INSERT INTO players (uuid, playerName) VALUES (?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        // Add the player to the database, ignoring them if they are already present
+        try {
+            PreparedStatement pstmt = getStatement(SAVE_PLAYER_SQL);
             pstmt.setString(1, playerUUID.toString());
             pstmt.setString(2, playerName);
-            pstmt.executeUpdate();
-            plugin.getLogger().info("Player " + playerName + " successfully saved to the database.");
+            if (pstmt.executeUpdate() == 0) {
+                plugin.getEventLog().debug("db", "save_player_exists", "player", playerUUID);
+            }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Could not save player to database", e);
             throw new SQLException("Could not save player to database", e);
@@ -179,17 +367,291 @@ public class OutpostDatabaseManager {
 
     // Remove a player from the database
     public synchronized void removePlayerFromOutpostsDb(UUID playerUUID) throws SQLException {
-        plugin.getLogger().info("Removing player from Outposts DB: UUID=" + playerUUID);
+        plugin.getEventLog().debug("db", "remove_player", "player", playerUUID);
 
-        String sql = "DELETE FROM players WHERE uuid = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try {
+            PreparedStatement pstmt = getStatement(REMOVE_PLAYER_SQL);
             pstmt.setString(1, playerUUID.toString());
             pstmt.executeUpdate();
-            plugin.getLogger().info("Player " + playerUUID + " successfully removed from the database.");
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Could not remove player from database", e);
             throw new SQLException("Could not remove player from database", e);
         }
     }
 
-}
\ No newline at end of file
+    // ---- Outpost state methods ----
+
+    // Write outpost state snapshots in a single transaction
+    public synchronized void saveOutpostStates(Collection<OutpostState> states) throws SQLException {
+        long startTime = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            PreparedStatement pstmt = getStatement(UPSERT_OUTPOST_STATE_SQL);
+            long now = System.currentTimeMillis();
+            for (OutpostState state : states) {
+                pstmt.setString(1, state.getName());
+                pstmt.setString(2, state.getWorldName());
+                pstmt.setDouble(3, state.getX());
+                pstmt.setDouble(4, state.getY());
+                pstmt.setDouble(5, state.getZ());
+                pstmt.setBoolean(6, state.isChargingEnabled());
+                pstmt.setDouble(7, state.getCurrentCharge());
+                if (state.getControllingTeamId() != null) {
+                    pstmt.setInt(8, state.getControllingTeamId());
+                } else {
+                    pstmt.setNull(8, Types.INTEGER);
+                }
+                pstmt.setBoolean(9, state.isInOvertime());
+                pstmt.setLong(10, state.getOvertimeElapsedMillis());
+                pstmt.setLong(11, state.getOvertimeRemainingMillis());
+                pstmt.setInt(12, state.getOvertimeDuration());
+                pstmt.setInt(13, state.getOvertimeResetCount());
+                pstmt.setString(14, state.getTeamKills());
+                pstmt.setString(15, state.getPlayerKills());
+                pstmt.setLong(16, now);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            plugin.getLogger().log(Level.SEVERE, "Could not save outpost state to database", e);
+            throw new SQLException("Could not save outpost state to database", e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            plugin.getMetrics().recordDb("outposts.save_states", System.nanoTime() - startTime);
+        }
+    }
+
+    // Keep a tombstone so the outpost is not re-imported from config.yml
+    public synchronized void markOutpostStateDeleted(String outpostName) throws SQLException {
+        plugin.getEventLog().debug("db", "delete_outpost_state", "outpost", outpostName);
+
+        try {
+            PreparedStatement pstmt = getStatement(DELETE_OUTPOST_STATE_SQL);
+            pstmt.setLong(1, System.currentTimeMillis());
+            pstmt.setString(2, outpostName);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not delete outpost state from database", e);
+            throw new SQLException("Could not delete outpost state from database", e);
+        }
+    }
+
+    // Fetch every stored outpost, deleted ones included
+    public synchronized List<OutpostState> loadOutpostStates() throws SQLException {
+        long startTime = System.nanoTime();
+        List<OutpostState> states = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT name, world, x, y, z, deleted, charging_enabled, current_charge, "
+                     + "controlling_team_id, in_overtime, overtime_elapsed_ms, overtime_remaining_ms, overtime_duration, "
+                     + "overtime_reset_count, team_kills, player_kills FROM outpost_state")) {
+            while (rs.next()) {
+                Integer controllingTeamId = rs.getInt(9);
+                if (rs.wasNull()) {
+                    controllingTeamId = null;
+                }
+                states.add(new OutpostState(rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5),
+                        rs.getBoolean(6), rs.getBoolean(7), rs.getDouble(8), controllingTeamId,
+                        rs.getBoolean(10), rs.getLong(11), rs.getLong(12), rs.getInt(13), rs.getInt(14),
+                        rs.getString(15), rs.getString(16)));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load outpost state from database", e);
+            throw new SQLException("Could not load outpost state from database", e);
+        } finally {
+            plugin.getMetrics().recordDb("outposts.load_states", System.nanoTime() - startTime);
+        }
+        return states;
+    }
+
+    // ---- Outpost chest methods ----
+
+    // Register a loot chest for an outpost, ignoring it if it is already registered
+    public synchronized void saveChest(String outpostName, ChestLocation chest) throws SQLException {
+        plugin.getEventLog().debug(outpostName, "save_chest", "chest", chest);
+
+        try {
+            PreparedStatement pstmt = getStatement(SAVE_CHEST_SQL);
+            pstmt.setString(1, outpostName);
+            pstmt.setString(2, chest.getWorldName());
+            pstmt.setInt(3, chest.getX());
+            pstmt.setInt(4, chest.getY());
+            pstmt.setInt(5, chest.getZ());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save outpost chest to database", e);
+            throw new SQLException("Could not save outpost chest to database", e);
+        }
+    }
+
+    // Unregister a single loot chest
+    public synchronized void removeChest(String outpostName, ChestLocation chest) throws SQLException {
+        plugin.getEventLog().debug(outpostName, "remove_chest", "chest", chest);
+
+        try {
+            PreparedStatement pstmt = getStatement(REMOVE_CHEST_SQL);
+            pstmt.setString(1, outpostName);
+            pstmt.setString(2, chest.getWorldName());
+            pstmt.setInt(3, chest.getX());
+            pstmt.setInt(4, chest.getY());
+            pstmt.setInt(5, chest.getZ());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not remove outpost chest from database", e);
+            throw new SQLException("Could not remove outpost chest from database", e);
+        }
+    }
+
+    // Unregister every loot chest of a deleted outpost
+    public synchronized void removeOutpostChests(String outpostName) throws SQLException {
+        plugin.getEventLog().debug(outpostName, "remove_outpost_chests");
+
+        try {
+            PreparedStatement pstmt = getStatement(REMOVE_OUTPOST_CHESTS_SQL);
+            pstmt.setString(1, outpostName);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not remove outpost chests from database", e);
+            throw new SQLException("Could not remove outpost chests from database", e);
+        }
+    }
+
+    // Fetch every registered loot chest as outpostName -> chests
+    public synchronized Map<String, List<ChestLocation>> loadChests() throws SQLException {
+        long startTime = System.nanoTime();
+        Map<String, List<ChestLocation>> chests = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT outpost_name, world, x, y, z FROM outpost_chests")) {
+            while (rs.next()) {
+                chests.computeIfAbsent(rs.getString(1), name -> new ArrayList<>())
+                        .add(new ChestLocation(rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load outpost chests from database", e);
+            throw new SQLException("Could not load outpost chests from database", e);
+        } finally {
+            plugin.getMetrics().recordDb("outposts.load_chests", System.nanoTime() - startTime);
+        }
+        return chests;
+    }
+
+    // ---- Loot pool methods ----
+
+    // Replace the stored items of each outpost's loot pool in a single transaction (outpostName -> items)
+    public synchronized void saveLootPools(Map<String, List<StoredLootItem>> lootPools) throws SQLException {
+        long startTime = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            PreparedStatement removeStatement = getStatement(REMOVE_LOOT_POOL_SQL);
+            PreparedStatement saveStatement = getStatement(SAVE_LOOT_ITEM_SQL);
+            for (Map.Entry<String, List<StoredLootItem>> entry : lootPools.entrySet()) {
+                removeStatement.setString(1, entry.getKey());
+                removeStatement.executeUpdate();
+
+                for (StoredLootItem item : entry.getValue()) {
+                    saveStatement.setString(1, entry.getKey());
+                    saveStatement.setString(2, item.getItemId());
+                    saveStatement.setBytes(3, item.getItemBytes());
+                    saveStatement.setString(4, item.getRarity());
+                    saveStatement.setDouble(5, item.getDropChance());
+                    saveStatement.addBatch();
+                }
+            }
+            saveStatement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            plugin.getLogger().log(Level.SEVERE, "Could not save loot pools to database", e);
+            throw new SQLException("Could not save loot pools to database", e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            plugin.getMetrics().recordDb("outposts.save_loot_pools", System.nanoTime() - startTime);
+        }
+    }
+
+    // Remove a deleted outpost's loot pool
+    public synchronized void removeLootPool(String outpostName) throws SQLException {
+        plugin.getEventLog().debug(outpostName, "remove_loot_pool");
+
+        try {
+            PreparedStatement pstmt = getStatement(REMOVE_LOOT_POOL_SQL);
+            pstmt.setString(1, outpostName);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not remove loot pool from database", e);
+            throw new SQLException("Could not remove loot pool from database", e);
+        }
+    }
+
+    // Fetch the stored items of one outpost's loot pool
+    public synchronized List<StoredLootItem> loadLootPool(String outpostName) throws SQLException {
+        long startTime = System.nanoTime();
+        List<StoredLootItem> items = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT item_id, item, rarity, drop_chance FROM loot_items WHERE outpost_name = ?")) {
+            statement.setString(1, outpostName);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    items.add(new StoredLootItem(rs.getString(1), rs.getBytes(2), rs.getString(3), rs.getDouble(4)));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load loot pool from database", e);
+            throw new SQLException("Could not load loot pool from database", e);
+        } finally {
+            plugin.getMetrics().recordDb("outposts.load_loot_pool", System.nanoTime() - startTime);
+        }
+        return items;
+    }
+
+    // ---- Async methods (run on the database writer thread) ----
+
+    public CompletableFuture<Void> saveChestAsync(String outpostName, ChestLocation chest) {
+        return executor.write(() -> plugin.getMetrics().timeDb("outposts.save_chest", () -> {
+            saveChest(outpostName, chest);
+            return null;
+        }));
+    }
+
+    public CompletableFuture<Void> removeChestAsync(String outpostName, ChestLocation chest) {
+        return executor.write(() -> plugin.getMetrics().timeDb("outposts.remove_chest", () -> {
+            removeChest(outpostName, chest);
+            return null;
+        }));
+    }
+
+    public CompletableFuture<Void> removeOutpostChestsAsync(String outpostName) {
+        return executor.write(() -> plugin.getMetrics().timeDb("outposts.remove_outpost_chests", () -> {
+            removeOutpostChests(outpostName);
+            return null;
+        }));
+    }
+
+    // ---- Batch methods ----
+
+    // Apply a batch of queued mutations from OutpostWriteQueue in a single transaction; each statement is timed under
+    // its own operation, and the whole batch (commit included) under outposts.apply_batch
+    synchronized void applyBatch(Collection<OutpostWriteQueue.Mutation> mutations) throws SQLException {
+        long startTime = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (OutpostWriteQueue.Mutation mutation : mutations) {
+                long statementStart = System.nanoTime();
+                mutation.apply(this);
+                plugin.getMetrics().recordDb(mutation.type.operation, System.nanoTime() - statementStart);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            plugin.getMetrics().recordDb("outposts.apply_batch", System.nanoTime() - startTime);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.jeepy.wocoutposts.database;
+
+// Point-in-time copy of an outpost's definition and capture progress, as stored in the outpost_state table.
+// Captured on the main thread and written on the database writer thread.
+public final class OutpostState {
+
+    private final String name;
+    private final String worldName;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final boolean deleted;
+    private final boolean chargingEnabled;
+    private final double currentCharge;
+    private final Integer controllingTeamId;
+    private final boolean inOvertime;
+    private final long overtimeElapsedMillis;
+    private final long overtimeRemainingMillis;
+    private final int overtimeDuration;
+    private final int overtimeResetCount;
+    // Kill counters encoded as "teamId=kills,..." and "playerUUID=kills,..."
+    private final String teamKills;
+    private final String playerKills;
+
+    public OutpostState(String name, String worldName, double x, double y, double z, boolean deleted,
+                        boolean chargingEnabled, double currentCharge, Integer controllingTeamId,
+                        boolean inOvertime, long overtimeElapsedMillis, long overtimeRemainingMillis,
+                        int overtimeDuration, int overtimeResetCount, String teamKills, String playerKills) {
+        this.name = name;
+        this.worldName = worldName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.deleted = deleted;
+        this.chargingEnabled = chargingEnabled;
+        this.currentCharge = currentCharge;
+        this.controllingTeamId = controllingTeamId;
+        this.inOvertime = inOvertime;
+        this.overtimeElapsedMillis = overtimeElapsedMillis;
+        this.overtimeRemainingMillis = overtimeRemainingMillis;
+        this.overtimeDuration = overtimeDuration;
+        this.overtimeResetCount = overtimeResetCount;
+        this.teamKills = teamKills;
+        this.playerKills = playerKills;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    // Deleted outposts keep a row so a config.yml definition with the same name is not imported again
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public boolean isChargingEnabled() {
+        return chargingEnabled;
+    }
+
+    public double getCurrentCharge() {
+        return currentCharge;
+    }
+
+    public Integer getControllingTeamId() {
+        return controllingTeamId;
+    }
+
+    public boolean isInOvertime() {
+        return inOvertime;
+    }
+
+    public long getOvertimeElapsedMillis() {
+        return overtimeElapsedMillis;
+    }
+
+    public long getOvertimeRemainingMillis() {
+        return overtimeRemainingMillis;
+    }
+
+    public int getOvertimeDuration() {
+        return overtimeDuration;
+    }
+
+    public int getOvertimeResetCount() {
+        return overtimeResetCount;
+    }
+
+    public String getTeamKills() {
+        return teamKills;
+    }
+
+    public String getPlayerKills() {
+        return playerKills;
+    }
+}
@@ -0,0 +1,123 @@
+package com.jeepy.wocoutposts.database;
+
+import com.jeepy.wocoutposts.Main;
+import com.jeepy.wocoutposts.objectives.ClassifiedOutpost;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+// Persists outpost runtime state to the outpost_state table. State is captured on the thread owning the outpost
+// and written on the database writer: immediately for state transitions, and every save interval for outposts
+// marked dirty.
+public class OutpostStateStore {
+
+    private final Main plugin;
+    private final OutpostDatabaseManager databaseManager;
+    private final long saveIntervalTicks;
+    // Outposts whose charge or counters changed since the last save (marked from any region thread)
+    private final Set<ClassifiedOutpost> dirtyOutposts = ConcurrentHashMap.newKeySet();
+    private RegionScheduler.Task saveTask;
+
+    public OutpostStateStore(Main plugin, OutpostDatabaseManager databaseManager, int saveIntervalSeconds) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.saveIntervalTicks = saveIntervalSeconds * 20L;
+    }
+
+    public void start() {
+        saveTask = plugin.getRegionScheduler().runGlobalAtFixedRate(this::saveDirty, saveIntervalTicks, saveIntervalTicks);
+    }
+
+    // Load every stored outpost (deleted ones included) on a database read thread
+    public CompletableFuture<List<OutpostState>> loadAll() {
+        return databaseManager.getExecutor().read(databaseManager::loadOutpostStates);
+    }
+
+    // Save on the next periodic flush
+    public void markDirty(ClassifiedOutpost outpost) {
+        dirtyOutposts.add(outpost);
+    }
+
+    // Save right away (state transitions, outpost creation)
+    public void saveNow(ClassifiedOutpost outpost) {
+        dirtyOutposts.remove(outpost);
+        if (isRegistered(outpost)) {
+            write(Collections.singletonList(outpost.captureState()));
+        }
+    }
+
+    // Outposts owned by this thread (all of them on a single-threaded server) are captured and written in one
+    // batch; the others are captured on their own region and written on their own
+    public void saveDirty() {
+        if (dirtyOutposts.isEmpty()) {
+            return;
+        }
+
+        RegionScheduler regionScheduler = plugin.getRegionScheduler();
+        List<OutpostState> states = new ArrayList<>(dirtyOutposts.size());
+        for (ClassifiedOutpost outpost : dirtyOutposts) {
+            if (regionScheduler.isOwnedByCurrentThread(outpost.getBeaconLocation())) {
+                dirtyOutposts.remove(outpost);
+                if (isRegistered(outpost)) {
+                    states.add(outpost.captureState());
+                }
+            } else {
+                regionScheduler.execute(outpost.getBeaconLocation(), () -> saveNow(outpost));
+            }
+        }
+        write(states);
+    }
+
+    // Tombstone a deleted outpost's row
+    public void delete(String outpostName) {
+        dirtyOutposts.removeIf(outpost -> outpost.getOutpostName().equals(outpostName));
+        databaseManager.getExecutor().write(() -> {
+            databaseManager.markOutpostStateDeleted(outpostName);
+            return null;
+        }).exceptionally(error -> {
+            plugin.getLogger().log(Level.SEVERE, "Could not delete stored state for outpost " + outpostName, error);
+            return null;
+        });
+    }
+
+    // Save every outpost one last time; queued on the writer ahead of the connection close in Main.onDisable()
+    public void shutdown(Collection<ClassifiedOutpost> outposts) {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+
+        List<OutpostState> states = new ArrayList<>(outposts.size());
+        for (ClassifiedOutpost outpost : outposts) {
+            states.add(outpost.captureState());
+        }
+        dirtyOutposts.clear();
+        write(states);
+    }
+
+    // Late callbacks for a deleted outpost must not bring its row back
+    private boolean isRegistered(ClassifiedOutpost outpost) {
+        return plugin.getOutpostManager().getRegistry().get(outpost.getOutpostName()) == outpost;
+    }
+
+    private void write(List<OutpostState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+
+        databaseManager.getExecutor().write(() -> {
+            databaseManager.saveOutpostStates(states);
+            return null;
+        }).exceptionally(error -> {
+            plugin.getLogger().log(Level.SEVERE, "Could not save outpost state", error);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,295 @@
+package com.jeepy.wocoutposts.database;
+
+import com.jeepy.wocoutposts.Main;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+// Write-behind queue for radius entry/exit mutations, flushed on the database writer thread
+public class OutpostWriteQueue {
+
+    // A pending radius entry/exit mutation
+    static final class Mutation {
+        enum Type {
+            SAVE_TEAM("outposts.save_team"),
+            REMOVE_TEAM("outposts.remove_team"),
+            SAVE_PLAYER("outposts.save_player"),
+            REMOVE_PLAYER("outposts.remove_player");
+
+            final String operation;  // DB latency histogram name
+
+            Type(String operation) {
+                this.operation = operation;
+            }
+        }
+
+        final Type type;
+        final Integer teamId;
+        final UUID playerUUID;
+        final String name;
+        final UUID ownerUUID;
+
+        private Mutation(Type type, Integer teamId, UUID playerUUID, String name, UUID ownerUUID) {
+            this.type = type;
+            this.teamId = teamId;
+            this.playerUUID = playerUUID;
+            this.name = name;
+            this.ownerUUID = ownerUUID;
+        }
+
+        // Mutations for the same team or player share a key (Integer and UUID never collide)
+        Object key() {
+            return teamId != null ? teamId : playerUUID;
+        }
+
+        boolean isSave() {
+            return type == Type.SAVE_TEAM || type == Type.SAVE_PLAYER;
+        }
+
+        void apply(OutpostDatabaseManager databaseManager) throws SQLException {
+            switch (type) {
+                case SAVE_TEAM:
+                    databaseManager.saveTeamToOutpostsDb(teamId, name, ownerUUID);
+                    break;
+                case REMOVE_TEAM:
+                    databaseManager.removeTeamFromOutpostsDb(teamId);
+                    break;
+                case SAVE_PLAYER:
+                    databaseManager.savePlayerToOutpostsDb(playerUUID, name);
+                    break;
+                case REMOVE_PLAYER:
+                    databaseManager.removePlayerFromOutpostsDb(playerUUID);
+                    break;
+            }
+        }
+    }
+
+    // Overflowed mutations for one team or player. The flush only looks at how a key's mutations start (a remove
+    // first means the row may already exist) and how they end, so the ones in between can be dropped.
+    private static final class OverflowEntry {
+        private final Mutation first;
+        private Mutation last;
+
+        private OverflowEntry(Mutation first) {
+            this.first = first;
+            this.last = first;
+        }
+    }
+
+    private final Main plugin;
+    private final OutpostDatabaseManager databaseManager;
+    private final BlockingQueue<Mutation> queue;
+    // Mutations enqueued while the queue was full, coalesced per team/player and written after the queue by the next
+    // flush (guarded by itself). At most one entry per team and player, however long the writer falls behind.
+    private final Map<Object, OverflowEntry> overflow = new LinkedHashMap<>();
+    private final AtomicInteger overflowDepth = new AtomicInteger();  // overflow.size(), readable without the lock
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final int capacity;
+    private final long flushIntervalMillis;
+    private ScheduledFuture<?> flushTask;
+
+    // Queue metrics
+    private final AtomicInteger peakDepth = new AtomicInteger();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+
+    public OutpostWriteQueue(Main plugin, OutpostDatabaseManager databaseManager, int capacity, long flushIntervalMillis) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.capacity = capacity;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public void start() {
+        flushTask = databaseManager.getExecutor().scheduleWrite(this::flushSafely, flushIntervalMillis);
+    }
+
+    // Stop periodic flushing and queue a final drain on the writer; called from Main.onDisable()
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+
+        databaseManager.getExecutor().write(() -> {
+            flushSafely();
+            plugin.getLogger().info("Outpost write queue drained. Enqueued: " + enqueued.get() + ", coalesced: " + coalesced.get()
+                    + ", rows written: " + flushedRows.get() + " in " + flushedBatches.get() + " batches, overflows: " + overflows.get());
+            return null;
+        });
+    }
+
+    // ---- Enqueue methods (called from the server or region threads, never block) ----
+
+    public void enqueueSaveTeam(Integer teamId, String teamName, UUID ownerUUID) {
+        if (teamId == null || teamName == null || ownerUUID == null) {
+            plugin.getLogger().warning("Skipping team save with missing ID, name or owner.");
+            return;
+        }
+        enqueue(new Mutation(Mutation.Type.SAVE_TEAM, teamId, null, teamName, ownerUUID));
+    }
+
+    public void enqueueRemoveTeam(Integer teamId) {
+        enqueue(new Mutation(Mutation.Type.REMOVE_TEAM, teamId, null, null, null));
+    }
+
+    public void enqueueSavePlayer(UUID playerUUID, String playerName) {
+        if (playerUUID == null || playerName == null) {
+            plugin.getLogger().warning("Skipping player save with missing UUID or name.");
+            return;
+        }
+        enqueue(new Mutation(Mutation.Type.SAVE_PLAYER, null, playerUUID, playerName, null));
+    }
+
+    public void enqueueRemovePlayer(UUID playerUUID) {
+        enqueue(new Mutation(Mutation.Type.REMOVE_PLAYER, null, playerUUID, null, null));
+    }
+
+    // Never blocks: once the queue is full, mutations go to the per-key overflow (until the writer has drained it)
+    // and the writer is asked to flush right away
+    private void enqueue(Mutation mutation) {
+        if (overflowDepth.get() > 0 || !queue.offer(mutation)) {
+            addToOverflow(mutation);
+            if (flushRequested.compareAndSet(false, true)) {
+                overflows.incrementAndGet();
+                plugin.getLogger().warning("Outpost write queue is full (" + capacity + " entries), flushing early.");
+                databaseManager.getExecutor().write(() -> {
+                    flushSafely();
+                    return null;
+                });
+            }
+        }
+        enqueued.incrementAndGet();
+
+        int depth = getQueueDepth();
+        if (depth > peakDepth.get()) {
+            peakDepth.accumulateAndGet(depth, Math::max);
+        }
+    }
+
+    private void addToOverflow(Mutation mutation) {
+        synchronized (overflow) {
+            OverflowEntry entry = overflow.get(mutation.key());
+            if (entry == null) {
+                overflow.put(mutation.key(), new OverflowEntry(mutation));
+                overflowDepth.set(overflow.size());
+                return;
+            }
+            if (entry.last != entry.first) {
+                coalesced.incrementAndGet();  // The mutation it replaces is never written
+            }
+            entry.last = mutation;
+        }
+    }
+
+    // ---- Writer ----
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            // Never let an exception kill the scheduled writer
+            plugin.getLogger().log(Level.SEVERE, "Unexpected error flushing the outpost write queue", t);
+        }
+    }
+
+    private synchronized void flush() {
+        flushRequested.set(false);
+        List<Mutation> drained = new ArrayList<>(queue.size());
+        queue.drainTo(drained);
+        synchronized (overflow) {
+            for (OverflowEntry entry : overflow.values()) {
+                drained.add(entry.first);
+                if (entry.last != entry.first) {
+                    drained.add(entry.last);
+                }
+            }
+            overflow.clear();
+            overflowDepth.set(0);
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        // Coalesce per team/player: an enter followed by an exit cancels out, otherwise the latest mutation wins.
+        // A save that replaced a remove earlier in the batch must not cancel out, or the row written by an earlier
+        // flush would be left behind (remove, save, remove has to end as a remove).
+        Map<Object, Mutation> pending = new LinkedHashMap<>();
+        Set<Object> startedWithRemove = new HashSet<>();
+        for (Mutation mutation : drained) {
+            Object key = mutation.key();
+            Mutation previous = pending.get(key);
+
+            if (previous == null) {
+                if (!mutation.isSave()) {
+                    startedWithRemove.add(key);
+                }
+            } else if (previous.isSave() && !mutation.isSave() && !startedWithRemove.contains(key)) {
+                pending.remove(key);
+                coalesced.addAndGet(2);
+                continue;
+            } else {
+                coalesced.incrementAndGet();
+            }
+            pending.put(key, mutation);
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            databaseManager.applyBatch(pending.values());
+            flushedRows.addAndGet(pending.size());
+            flushedBatches.incrementAndGet();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not flush " + pending.size() + " queued outpost DB mutations", e);
+        }
+    }
+
+    // ---- Metrics ----
+
+    public int getQueueDepth() {
+        return queue.size() + overflowDepth.get();
+    }
+
+    public int getPeakQueueDepth() {
+        return peakDepth.get();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getFlushedRowCount() {
+        return flushedRows.get();
+    }
+
+    public long getFlushedBatchCount() {
+        return flushedBatches.get();
+    }
+
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+}
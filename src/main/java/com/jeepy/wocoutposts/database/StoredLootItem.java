@@ -0,0 +1,33 @@
+package com.jeepy.wocoutposts.database;
+
+// One row of the loot_items table: an item in an outpost's loot pool, with the ItemStack in Bukkit serialized form
+public final class StoredLootItem {
+
+    private final String itemId;
+    private final byte[] itemBytes;
+    private final String rarity;
+    private final double dropChance;
+
+    public StoredLootItem(String itemId, byte[] itemBytes, String rarity, double dropChance) {
+        this.itemId = itemId;
+        this.itemBytes = itemBytes;
+        this.rarity = rarity;
+        this.dropChance = dropChance;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public byte[] getItemBytes() {
+        return itemBytes;
+    }
+
+    public String getRarity() {
+        return rarity;
+    }
+
+    public double getDropChance() {
+        return dropChance;
+    }
+}
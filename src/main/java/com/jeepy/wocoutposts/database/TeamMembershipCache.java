@@ -0,0 +1,224 @@
+package com.jeepy.wocoutposts.database;
+
+import com.jeepy.database.WocTeamsDatabaseManager;
+import com.jeepy.teams.Team;
+import com.jeepy.wocoutposts.Main;
+import com.jeepy.wocoutposts.metrics.OutpostMetrics;
+import com.jeepy.wocoutposts.objectives.TeamLookup;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+// Cache of player -> team and team -> member count in front of WocTeamsDatabaseManager, shared by every region thread.
+// Misses and expired entries are loaded on the database read threads; expired entries keep being served until the refresh lands.
+// WocTeamsDatabaseManager is not known to be thread-safe, so database.read_threads defaults to a single reader.
+// Woc-Teams has no team change events: a join, leave or disband is picked up when the entry expires, and a refresh
+// that finds a different team moves the player out of the outposts they occupy under the old one.
+public class TeamMembershipCache implements TeamLookup {
+
+    // Cached team membership for one player (team is null for solo players)
+    public static final class Membership {
+        private final Team team;
+        private final long expiresAt;
+
+        private Membership(Team team, long expiresAt) {
+            this.team = team;
+            this.expiresAt = expiresAt;
+        }
+
+        public Team getTeam() {
+            return team;
+        }
+    }
+
+    private static final class MemberCount {
+        private final int count;
+        private final long expiresAt;
+
+        private MemberCount(int count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Result of an off-thread membership lookup
+    private static final class LoadResult {
+        private final Team team;
+        private final int count;
+
+        private LoadResult(Team team, int count) {
+            this.team = team;
+            this.count = count;
+        }
+    }
+
+    private final Main plugin;
+    private final WocTeamsDatabaseManager teamsDbManager;
+    private final long ttlMillis;
+
+    private final Map<UUID, Membership> memberships;
+    private final Map<Integer, MemberCount> memberCounts;
+    // Callbacks waiting on an in-flight load, keyed by player (guarded by itself)
+    private final Map<UUID, List<Consumer<Membership>>> pendingLoads = new HashMap<>();
+    // Teams whose member count is being loaded, so a cold team costs one read however often it is asked for
+    private final Set<Integer> pendingCountLoads = ConcurrentHashMap.newKeySet();
+
+    public TeamMembershipCache(Main plugin, WocTeamsDatabaseManager teamsDbManager, long ttlMillis, int maxEntries) {
+        this.plugin = plugin;
+        this.teamsDbManager = teamsDbManager;
+        this.ttlMillis = ttlMillis;
+        this.memberships = lruMap(maxEntries);
+        this.memberCounts = lruMap(maxEntries);
+    }
+
+    // Synchronized access-ordered map that evicts its least recently used entry once it grows past maxEntries
+    private static <K, V> Map<K, V> lruMap(final int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    // Cached membership, or null on a miss (a load is started in the background)
+    public Membership getMembership(Player player) {
+        Membership membership = memberships.get(player.getUniqueId());
+        if (membership == null || membership.expiresAt <= System.currentTimeMillis()) {
+            load(player, null);
+        }
+        return membership;
+    }
+
+    // Run the callback with the player's membership, immediately if cached or on the global thread once loaded
+    public void withMembership(Player player, Consumer<Membership> callback) {
+        Membership membership = getMembership(player);
+        if (membership != null) {
+            callback.accept(membership);
+        } else {
+            load(player, callback);
+        }
+    }
+
+    // Cached member count for a team, or -1 if unknown (a refresh is started in the background)
+    @Override
+    public int getMemberCount(int teamId) {
+        MemberCount memberCount = memberCounts.get(teamId);
+        if (memberCount == null || memberCount.expiresAt <= System.currentTimeMillis()) {
+            loadMemberCount(teamId);
+        }
+        return memberCount != null ? memberCount.count : -1;
+    }
+
+    // Load a player's team (and its member count) on a database read thread, then publish it on the global thread
+    public void load(Player player, Consumer<Membership> callback) {
+        UUID playerUUID = player.getUniqueId();
+        synchronized (pendingLoads) {
+            List<Consumer<Membership>> callbacks = pendingLoads.get(playerUUID);
+            if (callbacks != null) {
+                // A load is already in flight, just wait for it
+                if (callback != null) {
+                    callbacks.add(callback);
+                }
+                return;
+            }
+
+            callbacks = new ArrayList<>(1);
+            if (callback != null) {
+                callbacks.add(callback);
+            }
+            pendingLoads.put(playerUUID, callbacks);
+        }
+
+        DatabaseExecutor executor = plugin.getDatabaseManager().getExecutor();
+        OutpostMetrics metrics = plugin.getMetrics();
+        executor.read(() -> {
+            Team team = metrics.timeDb("teams.get_team_by_player", () -> teamsDbManager.getTeamByPlayer(player));
+            int count = team != null
+                    ? metrics.timeDb("teams.get_team_members_by_id", () -> teamsDbManager.getTeamMembersById(team.getId()).size())
+                    : -1;
+            return new LoadResult(team, count);
+        }).whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Could not load team membership for " + playerUUID, error);
+                synchronized (pendingLoads) {
+                    pendingLoads.remove(playerUUID);
+                }
+                return;
+            }
+            publish(playerUUID, result.team, result.count);
+        }, executor.mainThread());
+    }
+
+    private void publish(UUID playerUUID, Team team, int count) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        Membership membership = new Membership(team, expiresAt);
+        Membership previous = memberships.put(playerUUID, membership);
+        if (team != null && count >= 0) {
+            memberCounts.put(team.getId(), new MemberCount(count, expiresAt));
+        }
+        if (previous != null && !Objects.equals(teamId(previous.team), teamId(team))) {
+            onTeamChanged(playerUUID, previous.team);
+        }
+
+        List<Consumer<Membership>> callbacks;
+        synchronized (pendingLoads) {
+            callbacks = pendingLoads.remove(playerUUID);
+        }
+        if (callbacks != null) {
+            for (Consumer<Membership> callback : callbacks) {
+                callback.accept(membership);
+            }
+        }
+    }
+
+    private void loadMemberCount(int teamId) {
+        if (!pendingCountLoads.add(teamId)) {
+            return;  // A load is already in flight
+        }
+
+        DatabaseExecutor executor = plugin.getDatabaseManager().getExecutor();
+        executor.read(() -> plugin.getMetrics().timeDb("teams.get_team_members_by_id",
+                        () -> teamsDbManager.getTeamMembersById(teamId).size()))
+                .whenCompleteAsync((count, error) -> {
+                    pendingCountLoads.remove(teamId);
+                    if (error != null) {
+                        plugin.getLogger().log(Level.SEVERE, "Could not load member count for team " + teamId, error);
+                        return;
+                    }
+                    memberCounts.put(teamId, new MemberCount(count, System.currentTimeMillis() + ttlMillis));
+                }, executor.mainThread());
+    }
+
+    private static Integer teamId(Team team) {
+        return team != null ? team.getId() : null;
+    }
+
+    // The refreshed entry disagrees with the cached one: the old team's member count is stale too, and the player
+    // has to leave and re-enter the outposts they occupy under their new team
+    private void onTeamChanged(UUID playerUUID, Team oldTeam) {
+        if (oldTeam != null) {
+            memberCounts.remove(oldTeam.getId());
+        }
+        Player player = plugin.getServer().getPlayer(playerUUID);
+        if (player != null) {
+            plugin.getOutpostManager().reenterOutposts(player);
+        }
+    }
+
+    // Forget a player who logged out
+    public void evictPlayer(UUID playerUUID) {
+        memberships.remove(playerUUID);
+    }
+}
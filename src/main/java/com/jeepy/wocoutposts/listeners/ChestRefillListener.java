@@ -0,0 +1,22 @@
+package com.jeepy.wocoutposts.listeners;
+
+import com.jeepy.wocoutposts.managers.ChestRefillManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+
+public class ChestRefillListener implements Listener {
+
+    private final ChestRefillManager chestRefillManager;
+
+    public ChestRefillListener(ChestRefillManager chestRefillManager) {
+        this.chestRefillManager = chestRefillManager;
+    }
+
+    // Apply refills that were parked while the chest's chunk was unloaded
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        chestRefillManager.onChunkLoad(event.getChunk());
+    }
+}
@@ -1,25 +1,22 @@
 package com.jeepy.wocoutposts.listeners;
 
-import com.jeepy.wocoutposts.objectives.ClassifiedOutpost;
+import com.jeepy.wocoutposts.managers.OutpostManager;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
-import java.sql.SQLException;
 
+// One listener for every outpost: OutpostManager routes each kill to the outposts whose combat zone contains it
 public class ClassifiedOutpostListener implements Listener {
 
-    private final ClassifiedOutpost classifiedOutpost;  // Reference to the outpost
+    private final OutpostManager outpostManager;
 
-    public ClassifiedOutpostListener(ClassifiedOutpost classifiedOutpost) {
-        this.classifiedOutpost = classifiedOutpost;
+    public ClassifiedOutpostListener(OutpostManager outpostManager) {
+        this.outpostManager = outpostManager;
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerKill(PlayerDeathEvent event) {
-        try {
-            classifiedOutpost.onPlayerKill(event);  // Delegate to the outpost class
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        outpostManager.handlePlayerKill(event);
     }
 }
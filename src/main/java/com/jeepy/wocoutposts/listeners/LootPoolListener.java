@@ -1,25 +1,65 @@
 package com.jeepy.wocoutposts.listeners;
 
+import com.jeepy.wocoutposts.managers.LootPoolManager;
+import com.jeepy.wocoutposts.managers.LootPoolView;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.Listener;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryView;
-import org.bukkit.ChatColor;
 
 public class LootPoolListener implements Listener {
 
+    private final LootPoolManager lootPoolManager;
+    private final RegionScheduler regionScheduler;
+
+    public LootPoolListener(LootPoolManager lootPoolManager, RegionScheduler regionScheduler) {
+        this.lootPoolManager = lootPoolManager;
+        this.regionScheduler = regionScheduler;
+    }
+
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
         InventoryView view = event.getView();
         Inventory topInventory = view.getTopInventory();
 
-        // Check if this is the loot pool GUI by checking the inventory title
-        if (topInventory != null && view.getTitle().contains("Loot Pool")) {
-            // Cancel the event to prevent item movement
-            event.setCancelled(true);
+        // Check if this is the loot pool GUI by its holder, rather than by comparing titles
+        if (topInventory == null || !(topInventory.getHolder() instanceof LootPoolView)) {
+            return;
+        }
 
+        // Cancel the event to prevent item movement
+        event.setCancelled(true);
+
+        HumanEntity whoClicked = event.getWhoClicked();
+        if (!(whoClicked instanceof Player)) {
+            return;
+        }
+
+        LootPoolView lootPoolView = (LootPoolView) topInventory.getHolder();
+        int targetPage = lootPoolView.getTargetPage(event.getRawSlot());
+        if (targetPage >= 0) {
+            openPageLater((Player) whoClicked, lootPoolView.getOutpostName(), targetPage);
+        } else if (!lootPoolManager.isCurrent(lootPoolView)) {
+            // The pool changed while this page was open; show the current contents of the same page
+            openPageLater((Player) whoClicked, lootPoolView.getOutpostName(), lootPoolView.getPage());
+        }
+    }
+
+    // Opening or closing an inventory from inside its click event is not allowed, so switch pages on the player's
+    // thread on a later tick, once the event is over
+    private void openPageLater(Player player, String outpostName, int page) {
+        regionScheduler.runForPlayer(player, () -> lootPoolManager.openLootPoolPage(player, outpostName, page));
+    }
+
+    @EventHandler
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getInventory().getHolder() instanceof LootPoolView) {
+            event.setCancelled(true);
         }
     }
 }
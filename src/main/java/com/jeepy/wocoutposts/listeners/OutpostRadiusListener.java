@@ -0,0 +1,89 @@
+package com.jeepy.wocoutposts.listeners;
+
+import com.jeepy.wocoutposts.managers.OutpostManager;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+
+public class OutpostRadiusListener implements Listener {
+
+    private final OutpostManager outpostManager;
+
+    public OutpostRadiusListener(OutpostManager outpostManager) {
+        this.outpostManager = outpostManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+
+        // Only react when the player crosses a block boundary
+        if (to == null || isSameBlock(from, to)) {
+            return;
+        }
+
+        outpostManager.updatePlayerPosition(event.getPlayer(), from, to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        if (event.getTo() != null) {
+            outpostManager.updatePlayerPosition(event.getPlayer(), event.getFrom(), event.getTo());
+        }
+    }
+
+    // PlayerMoveEvent does not fire for mounted players, so follow their vehicle instead
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (isSameBlock(from, to)) {
+            return;
+        }
+
+        for (Entity passenger : event.getVehicle().getPassengers()) {
+            if (passenger instanceof Player) {
+                outpostManager.updatePlayerPosition((Player) passenger, from, to);
+            }
+        }
+    }
+
+    // A player who died inside a radius respawns elsewhere without a move event
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        outpostManager.revalidatePlayer(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        outpostManager.revalidatePlayer(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        outpostManager.updatePlayerPosition(event.getPlayer(), null, event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        outpostManager.removePlayer(event.getPlayer().getUniqueId());
+    }
+
+    private boolean isSameBlock(Location from, Location to) {
+        return from.getBlockX() == to.getBlockX()
+                && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ()
+                && from.getWorld() == to.getWorld();
+    }
+}
@@ -0,0 +1,28 @@
+package com.jeepy.wocoutposts.listeners;
+
+import com.jeepy.wocoutposts.database.TeamMembershipCache;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public class TeamCacheListener implements Listener {
+
+    private final TeamMembershipCache teamCache;
+
+    public TeamCacheListener(TeamMembershipCache teamCache) {
+        this.teamCache = teamCache;
+    }
+
+    // Warm the cache as soon as a player joins so the charging and kill paths hit it
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        teamCache.load(event.getPlayer(), null);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        teamCache.evictPlayer(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,43 @@
+package com.jeepy.wocoutposts.logging;
+
+// Outpost state transitions recorded in the capture journal. The code is the on-disk type byte, so never renumber.
+public enum CaptureEvent {
+
+    CHARGING_STARTED(1),   // value = charge
+    CHARGING_STOPPED(2),   // value = charge
+    CAPTURE_START(3),      // team = capturing team, value = charge
+    CONTESTED(4),          // team = contesting team (NO_TEAM when several teams are inside), value = charge
+    CONTEST_DECAY(5),      // value = charge after the reduction
+    THRESHOLD_CROSSED(6),  // team = controlling team, value = threshold
+    OVERTIME_START(7),     // team = controlling team, value = charge
+    OVERTIME_RESET(8),     // team = new controlling team, value = overtime seconds
+    OVERTIME_REDUCED(9),   // team = controlling team, value = overtime seconds
+    OVERTIME_END(10),      // team = winning team, value = charge
+    KILL_BOOST(11);        // team = killer's team (NO_TEAM for solo players), value = boost added
+
+    // Team field for events without a team
+    public static final int NO_TEAM = Integer.MIN_VALUE;
+
+    private static final CaptureEvent[] BY_CODE = new CaptureEvent[16];
+
+    static {
+        for (CaptureEvent event : values()) {
+            BY_CODE[event.code] = event;
+        }
+    }
+
+    private final byte code;
+
+    CaptureEvent(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    // The event for a type byte, or null if unknown
+    public static CaptureEvent fromCode(byte code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
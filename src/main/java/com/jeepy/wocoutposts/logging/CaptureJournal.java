@@ -0,0 +1,260 @@
+package com.jeepy.wocoutposts.logging;
+
+import com.jeepy.wocoutposts.Main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+// Append-only binary journal of outpost state transitions. The server thread copies each event into a
+// preallocated buffer (no allocation, no I/O); a background thread swaps buffers and appends them to the
+// current segment file through a FileChannel, rotating segments by size. Read back with CaptureJournalReplay.
+//
+// Segment layout: header (int MAGIC, short VERSION, long createdAt), then records:
+//   NAME   : byte 0, short outpostId, short length, UTF-8 name bytes
+//   EVENT  : byte CaptureEvent code, long timestamp, short outpostId, int teamId, double value
+// Every segment starts with NAME records for all outposts known so far, so each segment can be read on its own.
+public class CaptureJournal {
+
+    static final int MAGIC = 0x574F434A;  // "WOCJ"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 4 + 2 + 8;
+    static final byte NAME_RECORD = 0;
+    static final int EVENT_BYTES = 1 + 8 + 2 + 4 + 8;
+    static final String SEGMENT_PREFIX = "capture-";
+    static final String SEGMENT_SUFFIX = ".wcj";
+
+    private static final int BUFFER_BYTES = 256 * 1024;
+    private static final long FLUSH_INTERVAL_MILLIS = 500L;
+
+    private final Main plugin;
+    private final File journalDirectory;
+    private final long maxSegmentBytes;
+    private final int maxSegments;
+
+    // Outpost name <-> id; ids are assigned on the server thread, names are read by the writer
+    private final Map<String, Integer> outpostIds = new HashMap<>();
+    private final List<String> outpostNames = new CopyOnWriteArrayList<>();
+
+    // Double buffer: events are appended to active, the writer drains flushing
+    private ByteBuffer active = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private ByteBuffer flushing = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private long droppedEvents = 0;
+
+    private volatile boolean running = false;
+    private Thread writerThread;
+
+    public CaptureJournal(Main plugin, File journalDirectory, long maxSegmentBytes, int maxSegments) {
+        this.plugin = plugin;
+        this.journalDirectory = journalDirectory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegments = maxSegments;
+    }
+
+    public synchronized void start() {
+        if (writerThread != null) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "Woc-Outposts Capture Journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Record a transition; called on the server thread
+    public synchronized void record(CaptureEvent event, String outpostName, int teamId, double value) {
+        if (!running) {
+            return;
+        }
+
+        int outpostId = outpostId(outpostName);
+        if (outpostId < 0) {
+            return;
+        }
+        if (active.remaining() < EVENT_BYTES) {
+            droppedEvents++;
+            return;
+        }
+
+        active.put(event.getCode());
+        active.putLong(System.currentTimeMillis());
+        active.putShort((short) outpostId);
+        active.putInt(teamId);
+        active.putDouble(value);
+    }
+
+    public synchronized long getDroppedEventCount() {
+        return droppedEvents;
+    }
+
+    // Id for an outpost name, writing its NAME record the first time it is seen (-1 if it does not fit)
+    private int outpostId(String outpostName) {
+        Integer id = outpostIds.get(outpostName);
+        if (id != null) {
+            return id;
+        }
+
+        byte[] nameBytes = outpostName.getBytes(StandardCharsets.UTF_8);
+        if (outpostNames.size() >= Short.MAX_VALUE || active.remaining() < 5 + nameBytes.length + EVENT_BYTES) {
+            droppedEvents++;
+            return -1;
+        }
+
+        int newId = outpostNames.size();
+        outpostNames.add(outpostName);
+        outpostIds.put(outpostName, newId);
+        putNameRecord(active, newId, nameBytes);
+        return newId;
+    }
+
+    private static void putNameRecord(ByteBuffer buffer, int id, byte[] nameBytes) {
+        buffer.put(NAME_RECORD);
+        buffer.putShort((short) id);
+        buffer.putShort((short) nameBytes.length);
+        buffer.put(nameBytes);
+    }
+
+    // Hand the filled buffer to the writer
+    private synchronized ByteBuffer swap() {
+        ByteBuffer filled = active;
+        active = flushing;
+        active.clear();
+        flushing = filled;
+        filled.flip();
+        return filled;
+    }
+
+    // ---- Writer ----
+
+    private void runWriter() {
+        if (!journalDirectory.exists()) {
+            journalDirectory.mkdirs();
+        }
+
+        FileChannel channel = null;
+        try {
+            channel = openNewSegment();
+            long segmentEventBytes = 0;
+            boolean stopping = false;
+            while (!stopping) {
+                synchronized (this) {
+                    if (running) {
+                        try {
+                            wait(FLUSH_INTERVAL_MILLIS);
+                        } catch (InterruptedException e) {
+                            running = false;
+                        }
+                    }
+                    // Once stopped, write what is left and exit
+                    stopping = !running;
+                }
+
+                ByteBuffer filled = swap();
+                if (!filled.hasRemaining()) {
+                    continue;
+                }
+                if (segmentEventBytes > 0 && channel.size() + filled.remaining() > maxSegmentBytes) {
+                    channel.close();
+                    channel = openNewSegment();
+                    segmentEventBytes = 0;
+                }
+                segmentEventBytes += filled.remaining();
+                while (filled.hasRemaining()) {
+                    channel.write(filled);
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not write the capture journal", e);
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Nothing useful to do while shutting down
+                }
+            }
+        }
+    }
+
+    // Start a new segment with a header and the current outpost names, deleting the oldest past maxSegments
+    private FileChannel openNewSegment() throws IOException {
+        File[] segments = listSegments(journalDirectory);
+        long sequence = segments.length == 0 ? 1 : sequenceOf(segments[segments.length - 1]) + 1;
+        for (int i = 0; i <= segments.length - maxSegments; i++) {
+            segments[i].delete();
+        }
+
+        File segment = new File(journalDirectory, String.format("%s%06d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        List<String> names = outpostNames;
+        int size = HEADER_BYTES;
+        byte[][] nameBytes = new byte[names.size()][];
+        for (int i = 0; i < nameBytes.length; i++) {
+            nameBytes[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            size += 5 + nameBytes[i].length;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putLong(System.currentTimeMillis());
+        for (int i = 0; i < nameBytes.length; i++) {
+            putNameRecord(header, i, nameBytes[i]);
+        }
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        return channel;
+    }
+
+    // Segment files in sequence order
+    static File[] listSegments(File journalDirectory) {
+        File[] segments = journalDirectory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (segments == null) {
+            return new File[0];
+        }
+        Arrays.sort(segments, (a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        return segments;
+    }
+
+    static long sequenceOf(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Write out buffered events and stop the writer; called from Main.onDisable()
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            thread = writerThread;
+            writerThread = null;
+            running = false;
+            notifyAll();
+        }
+        if (thread == null) {
+            return;
+        }
+
+        try {
+            thread.join(5000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
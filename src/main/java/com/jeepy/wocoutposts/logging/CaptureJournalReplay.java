@@ -0,0 +1,211 @@
+package com.jeepy.wocoutposts.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Offline reader for the capture journal. Rebuilds each outpost's state timeline from the segment files and
+// prints it match by match (a match runs from CHARGING_STARTED to OVERTIME_END or CHARGING_STOPPED):
+//
+//   java -cp Woc-Outposts.jar com.jeepy.wocoutposts.logging.CaptureJournalReplay <journal dir> [outpost] [match #]
+public class CaptureJournalReplay {
+
+    // One decoded journal event
+    public static final class Entry {
+        private final CaptureEvent event;
+        private final long timestamp;
+        private final String outpostName;
+        private final int teamId;
+        private final double value;
+
+        private Entry(CaptureEvent event, long timestamp, String outpostName, int teamId, double value) {
+            this.event = event;
+            this.timestamp = timestamp;
+            this.outpostName = outpostName;
+            this.teamId = teamId;
+            this.value = value;
+        }
+
+        public CaptureEvent getEvent() {
+            return event;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getOutpostName() {
+            return outpostName;
+        }
+
+        public int getTeamId() {
+            return teamId;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+
+    // Outpost state as of the last replayed event
+    private static final class ReplayState {
+        private int match = 0;
+        private double charge = 0.0;
+        private int controllingTeam = CaptureEvent.NO_TEAM;
+        private boolean contested = false;
+        private boolean inOvertime = false;
+        private double overtimeSeconds = 0.0;
+
+        private void apply(Entry entry) {
+            switch (entry.event) {
+                case CHARGING_STARTED:
+                    match++;
+                    charge = entry.value;
+                    controllingTeam = CaptureEvent.NO_TEAM;
+                    contested = false;
+                    inOvertime = false;
+                    break;
+                case CHARGING_STOPPED:
+                    charge = entry.value;
+                    inOvertime = false;
+                    break;
+                case CAPTURE_START:
+                    controllingTeam = entry.teamId;
+                    contested = false;
+                    break;
+                case CONTESTED:
+                    contested = true;
+                    charge = entry.value;
+                    break;
+                case CONTEST_DECAY:
+                    charge = entry.value;
+                    break;
+                case THRESHOLD_CROSSED:
+                    contested = false;
+                    charge = Math.max(charge, entry.value);
+                    break;
+                case OVERTIME_START:
+                    inOvertime = true;
+                    charge = entry.value;
+                    break;
+                case OVERTIME_RESET:
+                    controllingTeam = entry.teamId;
+                    overtimeSeconds = entry.value;
+                    break;
+                case OVERTIME_REDUCED:
+                    overtimeSeconds = entry.value;
+                    break;
+                case OVERTIME_END:
+                    inOvertime = false;
+                    controllingTeam = entry.teamId;
+                    break;
+                case KILL_BOOST:
+                    break;
+            }
+        }
+
+        private String describe() {
+            return String.format("charge=%.2f%% team=%s%s%s", charge, team(controllingTeam),
+                    contested ? " contested" : "", inOvertime ? " overtime(" + overtimeSeconds + "s)" : "");
+        }
+    }
+
+    // Read every event from the segments in a journal directory, in order
+    public static List<Entry> readAll(File journalDirectory) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (File segment : CaptureJournal.listSegments(journalDirectory)) {
+            readSegment(segment, entries);
+        }
+        return entries;
+    }
+
+    private static void readSegment(File segment, List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment.toPath()));
+        if (buffer.remaining() < CaptureJournal.HEADER_BYTES || buffer.getInt() != CaptureJournal.MAGIC) {
+            System.err.println("Skipping " + segment.getName() + ": not a capture journal segment");
+            return;
+        }
+        short version = buffer.getShort();
+        if (version != CaptureJournal.VERSION) {
+            System.err.println("Skipping " + segment.getName() + ": unsupported version " + version);
+            return;
+        }
+        buffer.getLong();  // Segment creation time
+
+        Map<Integer, String> names = new HashMap<>();
+        try {
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get();
+                if (type == CaptureJournal.NAME_RECORD) {
+                    int id = buffer.getShort();
+                    byte[] nameBytes = new byte[buffer.getShort()];
+                    buffer.get(nameBytes);
+                    names.put(id, new String(nameBytes, StandardCharsets.UTF_8));
+                    continue;
+                }
+
+                CaptureEvent event = CaptureEvent.fromCode(type);
+                if (event == null) {
+                    System.err.println("Stopping " + segment.getName() + " at unknown record type " + type);
+                    return;
+                }
+                long timestamp = buffer.getLong();
+                int outpostId = buffer.getShort();
+                int teamId = buffer.getInt();
+                double value = buffer.getDouble();
+                String outpostName = names.containsKey(outpostId) ? names.get(outpostId) : "#" + outpostId;
+                entries.add(new Entry(event, timestamp, outpostName, teamId, value));
+            }
+        } catch (BufferUnderflowException e) {
+            // A crash can leave a partly written last record
+            System.err.println("Ignoring truncated record at the end of " + segment.getName());
+        }
+    }
+
+    // Print the timeline, optionally for one outpost and one match
+    public static void replay(List<Entry> entries, String outpostFilter, int matchFilter, PrintStream out) {
+        Map<String, ReplayState> states = new HashMap<>();
+        for (Entry entry : entries) {
+            if (outpostFilter != null && !outpostFilter.equals(entry.outpostName)) {
+                continue;
+            }
+
+            ReplayState state = states.computeIfAbsent(entry.outpostName, name -> new ReplayState());
+            state.apply(entry);
+            if (matchFilter > 0 && state.match != matchFilter) {
+                continue;
+            }
+
+            out.println(DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(entry.timestamp))
+                    + " [" + entry.outpostName + " #" + state.match + "] " + entry.event
+                    + " team=" + team(entry.teamId) + " value=" + entry.value
+                    + " -> " + state.describe());
+        }
+    }
+
+    private static String team(int teamId) {
+        return teamId == CaptureEvent.NO_TEAM ? "-" : String.valueOf(teamId);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: CaptureJournalReplay <journal dir> [outpost] [match #]");
+            System.exit(1);
+        }
+
+        File journalDirectory = new File(args[0]);
+        String outpostFilter = args.length >= 2 ? args[1] : null;
+        int matchFilter = args.length >= 3 ? Integer.parseInt(args[2]) : 0;
+        replay(readAll(journalDirectory), outpostFilter, matchFilter, System.out);
+    }
+}
@@ -0,0 +1,214 @@
+package com.jeepy.wocoutposts.logging;
+
+import com.jeepy.wocoutposts.Main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+// Structured outpost event log. Debug events are only recorded while debug mode is on (/outpost debug)
+// and return before building anything when it is off; recorded events are written to a rotating file
+// by a background thread. Info events are state transitions and also go to the console.
+public class OutpostEventLog {
+
+    private static final String FILE_NAME = "outpost-events.log";
+
+    // A formatted event waiting to be written
+    private static final class Entry {
+        private final long timestamp;
+        private final String level;
+        private final String line;
+
+        private Entry(long timestamp, String level, String line) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.line = line;
+        }
+    }
+
+    private final Main plugin;
+    private final File logDirectory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>(10000);
+    private final AtomicLong droppedEntries = new AtomicLong();
+
+    private volatile boolean enabled = false;
+    private Thread writerThread;
+
+    public OutpostEventLog(Main plugin, File logDirectory, long maxFileBytes, int maxFiles) {
+        this.plugin = plugin;
+        this.logDirectory = logDirectory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Tied to OutpostManager.toggleDebug
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled && writerThread == null) {
+            writerThread = new Thread(this::runWriter, "Woc-Outposts Event Log");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    // ---- Debug events (no-op unless debug mode is on) ----
+
+    public void debug(String outpost, String event) {
+        if (enabled) {
+            record("DEBUG", "outpost=" + outpost + " event=" + event);
+        }
+    }
+
+    public void debug(String outpost, String event, String key, double value) {
+        if (enabled) {
+            record("DEBUG", "outpost=" + outpost + " event=" + event + " " + key + "=" + value);
+        }
+    }
+
+    public void debug(String outpost, String event, String key1, double value1, String key2, double value2) {
+        if (enabled) {
+            record("DEBUG", "outpost=" + outpost + " event=" + event + " " + key1 + "=" + value1 + " " + key2 + "=" + value2);
+        }
+    }
+
+    public void debug(String outpost, String event, String key, long value) {
+        if (enabled) {
+            record("DEBUG", "outpost=" + outpost + " event=" + event + " " + key + "=" + value);
+        }
+    }
+
+    public void debug(String outpost, String event, String key, Object value) {
+        if (enabled) {
+            record("DEBUG", "outpost=" + outpost + " event=" + event + " " + key + "=" + value);
+        }
+    }
+
+    // ---- Info events (state transitions, always shown on the console) ----
+
+    public void info(String outpost, String event, String message) {
+        plugin.getLogger().info("[" + outpost + "] " + message);
+        if (enabled) {
+            record("INFO", "outpost=" + outpost + " event=" + event + " msg=\"" + message + "\"");
+        }
+    }
+
+    private void record(String level, String line) {
+        if (!queue.offer(new Entry(System.currentTimeMillis(), level, line))) {
+            droppedEntries.incrementAndGet();
+        }
+    }
+
+    public long getDroppedEntryCount() {
+        return droppedEntries.get();
+    }
+
+    // ---- Writer ----
+
+    private void runWriter() {
+        if (!logDirectory.exists()) {
+            logDirectory.mkdirs();
+        }
+
+        File logFile = new File(logDirectory, FILE_NAME);
+        BufferedWriter writer = null;
+        long fileBytes = logFile.length();
+
+        try {
+            writer = open(logFile);
+            while (!Thread.currentThread().isInterrupted()) {
+                Entry entry = queue.poll(1, TimeUnit.SECONDS);
+                if (entry == null) {
+                    writer.flush();
+                    continue;
+                }
+
+                String line = DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(entry.timestamp))
+                        + " " + entry.level + " " + entry.line + "\n";
+                int lineBytes = line.getBytes(StandardCharsets.UTF_8).length;  // Same unit as the file size
+                if (fileBytes + lineBytes > maxFileBytes) {
+                    writer.close();
+                    rotate(logFile);
+                    writer = open(logFile);
+                    fileBytes = 0;
+                }
+
+                writer.write(line);
+                fileBytes += lineBytes;
+                if (queue.isEmpty()) {
+                    writer.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not write the outpost event log", e);
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+    private BufferedWriter open(File logFile) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(logFile, true), StandardCharsets.UTF_8));
+    }
+
+    // outpost-events.log -> .1 -> .2 ... the oldest file past maxFiles is deleted
+    private void rotate(File logFile) {
+        File oldest = new File(logDirectory, FILE_NAME + "." + maxFiles);
+        if (oldest.exists()) {
+            oldest.delete();
+        }
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            File file = new File(logDirectory, FILE_NAME + "." + i);
+            if (file.exists()) {
+                file.renameTo(new File(logDirectory, FILE_NAME + "." + (i + 1)));
+            }
+        }
+        logFile.renameTo(new File(logDirectory, FILE_NAME + ".1"));
+    }
+
+    private void closeQuietly(BufferedWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // Nothing useful to do while shutting down
+        }
+    }
+
+    // Stop the writer thread, flushing what it has; called from Main.onDisable()
+    public synchronized void shutdown() {
+        enabled = false;
+        if (writerThread != null) {
+            // Give the writer a moment to drain before interrupting it
+            long deadline = System.currentTimeMillis() + 2000L;
+            while (!queue.isEmpty() && System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(10L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            writerThread.interrupt();
+            writerThread = null;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.jeepy.wocoutposts.managers;
+
+import com.jeepy.wocoutposts.Main;
+import com.jeepy.wocoutposts.database.ChestLocation;
+import com.jeepy.wocoutposts.database.OutpostDatabaseManager;
+import com.jeepy.wocoutposts.objectives.ClassifiedOutpost;
+import com.jeepy.wocoutposts.objectives.Outpost;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+// Refills the loot chests registered to each outpost. Chest contents are rolled from the outpost's loot table on an
+// async task, then applied at most chestsPerTick chests per tick, each on the thread owning its chest (the main
+// thread unless the server is region-threaded). Chests in unloaded chunks are parked until their chunk loads
+// (ChestRefillListener), so a refill never loads chunks or stalls a tick.
+public class ChestRefillManager {
+
+    private static final int CHEST_SIZE = 27;
+
+    private final Main plugin;
+    private final LootPoolManager lootPoolManager;
+    private final OutpostDatabaseManager databaseManager;
+    private final int minItemsPerChest;
+    private final int maxItemsPerChest;
+    private final int chestsPerTick;
+    private final List<Integer> refillIntervalMinutes;
+
+    // Registered chests per outpost, edited from the command sender's thread and read by the refill tick
+    private final Map<String, CopyOnWriteArrayList<ChestLocation>> outpostChests = new ConcurrentHashMap<>();
+    // Rolled contents waiting to be applied, filled from async tasks and drained by the refill tick
+    private final ConcurrentLinkedQueue<PendingFill> readyFills = new ConcurrentLinkedQueue<>();
+    // Fills for chests in unloaded chunks (world -> chunk key -> chest -> newest fill), guarded by itself:
+    // chunks load on the thread owning them
+    private final Map<String, Map<Long, Map<ChestLocation, PendingFill>>> deferredFills = new HashMap<>();
+    // Refill timers of outposts that are charging (outpostName -> schedule), started from the outpost's thread
+    private final Map<String, RefillSchedule> schedules = new ConcurrentHashMap<>();
+
+    private final AtomicInteger readyCount = new AtomicInteger();
+    private volatile int deferredCount = 0; // Changed under the deferredFills lock
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong missingCount = new AtomicLong();
+    private int tickCounter = 0;
+    private RegionScheduler.Task applyTask;
+
+    // Contents rolled for one chest
+    private static final class PendingFill {
+        private final String outpostName;
+        private final ChestLocation chest;
+        private final ItemStack[] contents;
+
+        private PendingFill(String outpostName, ChestLocation chest, ItemStack[] contents) {
+            this.outpostName = outpostName;
+            this.chest = chest;
+            this.contents = contents;
+        }
+    }
+
+    // Position in an outpost's refill_intervals since it started charging
+    private static final class RefillSchedule {
+        private final long startTime;
+        private int nextInterval = 0;
+
+        private RefillSchedule(long startTime) {
+            this.startTime = startTime;
+        }
+    }
+
+    public ChestRefillManager(Main plugin, LootPoolManager lootPoolManager, OutpostDatabaseManager databaseManager,
+                              int minItemsPerChest, int maxItemsPerChest, int chestsPerTick, List<Integer> refillIntervalMinutes) {
+        this.plugin = plugin;
+        this.lootPoolManager = lootPoolManager;
+        this.databaseManager = databaseManager;
+        this.minItemsPerChest = minItemsPerChest;
+        this.maxItemsPerChest = maxItemsPerChest;
+        this.chestsPerTick = chestsPerTick;
+        this.refillIntervalMinutes = new ArrayList<>(refillIntervalMinutes);
+        Collections.sort(this.refillIntervalMinutes);
+    }
+
+    // Load the registered chests and start applying fills every tick
+    public void start() {
+        databaseManager.getExecutor().read(databaseManager::loadChests).whenCompleteAsync((storedChests, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Could not load outpost chests", error);
+                return;
+            }
+            for (Map.Entry<String, List<ChestLocation>> entry : storedChests.entrySet()) {
+                CopyOnWriteArrayList<ChestLocation> chests = outpostChests.computeIfAbsent(entry.getKey(), name -> new CopyOnWriteArrayList<>());
+                chests.addAllAbsent(entry.getValue());
+            }
+            plugin.getLogger().info("Loaded loot chests for " + storedChests.size() + " outposts.");
+        }, databaseManager.getExecutor().mainThread());
+
+        applyTask = plugin.getRegionScheduler().runGlobalAtFixedRate(this::tick, 1L, 1L);
+    }
+
+    public void shutdown() {
+        if (applyTask != null) {
+            applyTask.cancel();
+            applyTask = null;
+        }
+    }
+
+    // ---- Chest registration ----
+
+    // Register a chest block with an outpost; false if it is already registered
+    public boolean addChest(String outpostName, Block block) {
+        ChestLocation chest = ChestLocation.of(block);
+        if (!outpostChests.computeIfAbsent(outpostName, name -> new CopyOnWriteArrayList<>()).addIfAbsent(chest)) {
+            return false;
+        }
+        databaseManager.saveChestAsync(outpostName, chest).exceptionally(error -> {
+            plugin.getLogger().log(Level.SEVERE, "Could not save loot chest " + chest + " for outpost " + outpostName, error);
+            return null;
+        });
+        return true;
+    }
+
+    // Unregister a chest block; false if it was not registered with the outpost
+    public boolean removeChest(String outpostName, Block block) {
+        ChestLocation chest = ChestLocation.of(block);
+        List<ChestLocation> chests = outpostChests.get(outpostName);
+        if (chests == null || !chests.remove(chest)) {
+            return false;
+        }
+        databaseManager.removeChestAsync(outpostName, chest).exceptionally(error -> {
+            plugin.getLogger().log(Level.SEVERE, "Could not remove loot chest " + chest + " for outpost " + outpostName, error);
+            return null;
+        });
+        return true;
+    }
+
+    public List<ChestLocation> getChests(String outpostName) {
+        List<ChestLocation> chests = outpostChests.get(outpostName);
+        return chests == null ? Collections.emptyList() : Collections.unmodifiableList(chests);
+    }
+
+    // Forget a deleted outpost's chests, schedule and parked fills
+    public void removeOutpost(String outpostName) {
+        outpostChests.remove(outpostName);
+        schedules.remove(outpostName);
+        synchronized (deferredFills) {
+            for (Map<Long, Map<ChestLocation, PendingFill>> worldFills : deferredFills.values()) {
+                for (Map<ChestLocation, PendingFill> chunkFills : worldFills.values()) {
+                    int before = chunkFills.size();
+                    chunkFills.values().removeIf(fill -> fill.outpostName.equals(outpostName));
+                    deferredCount -= before - chunkFills.size();
+                }
+            }
+        }
+        databaseManager.removeOutpostChestsAsync(outpostName).exceptionally(error -> {
+            plugin.getLogger().log(Level.SEVERE, "Could not remove loot chests for outpost " + outpostName, error);
+            return null;
+        });
+    }
+
+    // ---- Refill schedule ----
+
+    // Start the refill_intervals timer for an outpost that has started charging
+    public void startSchedule(String outpostName) {
+        if (!refillIntervalMinutes.isEmpty()) {
+            schedules.put(outpostName, new RefillSchedule(System.currentTimeMillis()));
+        }
+    }
+
+    public void stopSchedule(String outpostName) {
+        schedules.remove(outpostName);
+    }
+
+    // Refill each charging outpost as it passes its next interval (checked once a second)
+    private void checkSchedules() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<String, RefillSchedule>> it = schedules.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, RefillSchedule> entry = it.next();
+            // Stopped, captured and deleted outposts drop out of the schedule
+            Outpost outpost = plugin.getOutpostManager().getRegistry().get(entry.getKey());
+            if (!(outpost instanceof ClassifiedOutpost) || !((ClassifiedOutpost) outpost).isChargingEnabled()) {
+                it.remove();
+                continue;
+            }
+
+            RefillSchedule schedule = entry.getValue();
+            long elapsedMinutes = (now - schedule.startTime) / 60_000L;
+            if (elapsedMinutes < refillIntervalMinutes.get(schedule.nextInterval)) {
+                continue;
+            }
+
+            // Skip any intervals missed while the server was busy, refilling once
+            while (schedule.nextInterval < refillIntervalMinutes.size()
+                    && elapsedMinutes >= refillIntervalMinutes.get(schedule.nextInterval)) {
+                schedule.nextInterval++;
+            }
+            requestRefill(entry.getKey());
+            if (schedule.nextInterval >= refillIntervalMinutes.size()) {
+                it.remove();
+            }
+        }
+    }
+
+    // ---- Refill pipeline ----
+
+    // Roll new contents for every chest of an outpost off the main thread (loading its loot pool first if needed);
+    // returns the number of chests to be refilled
+    public int requestRefill(String outpostName) {
+        List<ChestLocation> chests = outpostChests.get(outpostName);
+        if (chests == null || chests.isEmpty()) {
+            return 0;
+        }
+
+        List<ChestLocation> snapshot = new ArrayList<>(chests);
+        lootPoolManager.loadLootTable(outpostName).thenAccept(lootTable -> {
+            if (lootTable.isEmpty()) {
+                plugin.getLogger().warning("Outpost " + outpostName + " has an empty loot pool; its chests were not refilled.");
+                return;
+            }
+
+            plugin.getRegionScheduler().runAsync(() -> {
+                Random random = ThreadLocalRandom.current();
+                for (ChestLocation chest : snapshot) {
+                    readyFills.add(new PendingFill(outpostName, chest, rollContents(lootTable, random)));
+                    readyCount.incrementAndGet();
+                }
+            });
+        });
+        return snapshot.size();
+    }
+
+    // Draw between min and max items into random slots of a single chest
+    ItemStack[] rollContents(LootTable lootTable, Random random) {
+        ItemStack[] contents = new ItemStack[CHEST_SIZE];
+        int itemCount = minItemsPerChest + random.nextInt(maxItemsPerChest - minItemsPerChest + 1);
+
+        // Partial Fisher-Yates shuffle of the slot numbers picks distinct slots
+        int[] slots = new int[CHEST_SIZE];
+        for (int i = 0; i < CHEST_SIZE; i++) {
+            slots[i] = i;
+        }
+        for (int i = 0; i < itemCount; i++) {
+            int j = i + random.nextInt(CHEST_SIZE - i);
+            int slot = slots[j];
+            slots[j] = slots[i];
+            slots[i] = slot;
+            contents[slot] = lootTable.roll(random);
+        }
+        return contents;
+    }
+
+    // Called every server tick, on the global thread of a region-threaded server
+    private void tick() {
+        if (++tickCounter >= 20) {
+            tickCounter = 0;
+            checkSchedules();
+        }
+
+        for (int applied = 0; applied < chestsPerTick; applied++) {
+            PendingFill fill = readyFills.poll();
+            if (fill == null) {
+                break;
+            }
+            readyCount.decrementAndGet();
+            dispatch(fill);
+        }
+    }
+
+    // Apply a fill on the thread owning its chest (right away on a single-threaded server)
+    private void dispatch(PendingFill fill) {
+        ChestLocation chest = fill.chest;
+        // The chest or its outpost may have been removed while the fill was being rolled
+        if (!getChests(fill.outpostName).contains(chest)) {
+            return;
+        }
+        World world = plugin.getServer().getWorld(chest.getWorldName());
+        if (world == null) {
+            defer(fill);
+            return;
+        }
+        plugin.getRegionScheduler().execute(new Location(world, chest.getX(), chest.getY(), chest.getZ()),
+                () -> apply(world, fill));
+    }
+
+    private void apply(World world, PendingFill fill) {
+        ChestLocation chest = fill.chest;
+        if (!world.isChunkLoaded(chest.getX() >> 4, chest.getZ() >> 4)) {
+            defer(fill);
+            return;
+        }
+
+        Block block = world.getBlockAt(chest.getX(), chest.getY(), chest.getZ());
+        BlockState state = block.getState();
+        if (!(state instanceof Chest)) {
+            missingCount.incrementAndGet();
+            plugin.getEventLog().debug(fill.outpostName, "chest_missing", "chest", chest);
+            return;
+        }
+
+        // Only this half of a double chest, so each registered block gets its own roll
+        Inventory inventory = ((Chest) state).getBlockInventory();
+        ItemStack[] contents = fill.contents;
+        if (contents.length != inventory.getSize()) {
+            ItemStack[] resized = new ItemStack[inventory.getSize()];
+            System.arraycopy(contents, 0, resized, 0, Math.min(contents.length, resized.length));
+            contents = resized;
+        }
+        inventory.setContents(contents);
+        appliedCount.incrementAndGet();
+    }
+
+    // Park a fill until its chunk loads; a newer fill for the same chest replaces the older one
+    private void defer(PendingFill fill) {
+        synchronized (deferredFills) {
+            Map<ChestLocation, PendingFill> chunkFills = deferredFills
+                    .computeIfAbsent(fill.chest.getWorldName(), world -> new HashMap<>())
+                    .computeIfAbsent(fill.chest.getChunkKey(), key -> new LinkedHashMap<>());
+            if (chunkFills.put(fill.chest, fill) == null) {
+                deferredCount++;
+            }
+        }
+    }
+
+    // Queue the fills parked for a chunk that has just loaded; they are applied over the next ticks
+    public void onChunkLoad(Chunk chunk) {
+        String worldName = chunk.getWorld().getName();
+        Map<ChestLocation, PendingFill> chunkFills;
+        synchronized (deferredFills) {
+            Map<Long, Map<ChestLocation, PendingFill>> worldFills = deferredFills.get(worldName);
+            if (worldFills == null) {
+                return;
+            }
+            chunkFills = worldFills.remove(ChestLocation.chunkKey(chunk.getX(), chunk.getZ()));
+            if (chunkFills == null) {
+                return;
+            }
+            if (worldFills.isEmpty()) {
+                deferredFills.remove(worldName);
+            }
+            deferredCount -= chunkFills.size();
+        }
+
+        for (PendingFill fill : chunkFills.values()) {
+            readyFills.add(fill);
+            readyCount.incrementAndGet();
+        }
+    }
+
+    // ---- Metrics ----
+
+    // Fills rolled and waiting for a tick to apply them
+    public int getReadyCount() {
+        return readyCount.get();
+    }
+
+    // Fills waiting for their chunk to load
+    public int getDeferredCount() {
+        return deferredCount;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    // Registered chests that were no longer a chest when their fill was applied
+    public long getMissingCount() {
+        return missingCount.get();
+    }
+}
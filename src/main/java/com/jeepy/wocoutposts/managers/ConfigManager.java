@@ -3,7 +3,10 @@ package com.jeepy.wocoutposts.managers;
 import com.jeepy.wocoutposts.Main;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ConfigManager {
 
@@ -39,6 +42,8 @@ public class ConfigManager {
         }
 
         plugin.getLogger().info("Classified Outpost capture radius: " + classifiedOutpostCaptureRadius);
+        plugin.getLogger().info("Classified Outpost combat zone radius: "
+                + Math.max(classifiedOutpostCaptureRadius, config.getInt("classified_outpost.combat_zone_radius", 0)));
         plugin.getLogger().info("Classified Outpost charge reduction rate: " + classifiedChargeReductionRate + "%");
         plugin.getLogger().info("Classified Outpost overtime duration: " + classifiedOvertimeDuration + " seconds");
         plugin.getLogger().info("Classified Outpost overtime reduction rate: " + classifiedOvertimeReductionRate + "% per loop");
@@ -58,6 +63,9 @@ public class ConfigManager {
         plugin.getLogger().info("Rare drop rate: " + rareDropRate + "%");
         plugin.getLogger().info("Epic drop rate: " + epicDropRate + "%");
         plugin.getLogger().info("Legendary drop rate: " + legendaryDropRate + "%");
+        plugin.getLogger().info("Items per refilled chest: " + getMinItemsPerChest() + "-" + getMaxItemsPerChest());
+        plugin.getLogger().info("Chest refills applied per tick: " + getChestRefillsPerTick());
+        plugin.getLogger().info("Loot pool save interval: " + getLootPoolSaveIntervalSeconds() + " seconds");
 
         // Classified Document Settings
         int classifiedDocumentSpawnPercentage = config.getInt("classified_document.spawn_percentage", 100);
@@ -78,6 +86,40 @@ public class ConfigManager {
         plugin.getLogger().info("Display outpost charge percentage: " + displayOutpostCharge);
         plugin.getLogger().info("Display team progress: " + displayTeamProgress);
         plugin.getLogger().info("Display loot pool status: " + displayLootPoolStatus);
+
+        // Database Settings
+        plugin.getLogger().info("Database read threads: " + getDatabaseReadThreads());
+        plugin.getLogger().info("Write queue capacity: " + getWriteQueueCapacity());
+        plugin.getLogger().info("Write queue flush interval: " + getWriteQueueFlushIntervalMillis() + " ms");
+
+        // Scheduler Settings
+        plugin.getLogger().info("Outpost tick budget: " + getTickBudgetNanos() + " ns");
+
+        // Event Log Settings
+        plugin.getLogger().info("Event log max file size: " + getEventLogMaxFileBytes() / 1024 + " KB");
+        plugin.getLogger().info("Event log max files: " + getEventLogMaxFiles());
+
+        // Capture Journal Settings
+        plugin.getLogger().info("Capture journal enabled: " + isCaptureJournalEnabled());
+        plugin.getLogger().info("Capture journal max segment size: " + getCaptureJournalMaxSegmentBytes() / 1024 + " KB");
+        plugin.getLogger().info("Capture journal max segments: " + getCaptureJournalMaxSegments());
+
+        // Team Cache Settings
+        plugin.getLogger().info("Team cache TTL: " + getTeamCacheTtlMillis() / 1000 + " seconds");
+        plugin.getLogger().info("Team cache max entries: " + getTeamCacheMaxEntries());
+
+        // Outpost State Settings
+        plugin.getLogger().info("Outpost state save interval: " + getOutpostStateSaveIntervalSeconds() + " seconds");
+
+        // Notification Settings
+        plugin.getLogger().info("Outpost progress boss bars: " + isBossBarEnabled());
+        plugin.getLogger().info("Progress bar refresh interval: " + getProgressRefreshTicks() + " ticks");
+        plugin.getLogger().info("Minimum time between messages to a player: " + getMessageIntervalMillis() + " ms");
+        plugin.getLogger().info("Repeated message window: " + getMessageRepeatWindowMillis() + " ms");
+
+        // Metrics Settings
+        plugin.getLogger().info("Metrics file: " + getMetricsFileName());
+        plugin.getLogger().info("Metrics dump interval: " + getMetricsDumpIntervalSeconds() + " seconds");
     }
 
     public boolean isDataTransferEnabled() {
@@ -85,4 +127,131 @@ public class ConfigManager {
         return config.getBoolean("data-transfer-enabled", true);  // Default to true if not set
     }
 
+    public int getDatabaseReadThreads() {
+        int threads = plugin.getConfig().getInt("database.read_threads", 1);
+        return threads > 0 ? threads : 1;
+    }
+
+    public int getWriteQueueCapacity() {
+        int capacity = plugin.getConfig().getInt("database.write_queue.capacity", 10000);
+        return capacity > 0 ? capacity : 10000;
+    }
+
+    public long getWriteQueueFlushIntervalMillis() {
+        long interval = plugin.getConfig().getLong("database.write_queue.flush_interval_ms", 1000L);
+        return interval > 0 ? interval : 1000L;
+    }
+
+    public long getTickBudgetNanos() {
+        long budget = plugin.getConfig().getLong("scheduler.tick_budget_ns", 2000000L);
+        return budget > 0 ? budget : 2000000L;
+    }
+
+    public long getEventLogMaxFileBytes() {
+        long maxKilobytes = plugin.getConfig().getLong("event_log.max_file_size_kb", 5120L);
+        return (maxKilobytes > 0 ? maxKilobytes : 5120L) * 1024L;
+    }
+
+    public int getEventLogMaxFiles() {
+        int maxFiles = plugin.getConfig().getInt("event_log.max_files", 5);
+        return maxFiles > 0 ? maxFiles : 5;
+    }
+
+    public boolean isCaptureJournalEnabled() {
+        return plugin.getConfig().getBoolean("capture_journal.enabled", true);
+    }
+
+    public long getCaptureJournalMaxSegmentBytes() {
+        long maxKilobytes = plugin.getConfig().getLong("capture_journal.max_segment_size_kb", 4096L);
+        // Segments must hold at least one full journal buffer
+        return Math.max(maxKilobytes, 512L) * 1024L;
+    }
+
+    public int getCaptureJournalMaxSegments() {
+        int maxSegments = plugin.getConfig().getInt("capture_journal.max_segments", 20);
+        return maxSegments > 0 ? maxSegments : 20;
+    }
+
+    // Share of loot draws per rarity (rarity -> percentage); LootTable normalises over the rarities in a pool
+    public Map<String, Double> getRarityDropRates() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("common", Math.max(plugin.getConfig().getDouble("lootpool.rarity_drop_rates.common", 50.0), 0.0));
+        rates.put("rare", Math.max(plugin.getConfig().getDouble("lootpool.rarity_drop_rates.rare", 30.0), 0.0));
+        rates.put("epic", Math.max(plugin.getConfig().getDouble("lootpool.rarity_drop_rates.epic", 15.0), 0.0));
+        rates.put("legendary", Math.max(plugin.getConfig().getDouble("lootpool.rarity_drop_rates.legendary", 5.0), 0.0));
+        return rates;
+    }
+
+    // Minutes after an outpost starts charging at which its chests refill
+    public List<Integer> getLootRefillIntervals() {
+        List<Integer> intervals = new ArrayList<>();
+        for (int interval : plugin.getConfig().getIntegerList("lootpool.refill_intervals")) {
+            if (interval > 0) {
+                intervals.add(interval);
+            }
+        }
+        return intervals;
+    }
+
+    public int getMinItemsPerChest() {
+        int minItems = plugin.getConfig().getInt("lootpool.refill.min_items_per_chest", 3);
+        return Math.max(0, Math.min(minItems, 27));
+    }
+
+    public int getMaxItemsPerChest() {
+        int maxItems = plugin.getConfig().getInt("lootpool.refill.max_items_per_chest", 8);
+        return Math.max(getMinItemsPerChest(), Math.min(maxItems, 27));
+    }
+
+    public int getChestRefillsPerTick() {
+        int chestsPerTick = plugin.getConfig().getInt("lootpool.refill.chests_per_tick", 10);
+        return chestsPerTick > 0 ? chestsPerTick : 10;
+    }
+
+    public int getLootPoolSaveIntervalSeconds() {
+        int interval = plugin.getConfig().getInt("lootpool.save_interval_seconds", 10);
+        return interval > 0 ? interval : 10;
+    }
+
+    public long getTeamCacheTtlMillis() {
+        int ttlSeconds = plugin.getConfig().getInt("team_cache.ttl_seconds", 60);
+        return (ttlSeconds > 0 ? ttlSeconds : 60) * 1000L;
+    }
+
+    public int getTeamCacheMaxEntries() {
+        int maxEntries = plugin.getConfig().getInt("team_cache.max_entries", 5000);
+        return maxEntries > 0 ? maxEntries : 5000;
+    }
+
+    public int getOutpostStateSaveIntervalSeconds() {
+        int interval = plugin.getConfig().getInt("outpost_state.save_interval_seconds", 5);
+        return interval > 0 ? interval : 5;
+    }
+
+    public boolean isBossBarEnabled() {
+        return plugin.getConfig().getBoolean("notifications.boss_bar", true);
+    }
+
+    public int getProgressRefreshTicks() {
+        int ticks = plugin.getConfig().getInt("notifications.progress_refresh_ticks", 20);
+        return ticks > 0 ? ticks : 20;
+    }
+
+    public long getMessageIntervalMillis() {
+        return Math.max(0L, plugin.getConfig().getLong("notifications.message_interval_ms", 1000L));
+    }
+
+    public long getMessageRepeatWindowMillis() {
+        return Math.max(0L, plugin.getConfig().getLong("notifications.repeat_window_ms", 10000L));
+    }
+
+    public String getMetricsFileName() {
+        return plugin.getConfig().getString("metrics.prometheus_file", "metrics.prom");
+    }
+
+    // 0 disables the periodic dump
+    public int getMetricsDumpIntervalSeconds() {
+        return Math.max(0, plugin.getConfig().getInt("metrics.dump_interval_seconds", 0));
+    }
+
 }
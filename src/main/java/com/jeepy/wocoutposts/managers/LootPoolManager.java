@@ -3,9 +3,20 @@ package com.jeepy.wocoutposts.managers;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import com.jeepy.wocoutposts.database.LootPoolStore;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
@@ -13,11 +24,27 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 public class LootPoolManager {
 
-    private static final int DEFAULT_INVENTORY_SIZE = 27;
+    private final LootPoolStore lootPoolStore;
+    private final Executor mainThread;
+    private final RegionScheduler regionScheduler;
+    private final Logger logger;
 
-    // Map to store loot pools for different outposts (outpostName -> loot pool)
+    // Outposts that have a loot pool, loaded or not
+    private final Set<String> knownPools = ConcurrentHashMap.newKeySet();
+
+    // Map to store loot pools for different outposts (outpostName -> loot pool); pools are loaded on first use
     private Map<String, Map<String, LootItem>> outpostLootPools = new ConcurrentHashMap<>();
 
+    // Loads in progress (outpostName -> loaded pool), so concurrent first uses share one read
+    private final Map<String, CompletableFuture<Map<String, LootItem>>> loadingPools = new ConcurrentHashMap<>();
+
+    // Compiled alias table per outpost (outpostName -> table), rebuilt only when that outpost's pool changes
+    private final Map<String, LootTable> lootTables = new ConcurrentHashMap<>();
+
+    // Rendered GUI per outpost (outpostName -> display items and pages), dropped whenever the pool changes
+    private final Map<String, RenderedPool> renderedPools = new ConcurrentHashMap<>();
+    private final Map<String, Integer> poolVersions = new ConcurrentHashMap<>();
+
     // Define valid rarities
     private final List<String> validRarities = Arrays.asList("common", "rare", "epic", "legendary");
 
@@ -29,28 +56,116 @@ public class LootPoolManager {
         put("legendary", 5.0);
     }};
 
+    public LootPoolManager(LootPoolStore lootPoolStore, Executor mainThread, RegionScheduler regionScheduler, Logger logger,
+                           Map<String, Double> rarityDropRates) {
+        this.lootPoolStore = lootPoolStore;
+        this.mainThread = mainThread;
+        this.regionScheduler = regionScheduler;
+        this.logger = logger;
+        for (Map.Entry<String, Double> entry : rarityDropRates.entrySet()) {
+            if (validRarities.contains(entry.getKey())) {
+                rarityChances.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     // Immutable class to represent a loot item with rarity and drop chance
-    class LootItem {
+    public static class LootItem {
         final ItemStack item;
         final String rarity;
         final double dropChance;
 
-        LootItem(ItemStack item, String rarity, double dropChance) {
+        public LootItem(ItemStack item, String rarity, double dropChance) {
             this.item = item;
             this.rarity = rarity;
             this.dropChance = dropChance;
         }
+
+        public ItemStack getItem() {
+            return item;
+        }
+
+        public String getRarity() {
+            return rarity;
+        }
+
+        public double getDropChance() {
+            return dropChance;
+        }
     }
 
+    // Register an outpost's loot pool; its stored items are read the first time the pool is used
     public void createLootPool(String outpostName) {
-        if (!outpostLootPools.containsKey(outpostName)) {
-            outpostLootPools.put(outpostName, new ConcurrentHashMap<>());
-        }
+        knownPools.add(outpostName);
     }
 
     // Method to delete a loot pool when an outpost is deleted
     public void deleteLootPool(String outpostName) {
+        knownPools.remove(outpostName);
         outpostLootPools.remove(outpostName);
+        loadingPools.remove(outpostName);
+        lootTables.remove(outpostName);
+        renderedPools.remove(outpostName);
+        poolVersions.remove(outpostName);
+        lootPoolStore.delete(outpostName);
+    }
+
+    // The outpost's pool, read from the database on first use; completes on the main thread (null if there is no pool)
+    public CompletableFuture<Map<String, LootItem>> loadLootPool(String outpostName) {
+        Map<String, LootItem> lootPool = outpostLootPools.get(outpostName);
+        if (lootPool != null) {
+            return CompletableFuture.completedFuture(lootPool);
+        }
+        if (!knownPools.contains(outpostName)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return loadingPools.computeIfAbsent(outpostName, name -> lootPoolStore.load(name).handleAsync((storedPool, error) -> {
+            loadingPools.remove(name);
+            if (!knownPools.contains(name)) {
+                return null;  // Deleted while loading
+            }
+            if (error != null) {
+                logger.log(Level.SEVERE, "Could not load the loot pool of outpost " + name, error);
+                return null;  // Not cached, so the next use tries again
+            }
+
+            Map<String, LootItem> loadedPool = new ConcurrentHashMap<>(storedPool);
+            outpostLootPools.put(name, loadedPool);
+            rebuildLootTable(name);
+            return loadedPool;
+        }, mainThread));
+    }
+
+    // The outpost's compiled table, loading its pool first if needed
+    public CompletableFuture<LootTable> loadLootTable(String outpostName) {
+        return loadLootPool(outpostName).thenApply(lootPool -> getLootTable(outpostName));
+    }
+
+    // Recompile an outpost's alias table from its current pool and drop its rendered GUI; compute() keeps
+    // concurrent rebuilds in order
+    private void rebuildLootTable(String outpostName) {
+        poolVersions.merge(outpostName, 1, Integer::sum);
+        renderedPools.remove(outpostName);
+        lootTables.compute(outpostName, (name, previous) -> {
+            Map<String, LootItem> lootPool = outpostLootPools.get(name);
+            return lootPool == null ? null : LootTable.compile(lootPool.values(), rarityChances);
+        });
+    }
+
+    // The compiled table for an outpost (empty if it has no pool or the pool has not been loaded yet)
+    public LootTable getLootTable(String outpostName) {
+        return lootTables.getOrDefault(outpostName, LootTable.EMPTY);
+    }
+
+    // Draw count items from an outpost's pool using this thread's random generator
+    public ItemStack[] generateLoot(String outpostName, int count) {
+        return generateLoot(outpostName, count, ThreadLocalRandom.current());
+    }
+
+    // Draw count items with the given generator; pass a seeded Random for a reproducible fill
+    public ItemStack[] generateLoot(String outpostName, int count, Random random) {
+        return getLootTable(outpostName).roll(random, count);
     }
 
     // Utility method to create a custom ItemStack
@@ -72,7 +187,7 @@ public class LootPoolManager {
 
     // Add an item to the loot pool for the specified outpost with validation
     public void addItemToLootPool(Player player, String outpostName, ItemStack item, String itemId, String rarity, Double chance) {
-        if (!outpostLootPools.containsKey(outpostName)) {
+        if (!knownPools.contains(outpostName)) {
             player.sendMessage("Outpost '" + outpostName + "' does not exist.");
             return;
         }
@@ -91,37 +206,156 @@ public class LootPoolManager {
             return;
         }
 
-        Map<String, LootItem> lootPool = outpostLootPools.get(outpostName);
-        lootPool.put(itemId, new LootItem(item, rarity, chance));
-        player.sendMessage("Item '" + itemId + "' added to the loot pool for outpost '" + outpostName + "' with rarity '" + rarity + "' and drop chance '" + chance + "%'.");
+        LootItem lootItem = new LootItem(item.clone(), rarity, chance);
+        double dropChance = chance;
+        loadLootPool(outpostName).thenAccept(lootPool -> {
+            if (lootPool == null) {
+                player.sendMessage("The loot pool for outpost '" + outpostName + "' could not be loaded.");
+                return;
+            }
+
+            lootPool.put(itemId, lootItem);
+            rebuildLootTable(outpostName);
+            lootPoolStore.markDirty(outpostName, lootPool);
+            player.sendMessage("Item '" + itemId + "' added to the loot pool for outpost '" + outpostName + "' with rarity '" + rarity + "' and drop chance '" + dropChance + "%'.");
+        });
     }
 
     // Remove an item from the loot pool for the specified outpost
     public void removeItemFromLootPool(String outpostName, String itemId) {
-        Map<String, LootItem> lootPool = outpostLootPools.get(outpostName);
-        if (lootPool != null) {
-            lootPool.remove(itemId);
-        }
+        loadLootPool(outpostName).thenAccept(lootPool -> {
+            if (lootPool != null && lootPool.remove(itemId) != null) {
+                rebuildLootTable(outpostName);
+                lootPoolStore.markDirty(outpostName, lootPool);
+            }
+        });
     }
 
-    // View the loot pool as a GUI for the specified outpost
+    // View the loot pool as a GUI for the specified outpost, opened on the player's thread once the pool is loaded
     public void viewLootPool(Player player, String outpostName) {
-        Map<String, LootItem> lootPool = outpostLootPools.get(outpostName);
+        loadLootPool(outpostName).thenAccept(lootPool ->
+                regionScheduler.executeForPlayer(player, () -> openLootPoolView(player, outpostName, lootPool)));
+    }
 
+    private void openLootPoolView(Player player, String outpostName, Map<String, LootItem> lootPool) {
         if (lootPool == null) {
             player.sendMessage("No loot pool found for outpost: " + outpostName);
         } else {
-            int size = Math.min(54, ((lootPool.size() - 1) / 9 + 1) * 9);
-            Inventory lootInventory = Bukkit.createInventory(null, size, "Loot Pool: " + outpostName);
+            openLootPoolPage(player, outpostName, 0);
+        }
+    }
+
+    // Open a page of a loaded pool's GUI, rendering it on first use; the page is clamped to the pages there are
+    public void openLootPoolPage(Player player, String outpostName, int page) {
+        RenderedPool rendered = getRenderedPool(outpostName);
+        if (rendered == null) {
+            player.closeInventory();
+            player.sendMessage("No loot pool found for outpost: " + outpostName);
+            return;
+        }
+
+        player.openInventory(rendered.getPage(Math.max(0, Math.min(page, rendered.pages.length - 1))).getInventory());
+    }
+
+    // Whether a GUI page was rendered from the pool as it is now
+    public boolean isCurrent(LootPoolView view) {
+        RenderedPool rendered = renderedPools.get(view.getOutpostName());
+        return rendered != null && rendered.version == view.getVersion();
+    }
 
-            for (Map.Entry<String, LootItem> entry : lootPool.entrySet()) {
-                String itemId = entry.getKey();
-                LootItem lootItem = entry.getValue();
+    // The display items of a loaded pool, rendered once per pool version
+    private RenderedPool getRenderedPool(String outpostName) {
+        RenderedPool rendered = renderedPools.get(outpostName);
+        if (rendered != null) {
+            return rendered;
+        }
+
+        Map<String, LootItem> lootPool = outpostLootPools.get(outpostName);
+        if (lootPool == null) {
+            return null;
+        }
 
-                lootInventory.addItem(customizeItemStack(lootItem.item, itemId, lootItem.rarity, lootItem.dropChance));
+        // Sorted by item id so pages stay stable between renders
+        List<String> itemIds = new ArrayList<>(lootPool.keySet());
+        Collections.sort(itemIds);
+        List<ItemStack> displayItems = new ArrayList<>(itemIds.size());
+        for (String itemId : itemIds) {
+            LootItem lootItem = lootPool.get(itemId);
+            if (lootItem != null) {
+                displayItems.add(customizeItemStack(lootItem.item, itemId, lootItem.rarity, lootItem.dropChance));
             }
+        }
+
+        rendered = new RenderedPool(outpostName, poolVersions.getOrDefault(outpostName, 0), displayItems);
+        renderedPools.put(outpostName, rendered);
+        return rendered;
+    }
+
+    // Display items and lazily built GUI pages for one version of a pool. A pool that fits in a double chest is
+    // shown on one page; larger pools get 45 items per page and a navigation row.
+    private static final class RenderedPool {
+        private static final int MAX_SINGLE_PAGE = 54;
+        private static final int ITEMS_PER_PAGE = 45;
+
+        private final String outpostName;
+        private final int version;
+        private final List<ItemStack> displayItems;
+        private final LootPoolView[] pages;
+
+        private RenderedPool(String outpostName, int version, List<ItemStack> displayItems) {
+            this.outpostName = outpostName;
+            this.version = version;
+            this.displayItems = displayItems;
+            int pageCount = displayItems.size() <= MAX_SINGLE_PAGE ? 1 : (displayItems.size() - 1) / ITEMS_PER_PAGE + 1;
+            this.pages = new LootPoolView[pageCount];
+        }
+
+        private LootPoolView getPage(int page) {
+            if (pages[page] == null) {
+                pages[page] = buildPage(page);
+            }
+            return pages[page];
+        }
 
-            player.openInventory(lootInventory);
+        private LootPoolView buildPage(int page) {
+            LootPoolView view = new LootPoolView(outpostName, version, page, pages.length);
+            if (pages.length == 1) {
+                int size = Math.min(MAX_SINGLE_PAGE, Math.max(1, (displayItems.size() - 1) / 9 + 1) * 9);
+                Inventory inventory = Bukkit.createInventory(view, size, "Loot Pool: " + outpostName);
+                view.setInventory(inventory);
+                for (int slot = 0; slot < displayItems.size(); slot++) {
+                    inventory.setItem(slot, displayItems.get(slot));
+                }
+                return view;
+            }
+
+            Inventory inventory = Bukkit.createInventory(view, MAX_SINGLE_PAGE,
+                    "Loot Pool: " + outpostName + " (" + (page + 1) + "/" + pages.length + ")");
+            view.setInventory(inventory);
+            int first = page * ITEMS_PER_PAGE;
+            int last = Math.min(first + ITEMS_PER_PAGE, displayItems.size());
+            for (int i = first; i < last; i++) {
+                inventory.setItem(i - first, displayItems.get(i));
+            }
+
+            if (page > 0) {
+                inventory.setItem(LootPoolView.PREVIOUS_SLOT, navigationItem(Material.ARROW, "Previous page"));
+            }
+            inventory.setItem(LootPoolView.PAGE_SLOT, navigationItem(Material.PAPER, "Page " + (page + 1) + " of " + pages.length));
+            if (page < pages.length - 1) {
+                inventory.setItem(LootPoolView.NEXT_SLOT, navigationItem(Material.ARROW, "Next page"));
+            }
+            return view;
+        }
+
+        private static ItemStack navigationItem(Material type, String name) {
+            ItemStack item = new ItemStack(type);
+            ItemMeta meta = item.getItemMeta();
+            if (meta != null) {
+                meta.setDisplayName(name);
+                item.setItemMeta(meta);
+            }
+            return item;
         }
     }
-}
\ No newline at end of file
+}
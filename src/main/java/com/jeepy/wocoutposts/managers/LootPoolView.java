@@ -0,0 +1,67 @@
+package com.jeepy.wocoutposts.managers;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+// Holder of one rendered page of the loot pool GUI. LootPoolListener recognises the GUI by its holder type,
+// and the version tells whether the page was rendered from the pool as it is now.
+public class LootPoolView implements InventoryHolder {
+
+    // Navigation row of multi-page views
+    static final int PREVIOUS_SLOT = 45;
+    static final int PAGE_SLOT = 49;
+    static final int NEXT_SLOT = 53;
+
+    private final String outpostName;
+    private final int version;
+    private final int page;
+    private final int pageCount;
+    private Inventory inventory;
+
+    LootPoolView(String outpostName, int version, int page, int pageCount) {
+        this.outpostName = outpostName;
+        this.version = version;
+        this.page = page;
+        this.pageCount = pageCount;
+    }
+
+    // Set once, right after Bukkit creates the inventory for this holder
+    void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public String getOutpostName() {
+        return outpostName;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    // Page a click on the given slot of this view should open, or -1 if the slot is not a navigation button
+    public int getTargetPage(int rawSlot) {
+        if (pageCount <= 1) {
+            return -1;
+        }
+        if (rawSlot == PREVIOUS_SLOT && page > 0) {
+            return page - 1;
+        }
+        if (rawSlot == NEXT_SLOT && page < pageCount - 1) {
+            return page + 1;
+        }
+        return -1;
+    }
+}
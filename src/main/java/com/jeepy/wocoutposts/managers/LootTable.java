@@ -0,0 +1,130 @@
+package com.jeepy.wocoutposts.managers;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Immutable alias table (Vose's method) over one outpost's loot pool, so each draw is O(1) whatever the pool size.
+// Each rarity gets its configured share of the draws, split between its items in proportion to their drop chance.
+// LootPoolManager compiles a new table whenever the pool changes; a table can be shared between threads.
+public final class LootTable {
+
+    public static final LootTable EMPTY = new LootTable(new ItemStack[0], new double[0], new int[0]);
+
+    private final ItemStack[] items;
+    private final double[] probability;  // Chance of keeping column i rather than taking its alias
+    private final int[] alias;
+
+    private LootTable(ItemStack[] items, double[] probability, int[] alias) {
+        this.items = items;
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    // Build a table from a pool and the per-rarity drop rates (rarity -> percentage)
+    static LootTable compile(Collection<LootPoolManager.LootItem> lootItems, Map<String, Double> rarityRates) {
+        List<LootPoolManager.LootItem> pool = new ArrayList<>(lootItems);
+        int size = pool.size();
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        // Total drop chance per rarity, and the rate shared by the rarities actually present
+        Map<String, Double> rarityTotals = new HashMap<>();
+        for (LootPoolManager.LootItem lootItem : pool) {
+            rarityTotals.merge(lootItem.rarity.toLowerCase(), lootItem.dropChance, Double::sum);
+        }
+        double rateTotal = 0.0;
+        for (String rarity : rarityTotals.keySet()) {
+            rateTotal += rarityRate(rarityRates, rarity);
+        }
+
+        ItemStack[] items = new ItemStack[size];
+        double[] weights = new double[size];
+        double weightTotal = 0.0;
+        for (int i = 0; i < size; i++) {
+            LootPoolManager.LootItem lootItem = pool.get(i);
+            items[i] = lootItem.item;
+            String rarity = lootItem.rarity.toLowerCase();
+            double rarityShare = rateTotal > 0 ? rarityRate(rarityRates, rarity) / rateTotal : 1.0 / rarityTotals.size();
+            weights[i] = rarityShare * lootItem.dropChance / rarityTotals.get(rarity);
+            weightTotal += weights[i];
+        }
+
+        // Scale so the average column is 1.0, then pair each under-full column with an over-full one
+        double[] probability = new double[size];
+        int[] alias = new int[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            probability[i] = weights[i] * size / weightTotal;
+            if (probability[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            alias[less] = more;
+            probability[more] = probability[more] + probability[less] - 1.0;
+            if (probability[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is full up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+
+        return new LootTable(items, probability, alias);
+    }
+
+    private static double rarityRate(Map<String, Double> rarityRates, String rarity) {
+        Double rate = rarityRates.get(rarity);
+        return rate != null && rate > 0 ? rate : 0.0;
+    }
+
+    public boolean isEmpty() {
+        return items.length == 0;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    // Draw one item; the returned stack is a copy the caller may modify
+    public ItemStack roll(Random random) {
+        if (items.length == 0) {
+            return null;
+        }
+        int column = random.nextInt(items.length);
+        int index = random.nextDouble() < probability[column] ? column : alias[column];
+        return items[index].clone();
+    }
+
+    // Draw count items into a new array
+    public ItemStack[] roll(Random random, int count) {
+        if (items.length == 0) {
+            return new ItemStack[0];
+        }
+        ItemStack[] drawn = new ItemStack[count];
+        for (int i = 0; i < count; i++) {
+            drawn[i] = roll(random);
+        }
+        return drawn;
+    }
+}
@@ -1,35 +1,44 @@
 package com.jeepy.wocoutposts.managers;
 
 import com.jeepy.wocoutposts.Main;
+import com.jeepy.wocoutposts.database.ChestLocation;
 import com.jeepy.wocoutposts.objectives.Outpost;
 import com.jeepy.wocoutposts.objectives.ClassifiedOutpost;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.util.BlockIterator;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
 
 public class OutpostManager {
 
-    private Map<String, Outpost> outposts = new HashMap<>();
+    private final OutpostRegistry registry = new OutpostRegistry();
+    private final OutpostShards shards;
     private LootPoolManager lootPoolManager;
     private final Main plugin;  // Reference to Main plugin instance
-    private boolean debugMode = false;
+    private volatile boolean debugMode = false;
 
     // Constructor that accepts LootPoolManager and Main plugin instance
     public OutpostManager(LootPoolManager lootPoolManager, Main plugin) {
         this.lootPoolManager = lootPoolManager;
         this.plugin = plugin;  // Assign the Main plugin instance
+        this.shards = new OutpostShards(plugin.getRegionScheduler(), Clock.systemUTC(), plugin.getConfigManager().getTickBudgetNanos());
     }
 
     // Create a new outpost
     public void createOutpost(Player player, String outpostName) {
-        if (outposts.containsKey(outpostName)) {
+        if (registry.contains(outpostName)) {
             player.sendMessage("Outpost " + outpostName + " already exists.");
             return;
         }
@@ -43,38 +52,56 @@ public class OutpostManager {
         Location beaconLocation = targetBlock.getLocation();
 
         // Create a new ClassifiedOutpost, passing the Main plugin instance
-        Outpost newOutpost = new ClassifiedOutpost(outpostName, beaconLocation, plugin);
-        outposts.put(outpostName, newOutpost);
+        ClassifiedOutpost newOutpost = new ClassifiedOutpost(outpostName, beaconLocation, plugin);
+        if (!registry.add(outpostName, newOutpost)) {
+            newOutpost.discard();
+            player.sendMessage("Outpost " + outpostName + " already exists.");
+            return;
+        }
 
-        // Store outpost in the configuration for persistence
-        plugin.getConfig().set("outposts." + outpostName + ".world", beaconLocation.getWorld().getName());
-        plugin.getConfig().set("outposts." + outpostName + ".x", beaconLocation.getX());
-        plugin.getConfig().set("outposts." + outpostName + ".y", beaconLocation.getY());
-        plugin.getConfig().set("outposts." + outpostName + ".z", beaconLocation.getZ());
-        plugin.saveConfig();
+        shards.register(newOutpost.getShard());
+        lootPoolManager.createLootPool(outpostName);
+
+        // Store the outpost in the outpost state table (written off the main thread)
+        plugin.getStateStore().saveNow(newOutpost);
 
         player.sendMessage("Outpost " + outpostName + " has been created at beacon location: " + formatLocation(beaconLocation));
     }
 
 
-    public void addOutpost(String outpostName, Outpost outpost) {
-        if (!outposts.containsKey(outpostName)) {
-            outposts.put(outpostName, outpost);
-            plugin.getLogger().info("Outpost " + outpostName + " has been added to the manager.");
+    // Register an outpost built elsewhere (restore, config import); false (and the outpost discarded) if the name is
+    // already taken
+    public boolean addOutpost(String outpostName, Outpost outpost) {
+        if (!registry.add(outpostName, outpost)) {
+            if (outpost instanceof ClassifiedOutpost) {
+                ((ClassifiedOutpost) outpost).discard();
+            }
+            return false;
+        }
+        if (outpost instanceof ClassifiedOutpost) {
+            shards.register(((ClassifiedOutpost) outpost).getShard());
         }
+        lootPoolManager.createLootPool(outpostName);
+        plugin.getLogger().info("Outpost " + outpostName + " has been added to the manager.");
+        return true;
     }
 
     // Utility method to check if the player is looking at a beacon block
     private Block getTargetBeacon(Player player) {
+        return getTargetBlock(player, Material.BEACON);
+    }
+
+    // First block of the given type in the player's line of sight, up to 10 blocks ahead
+    private Block getTargetBlock(Player player, Material type) {
         BlockIterator iterator = new BlockIterator(player, 10);  // Look up to 10 blocks ahead
         Block targetBlock;
         while (iterator.hasNext()) {
             targetBlock = iterator.next();
-            if (targetBlock.getType() == Material.BEACON) {
+            if (targetBlock.getType() == type) {
                 return targetBlock;
             }
         }
-        return null;  // No beacon found in the player's line of sight
+        return null;  // No matching block found in the player's line of sight
     }
 
     // Utility method to format the location for player messages
@@ -84,19 +111,30 @@ public class OutpostManager {
 
     // Delete an existing outpost
     public void deleteOutpost(Player player, String outpostName) {
-        if (!outposts.containsKey(outpostName)) {
+        Outpost removed = registry.remove(outpostName);
+        if (removed == null) {
             player.sendMessage("Outpost " + outpostName + " does not exist.");
             return;
         }
 
-        outposts.remove(outpostName);
+        if (removed instanceof ClassifiedOutpost) {
+            ClassifiedOutpost classifiedOutpost = (ClassifiedOutpost) removed;
+            onOutpostThread(classifiedOutpost, () -> {
+                classifiedOutpost.cancelDeadline();
+                shards.unregister(classifiedOutpost.getShard());
+            });
+        }
+
+        plugin.getStateStore().delete(outpostName);
+        plugin.getMetrics().removeOutpost(outpostName);
+        plugin.getChestRefillManager().removeOutpost(outpostName);
         lootPoolManager.deleteLootPool(outpostName);
         player.sendMessage("Outpost " + outpostName + " has been deleted.");
     }
 
     // Start charging the specified outpost
     public void startOutpost(Player player, String outpostName) {
-        Outpost outpost = outposts.get(outpostName);
+        Outpost outpost = registry.get(outpostName);
 
         if (outpost == null) {
             player.sendMessage("Outpost " + outpostName + " does not exist.");
@@ -105,9 +143,14 @@ public class OutpostManager {
 
         if (outpost instanceof ClassifiedOutpost) {
             ClassifiedOutpost classifiedOutpost = (ClassifiedOutpost) outpost;
-            classifiedOutpost.setChargingEnabled(true);
-            classifiedOutpost.resetCharge(); // Add a method to reset the charge and lastChargeTime
-            outpost.startCharging();
+            onOutpostThread(classifiedOutpost, () -> {
+                classifiedOutpost.resetCharge(); // Start a fresh capture
+                classifiedOutpost.setChargingEnabled(true);
+                seedPlayersInRadius(classifiedOutpost);
+                outpost.startCharging();
+                plugin.getChestRefillManager().startSchedule(outpostName);
+                plugin.getStateStore().saveNow(classifiedOutpost);
+            });
             player.sendMessage("Charging for " + outpostName + " has started.");
         } else {
             player.sendMessage("Outpost " + outpostName + " is not a ClassifiedOutpost and cannot start charging.");
@@ -116,7 +159,7 @@ public class OutpostManager {
 
     // Stop charging the specified outpost
     public void stopOutpost(Player player, String outpostName) {
-        Outpost outpost = outposts.get(outpostName);
+        Outpost outpost = registry.get(outpostName);
 
         if (outpost == null) {
             player.sendMessage("Outpost " + outpostName + " does not exist.");
@@ -125,7 +168,8 @@ public class OutpostManager {
 
         // Ensure only ClassifiedOutpost stops charging
         if (outpost instanceof ClassifiedOutpost) {
-            ((ClassifiedOutpost) outpost).stopOutpost();
+            ClassifiedOutpost classifiedOutpost = (ClassifiedOutpost) outpost;
+            onOutpostThread(classifiedOutpost, classifiedOutpost::stopOutpost);
             player.sendMessage("ClassifiedOutpost " + outpostName + " has stopped charging.");
         } else {
             player.sendMessage("Outpost " + outpostName + " is not a ClassifiedOutpost and cannot stop charging.");
@@ -134,7 +178,7 @@ public class OutpostManager {
 
     // Manually refill loot for an outpost
     public void refillLoot(Player player, String outpostName) {
-        Outpost outpost = outposts.get(outpostName);
+        Outpost outpost = registry.get(outpostName);
 
         if (outpost == null) {
             player.sendMessage("Outpost " + outpostName + " does not exist.");
@@ -142,27 +186,253 @@ public class OutpostManager {
         }
 
         if (outpost instanceof ClassifiedOutpost) {
+            int chestCount = plugin.getChestRefillManager().getChests(outpostName).size();
+            if (chestCount == 0) {
+                player.sendMessage("Outpost " + outpostName + " has no loot chests. Look at a chest and use /outpost chest add " + outpostName + ".");
+                return;
+            }
             outpost.refillLoot();
-            player.sendMessage("Loot chests have been refilled for outpost " + outpostName + ".");
+            player.sendMessage("Refilling " + chestCount + " loot chests for outpost " + outpostName + ".");
         } else {
             player.sendMessage("Refill loot is not applicable for this outpost type.");
         }
     }
 
+    // Register the chest the player is looking at as a loot chest of the outpost
+    public void addLootChest(Player player, String outpostName) {
+        if (!registry.contains(outpostName)) {
+            player.sendMessage("Outpost " + outpostName + " does not exist.");
+            return;
+        }
+
+        Block targetBlock = getTargetBlock(player, Material.CHEST);
+        if (targetBlock == null) {
+            player.sendMessage("You must be looking at a chest to add a loot chest.");
+            return;
+        }
+
+        if (plugin.getChestRefillManager().addChest(outpostName, targetBlock)) {
+            player.sendMessage("Loot chest added to outpost " + outpostName + " at " + formatLocation(targetBlock.getLocation()) + ".");
+        } else {
+            player.sendMessage("That chest is already a loot chest of outpost " + outpostName + ".");
+        }
+    }
+
+    // Unregister the chest the player is looking at
+    public void removeLootChest(Player player, String outpostName) {
+        Block targetBlock = getTargetBlock(player, Material.CHEST);
+        if (targetBlock == null) {
+            player.sendMessage("You must be looking at a chest to remove a loot chest.");
+            return;
+        }
+
+        if (plugin.getChestRefillManager().removeChest(outpostName, targetBlock)) {
+            player.sendMessage("Loot chest removed from outpost " + outpostName + ".");
+        } else {
+            player.sendMessage("That chest is not a loot chest of outpost " + outpostName + ".");
+        }
+    }
+
+    // List the loot chests registered to an outpost
+    public void listLootChests(Player player, String outpostName) {
+        List<ChestLocation> chests = plugin.getChestRefillManager().getChests(outpostName);
+        if (chests.isEmpty()) {
+            player.sendMessage("Outpost " + outpostName + " has no loot chests.");
+            return;
+        }
+
+        player.sendMessage("Loot chests for outpost " + outpostName + ":");
+        for (ChestLocation chest : chests) {
+            player.sendMessage("  " + chest);
+        }
+    }
+
     // Toggle debug mode
     public void toggleDebug(Player player) {
         debugMode = !debugMode;
+        plugin.getEventLog().setEnabled(debugMode);  // Outpost debug events are only recorded while debug mode is on
         String status = debugMode ? "enabled" : "disabled";
         player.sendMessage("Debug mode " + status + ".");
     }
 
+    // Show outpost tick times, database latencies and queue depths
+    public void showStats(Player player) {
+        for (String line : plugin.getMetrics().describe()) {
+            player.sendMessage(line);
+        }
+    }
+
+    // Write the metrics in Prometheus text format to the configured file, off the main thread
+    public void dumpStats(Player player) {
+        File metricsFile = new File(plugin.getDataFolder(), plugin.getConfigManager().getMetricsFileName());
+        plugin.getRegionScheduler().runAsync(() -> {
+            String result;
+            try {
+                plugin.getMetrics().writePrometheusFile(metricsFile);
+                result = "Metrics written to " + metricsFile.getPath() + ".";
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not write metrics file " + metricsFile, e);
+                result = "Could not write metrics file: " + e.getMessage();
+            }
+
+            String message = result;
+            plugin.getRegionScheduler().executeForPlayer(player, () -> player.sendMessage(message));
+        });
+    }
+
     // Helper method to check if debug mode is enabled
     public boolean isDebugMode() {
         return debugMode;
     }
 
-    public Collection<Outpost> getActiveClassifiedOutposts() {
-        return outposts.values();
+    // Snapshot of the registered outposts, safe to iterate from any thread
+    public List<ClassifiedOutpost> getActiveClassifiedOutposts() {
+        return registry.getClassifiedOutposts();
+    }
+
+    public OutpostRegistry getRegistry() {
+        return registry;
+    }
+
+    // Each shard runs its outposts' due deadlines every tick on the region owning them, within a per-tick time
+    // budget. Radius membership (and the state changes it causes) is kept current by OutpostRadiusListener.
+    public OutpostShards getShards() {
+        return shards;
+    }
+
+    // Stop every shard's tick task and take down the progress bars
+    public void shutdown() {
+        shards.stopAll();
+        for (ClassifiedOutpost outpost : registry.getClassifiedOutposts()) {
+            outpost.hideProgressBar();
+        }
+    }
+
+    // Run work on an outpost from the thread owning its beacon (right away on a single-threaded server). Outpost
+    // state is only ever touched from that thread.
+    private void onOutpostThread(ClassifiedOutpost outpost, Runnable task) {
+        plugin.getRegionScheduler().execute(outpost.getBeaconLocation(), task);
+    }
+
+    // Re-evaluate a player against the outposts overlapping the chunks they moved between
+    public void updatePlayerPosition(Player player, Location from, Location to) {
+        OutpostSpatialIndex spatialIndex = registry.snapshot().getSpatialIndex();
+        List<ClassifiedOutpost> toOutposts = spatialIndex.getOutpostsAt(to);
+        for (ClassifiedOutpost outpost : toOutposts) {
+            if (outpost.isChargingEnabled()) {
+                onOutpostThread(outpost, () -> outpost.updatePlayerInRadius(player, to));
+            }
+        }
+
+        if (from == null) {
+            return;
+        }
+
+        for (ClassifiedOutpost outpost : spatialIndex.getOutpostsAt(from)) {
+            if (outpost.isChargingEnabled() && !toOutposts.contains(outpost)) {
+                onOutpostThread(outpost, () -> outpost.updatePlayerInRadius(player, to));
+            }
+        }
+    }
+
+    // Credit a kill to the charging outposts whose combat zone contains the victim or the killer. The chunk index
+    // narrows the candidates, and the killer's team is resolved once from the cache for all of them.
+    public void handlePlayerKill(PlayerDeathEvent event) {
+        Player victim = event.getEntity();
+        Player killer = victim.getKiller();
+        if (killer == null || killer == victim) {
+            return;
+        }
+
+        OutpostSpatialIndex spatialIndex = registry.snapshot().getSpatialIndex();
+        Location victimLocation = victim.getLocation();
+        Location killerLocation = killer.getLocation();
+        List<ClassifiedOutpost> outposts = null;
+        for (ClassifiedOutpost outpost : spatialIndex.getOutpostsAt(victimLocation)) {
+            if (outpost.isChargingEnabled() && outpost.isInsideCombatZone(victimLocation)) {
+                outposts = addOutpost(outposts, outpost);
+            }
+        }
+        for (ClassifiedOutpost outpost : spatialIndex.getOutpostsAt(killerLocation)) {
+            if (outpost.isChargingEnabled() && outpost.isInsideCombatZone(killerLocation)
+                    && (outposts == null || !outposts.contains(outpost))) {
+                outposts = addOutpost(outposts, outpost);
+            }
+        }
+        if (outposts == null) {
+            return;
+        }
+
+        // On a cache miss the kill is credited once the lookup completes
+        List<ClassifiedOutpost> creditedOutposts = outposts;
+        plugin.getTeamCache().withMembership(killer, membership -> {
+            for (ClassifiedOutpost outpost : creditedOutposts) {
+                onOutpostThread(outpost, () -> outpost.creditKill(killer, membership.getTeam()));
+            }
+        });
+    }
+
+    private static List<ClassifiedOutpost> addOutpost(List<ClassifiedOutpost> outposts, ClassifiedOutpost outpost) {
+        List<ClassifiedOutpost> result = outposts != null ? outposts : new ArrayList<>(2);
+        result.add(outpost);
+        return result;
+    }
+
+    // Re-evaluate every outpost the player is currently inside (used when the player changes world)
+    public void revalidatePlayer(Player player) {
+        revalidatePlayer(player, player.getLocation());
+    }
+
+    // Same as above, against the location the player is about to be at (e.g. their respawn point)
+    public void revalidatePlayer(Player player, Location location) {
+        for (ClassifiedOutpost outpost : registry.getClassifiedOutposts()) {
+            onOutpostThread(outpost, () -> {
+                if (outpost.isOccupant(player.getUniqueId())) {
+                    outpost.updatePlayerInRadius(player, location);
+                }
+            });
+        }
+        updatePlayerPosition(player, null, location);
+    }
+
+    // Remove a player who logged out from every outpost radius
+    public void removePlayer(UUID playerUUID) {
+        for (ClassifiedOutpost outpost : registry.getClassifiedOutposts()) {
+            onOutpostThread(outpost, () -> outpost.removePlayer(playerUUID));
+        }
+    }
+
+    // The player's team changed: drop them from every outpost, then re-evaluate them at their current location so
+    // they re-enter under the new team (each outpost's thread runs the removal first)
+    public void reenterOutposts(Player player) {
+        removePlayer(player.getUniqueId());
+        plugin.getRegionScheduler().executeForPlayer(player, () -> updatePlayerPosition(player, null, player.getLocation()));
+    }
+
+    // Pick up players already inside an outpost whose charging was restored from the state table
+    public void resumeOutpost(ClassifiedOutpost outpost) {
+        if (outpost.isChargingEnabled()) {
+            seedPlayersInRadius(outpost);
+            plugin.getChestRefillManager().startSchedule(outpost.getOutpostName());
+        }
+    }
+
+    // Seed radius membership for players already standing inside an outpost when it starts: each player's location is
+    // read on their own thread, then handed to the outpost's thread
+    private void seedPlayersInRadius(ClassifiedOutpost outpost) {
+        RegionScheduler regions = plugin.getRegionScheduler();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            regions.executeForPlayer(player, () -> {
+                Location location = player.getLocation();
+                if (registry.getOutpostsAt(location).contains(outpost)) {
+                    onOutpostThread(outpost, () -> {
+                        if (outpost.isChargingEnabled()) {
+                            outpost.updatePlayerInRadius(player, location);
+                        }
+                    });
+                }
+            });
+        }
     }
 
 }
@@ -0,0 +1,125 @@
+package com.jeepy.wocoutposts.managers;
+
+import com.jeepy.wocoutposts.objectives.ClassifiedOutpost;
+import com.jeepy.wocoutposts.objectives.Outpost;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// The single authoritative set of outposts. Readers (the tick, listeners, async tasks) get an immutable
+// snapshot without locking; add/remove copy the snapshot under a lock and publish the new one atomically.
+public class OutpostRegistry {
+
+    // Immutable view of the registry, with its lookup indexes built once per change
+    public static final class Snapshot {
+        private final Map<String, Outpost> byName;
+        private final List<ClassifiedOutpost> classifiedOutposts;
+        private final OutpostSpatialIndex spatialIndex;
+
+        private Snapshot(Map<String, Outpost> byName) {
+            this.byName = Collections.unmodifiableMap(byName);
+
+            List<ClassifiedOutpost> classified = new ArrayList<>();
+            for (Outpost outpost : byName.values()) {
+                if (outpost instanceof ClassifiedOutpost) {
+                    classified.add((ClassifiedOutpost) outpost);
+                }
+            }
+            this.classifiedOutposts = Collections.unmodifiableList(classified);
+            this.spatialIndex = new OutpostSpatialIndex(classified);
+        }
+
+        public Outpost get(String outpostName) {
+            return byName.get(outpostName);
+        }
+
+        public boolean contains(String outpostName) {
+            return byName.containsKey(outpostName);
+        }
+
+        public Collection<Outpost> getOutposts() {
+            return byName.values();
+        }
+
+        public List<ClassifiedOutpost> getClassifiedOutposts() {
+            return classifiedOutposts;
+        }
+
+        public OutpostSpatialIndex getSpatialIndex() {
+            return spatialIndex;
+        }
+    }
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(new LinkedHashMap<>()));
+    private final Object writeLock = new Object();
+
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    // Register an outpost; returns false (and changes nothing) if the name is already taken
+    public boolean add(String outpostName, Outpost outpost) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot.get();
+            if (current.contains(outpostName)) {
+                return false;
+            }
+
+            Map<String, Outpost> byName = new LinkedHashMap<>(current.byName);
+            byName.put(outpostName, outpost);
+            snapshot.set(new Snapshot(byName));
+            return true;
+        }
+    }
+
+    // Unregister an outpost; returns the removed outpost, or null if there was none
+    public Outpost remove(String outpostName) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot.get();
+            Outpost removed = current.get(outpostName);
+            if (removed == null) {
+                return null;
+            }
+
+            Map<String, Outpost> byName = new LinkedHashMap<>(current.byName);
+            byName.remove(outpostName);
+            snapshot.set(new Snapshot(byName));
+            return removed;
+        }
+    }
+
+    // ---- Snapshot shortcuts ----
+
+    public Outpost get(String outpostName) {
+        return snapshot.get().get(outpostName);
+    }
+
+    public boolean contains(String outpostName) {
+        return snapshot.get().contains(outpostName);
+    }
+
+    public Collection<Outpost> getOutposts() {
+        return snapshot.get().getOutposts();
+    }
+
+    public List<ClassifiedOutpost> getClassifiedOutposts() {
+        return snapshot.get().getClassifiedOutposts();
+    }
+
+    // Outposts whose capture region overlaps the chunk containing this location
+    public List<ClassifiedOutpost> getOutpostsAt(Location location) {
+        return snapshot.get().getSpatialIndex().getOutpostsAt(location);
+    }
+
+    // Every outpost in the given world
+    public List<ClassifiedOutpost> getOutpostsInWorld(World world) {
+        return snapshot.get().getSpatialIndex().getOutpostsInWorld(world);
+    }
+}
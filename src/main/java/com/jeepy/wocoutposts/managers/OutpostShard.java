@@ -0,0 +1,69 @@
+package com.jeepy.wocoutposts.managers;
+
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+import org.bukkit.World;
+
+import java.time.Clock;
+
+// The outposts whose beacons lie in one section (16x16 chunks) of a world. A section always belongs to a single
+// region of a region-threaded server, so the shard's timer wheel and outposts are only ever touched from the
+// thread ticking that region, and shards in different regions run in parallel.
+public class OutpostShard {
+
+    // Section size as a chunk shift, matching the smallest unit Folia assigns to a region
+    static final int SECTION_SHIFT = 4;
+
+    private final World world;
+    private final int sectionX;
+    private final int sectionZ;
+    private final OutpostTickScheduler scheduler;
+    private int outpostCount = 0;  // Guarded by OutpostShards
+    private RegionScheduler.Task task;
+
+    OutpostShard(World world, int sectionX, int sectionZ, Clock clock, long tickBudgetNanos) {
+        this.world = world;
+        this.sectionX = sectionX;
+        this.sectionZ = sectionZ;
+        this.scheduler = new OutpostTickScheduler(clock, tickBudgetNanos);
+    }
+
+    // Tick on the region owning the section, from its first chunk
+    void start(RegionScheduler regions) {
+        if (task == null) {
+            task = regions.runAtFixedRate(world, sectionX << SECTION_SHIFT, sectionZ << SECTION_SHIFT,
+                    scheduler::tick, 1L, 1L);
+        }
+    }
+
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    int addOutpost() {
+        return ++outpostCount;
+    }
+
+    int removeOutpost() {
+        return --outpostCount;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public int getSectionX() {
+        return sectionX;
+    }
+
+    public int getSectionZ() {
+        return sectionZ;
+    }
+
+    // Deadlines of this shard's outposts (owning region thread only)
+    public OutpostTickScheduler getScheduler() {
+        return scheduler;
+    }
+}
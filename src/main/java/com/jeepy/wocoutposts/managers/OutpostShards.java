@@ -0,0 +1,134 @@
+package com.jeepy.wocoutposts.managers;
+
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Outpost shards by world and section. A shard is created for the first outpost in its section, ticks while it has
+// registered outposts and is dropped with its last one. An outpost binds to its shard when it is built and registers
+// with that same instance later, even if the section's shard was dropped (and maybe replaced) in between; two shards
+// of one section both tick on the region owning it. Lookups and registration may come from any thread.
+public class OutpostShards {
+
+    // World and section of a shard
+    private static final class Key {
+        private final UUID worldId;
+        private final int sectionX;
+        private final int sectionZ;
+
+        private Key(UUID worldId, int sectionX, int sectionZ) {
+            this.worldId = worldId;
+            this.sectionX = sectionX;
+            this.sectionZ = sectionZ;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return sectionX == key.sectionX && sectionZ == key.sectionZ && worldId.equals(key.worldId);
+        }
+
+        @Override
+        public int hashCode() {
+            return (worldId.hashCode() * 31 + sectionX) * 31 + sectionZ;
+        }
+    }
+
+    private final RegionScheduler regions;
+    private final Clock clock;
+    private final long tickBudgetNanos;
+    private final Map<Key, OutpostShard> shards = new HashMap<>();  // Guarded by this
+    private final Set<OutpostShard> ticking = new HashSet<>();  // Shards with registered outposts, guarded by this
+    private long retiredDeferredCount = 0;  // Deferrals counted by dropped shards, guarded by this
+
+    public OutpostShards(RegionScheduler regions, Clock clock, long tickBudgetNanos) {
+        this.regions = regions;
+        this.clock = clock;
+        this.tickBudgetNanos = tickBudgetNanos;
+    }
+
+    // The shard owning a beacon location, created (not yet ticking) if needed
+    public synchronized OutpostShard shardFor(Location beaconLocation) {
+        World world = beaconLocation.getWorld();
+        int sectionX = (beaconLocation.getBlockX() >> 4) >> OutpostShard.SECTION_SHIFT;
+        int sectionZ = (beaconLocation.getBlockZ() >> 4) >> OutpostShard.SECTION_SHIFT;
+        return shards.computeIfAbsent(new Key(world.getUID(), sectionX, sectionZ),
+                key -> new OutpostShard(world, sectionX, sectionZ, clock, tickBudgetNanos));
+    }
+
+    // A registered outpost: make sure the shard it was built with is ticking
+    public synchronized void register(OutpostShard shard) {
+        if (shard.addOutpost() == 1) {
+            shard.start(regions);
+            ticking.add(shard);
+            shards.putIfAbsent(keyOf(shard), shard);
+        }
+    }
+
+    // A deleted outpost: stop and drop its shard once empty
+    public synchronized void unregister(OutpostShard shard) {
+        if (shard.removeOutpost() <= 0) {
+            shard.stop();
+            ticking.remove(shard);
+            shards.remove(keyOf(shard), shard);
+            retiredDeferredCount += shard.getScheduler().getTotalDeferredCount();
+        }
+    }
+
+    public synchronized void stopAll() {
+        for (OutpostShard shard : ticking) {
+            shard.stop();
+        }
+    }
+
+    // Shards with registered outposts
+    public synchronized List<OutpostShard> getShards() {
+        return new ArrayList<>(ticking);
+    }
+
+    private static Key keyOf(OutpostShard shard) {
+        return new Key(shard.getWorld().getUID(), shard.getSectionX(), shard.getSectionZ());
+    }
+
+    // ---- Metrics, summed over shards (each scheduler publishes its counts at the end of its tick) ----
+
+    public int getPendingCount() {
+        int pending = 0;
+        for (OutpostShard shard : getShards()) {
+            pending += shard.getScheduler().getPendingCount();
+        }
+        return pending;
+    }
+
+    public int getLastDeferredCount() {
+        int deferred = 0;
+        for (OutpostShard shard : getShards()) {
+            deferred += shard.getScheduler().getLastDeferredCount();
+        }
+        return deferred;
+    }
+
+    public synchronized long getTotalDeferredCount() {
+        long deferred = retiredDeferredCount;
+        for (OutpostShard shard : ticking) {
+            deferred += shard.getScheduler().getTotalDeferredCount();
+        }
+        return deferred;
+    }
+
+    public synchronized int getShardCount() {
+        return ticking.size();
+    }
+}
@@ -0,0 +1,72 @@
+package com.jeepy.wocoutposts.managers;
+
+import com.jeepy.wocoutposts.objectives.ClassifiedOutpost;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Chunk-bucketed lookup of outpost regions (world -> chunk -> outposts overlapping that chunk), plus the outposts in
+// each world. A region covers the combat zone, which is never smaller than the capture radius. Immutable once built; OutpostRegistry builds a new index on every change.
+public class OutpostSpatialIndex {
+
+    private final Map<UUID, Map<Long, List<ClassifiedOutpost>>> cells = new HashMap<>();
+    private final Map<UUID, List<ClassifiedOutpost>> worlds = new HashMap<>();
+
+    public OutpostSpatialIndex(Collection<ClassifiedOutpost> outposts) {
+        for (ClassifiedOutpost outpost : outposts) {
+            Location center = outpost.getBeaconLocation();
+            World world = center.getWorld();
+            if (world == null) {
+                continue;
+            }
+
+            worlds.computeIfAbsent(world.getUID(), k -> new ArrayList<>()).add(outpost);
+
+            int radius = outpost.getCombatRadius();
+            int minChunkX = (int) Math.floor(center.getX() - radius) >> 4;
+            int maxChunkX = (int) Math.floor(center.getX() + radius) >> 4;
+            int minChunkZ = (int) Math.floor(center.getZ() - radius) >> 4;
+            int maxChunkZ = (int) Math.floor(center.getZ() + radius) >> 4;
+
+            Map<Long, List<ClassifiedOutpost>> worldCells = cells.computeIfAbsent(world.getUID(), k -> new HashMap<>());
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    worldCells.computeIfAbsent(chunkKey(chunkX, chunkZ), k -> new ArrayList<>(1)).add(outpost);
+                }
+            }
+        }
+    }
+    // Outposts whose region overlaps the chunk containing this location (candidates for an exact radius check)
+    public List<ClassifiedOutpost> getOutpostsAt(Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, List<ClassifiedOutpost>> worldCells = cells.get(world.getUID());
+        if (worldCells == null) {
+            return Collections.emptyList();
+        }
+
+        List<ClassifiedOutpost> outposts = worldCells.get(chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        return outposts != null ? outposts : Collections.<ClassifiedOutpost>emptyList();
+    }
+
+    // Every outpost in the given world
+    public List<ClassifiedOutpost> getOutpostsInWorld(World world) {
+        List<ClassifiedOutpost> outposts = world != null ? worlds.get(world.getUID()) : null;
+        return outposts != null ? outposts : Collections.<ClassifiedOutpost>emptyList();
+    }
+
+    // Pack chunk coordinates into a single long key
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
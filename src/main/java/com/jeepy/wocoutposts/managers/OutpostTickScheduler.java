@@ -0,0 +1,82 @@
+package com.jeepy.wocoutposts.managers;
+
+import com.jeepy.wocoutposts.util.TimerWheel;
+
+import java.time.Clock;
+
+// Runs outpost deadlines (next charge threshold, contest decay, overtime expiry) from a hierarchical timer wheel.
+// Outposts only schedule work for the moment something will actually happen, so idle and steadily charging
+// outposts cost nothing per tick. Due deadlines run within the per-tick time budget; the rest carry over.
+// There is one per OutpostShard, so the budget applies to each region separately.
+public class OutpostTickScheduler {
+
+    // Wheel resolution: one server tick
+    private static final long TICK_MILLIS = 50L;
+
+    private final Clock clock;
+    private final TimerWheel timerWheel;
+    private final long tickBudgetNanos;
+
+    // Deferral metrics (read by /outpost stats and the metrics dump thread)
+    private volatile int lastDeferredCount = 0;
+    private volatile long totalDeferredCount = 0;
+    private volatile int pendingCount = 0;
+
+    // The clock drives both deadlines and capture progress (see CaptureModel)
+    public OutpostTickScheduler(Clock clock, long tickBudgetNanos) {
+        this.clock = clock;
+        this.tickBudgetNanos = tickBudgetNanos;
+        this.timerWheel = new TimerWheel(TICK_MILLIS, clock.millis());
+    }
+
+    // Run the task on the first tick at or after deadlineMillis (thread ticking this scheduler only)
+    public TimerWheel.Timeout schedule(long deadlineMillis, Runnable task) {
+        return timerWheel.schedule(deadlineMillis, task);
+    }
+
+    // Called every server tick by the OutpostShard owning this scheduler
+    public void tick() {
+        timerWheel.advance(clock.millis());
+
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        boolean processedAny = false;
+        while (timerWheel.hasExpired()) {
+            // Always make progress on at least one deadline per tick
+            if (processedAny && System.nanoTime() >= deadline) {
+                break;
+            }
+            timerWheel.runNext();
+            processedAny = true;
+        }
+
+        lastDeferredCount = timerWheel.getExpiredCount();
+        totalDeferredCount += lastDeferredCount;
+        pendingCount = timerWheel.size();
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    public long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    // Due deadlines carried over to the next tick by the most recent tick
+    public int getLastDeferredCount() {
+        return lastDeferredCount;
+    }
+
+    public long getTotalDeferredCount() {
+        return totalDeferredCount;
+    }
+
+    // Deadlines scheduled and not yet run, as of the most recent tick
+    public int getPendingCount() {
+        return pendingCount;
+    }
+}
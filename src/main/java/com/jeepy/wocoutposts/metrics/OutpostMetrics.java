@@ -0,0 +1,232 @@
+package com.jeepy.wocoutposts.metrics;
+
+import com.jeepy.wocoutposts.Main;
+import com.jeepy.wocoutposts.database.DatabaseExecutor;
+import com.jeepy.wocoutposts.database.OutpostWriteQueue;
+import com.jeepy.wocoutposts.managers.ChestRefillManager;
+import com.jeepy.wocoutposts.managers.OutpostShards;
+import com.jeepy.wocoutposts.notifications.OutpostNotifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Instrumentation for Woc-Outposts: per-outpost tick cost and radius activity, latency histograms
+// for every Outposts DB and Woc-Teams DB call, and queue/scheduler gauges.
+// Shown by /outpost stats and dumpable as Prometheus text.
+public class OutpostMetrics {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    // Per-outpost counters, recorded on the server thread and read from anywhere
+    public static final class OutpostStats {
+        private final LatencyHistogram tickTime = new LatencyHistogram();
+        private final LongAdder playersEvaluated = new LongAdder();
+        private volatile int playersInside;
+
+        public void recordTick(long nanos, int playersInside) {
+            tickTime.record(nanos);
+            this.playersInside = playersInside;
+        }
+
+        public void recordPlayerEvaluated() {
+            playersEvaluated.increment();
+        }
+    }
+
+    private final Main plugin;
+    private final Map<String, OutpostStats> outposts = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> dbLatency = new ConcurrentHashMap<>();
+
+    public OutpostMetrics(Main plugin) {
+        this.plugin = plugin;
+    }
+
+    public OutpostStats outpost(String outpostName) {
+        return outposts.computeIfAbsent(outpostName, name -> new OutpostStats());
+    }
+
+    public void removeOutpost(String outpostName) {
+        outposts.remove(outpostName);
+    }
+
+    public void recordDb(String operation, long nanos) {
+        LatencyHistogram histogram = dbLatency.get(operation);
+        if (histogram == null) {
+            histogram = dbLatency.computeIfAbsent(operation, name -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    // Time a database call and record it under the given operation name
+    public <T> T timeDb(String operation, DatabaseExecutor.SqlTask<T> task) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            recordDb(operation, System.nanoTime() - start);
+        }
+    }
+
+    // ---- Output ----
+
+    // Human-readable summary for /outpost stats
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+
+        lines.add("Outposts (tick p50 / p99 / max, players evaluated / inside):");
+        for (Map.Entry<String, OutpostStats> entry : new TreeMap<>(outposts).entrySet()) {
+            OutpostStats stats = entry.getValue();
+            lines.add("  " + entry.getKey() + ": " + formatNanos(stats.tickTime.getValueAtQuantile(0.5))
+                    + " / " + formatNanos(stats.tickTime.getValueAtQuantile(0.99))
+                    + " / " + formatNanos(stats.tickTime.getMax())
+                    + ", " + stats.playersEvaluated.sum() + " / " + stats.playersInside);
+        }
+
+        lines.add("Database (calls, p50 / p99 / max):");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(dbLatency).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            lines.add("  " + entry.getKey() + ": " + histogram.getCount()
+                    + ", " + formatNanos(histogram.getValueAtQuantile(0.5))
+                    + " / " + formatNanos(histogram.getValueAtQuantile(0.99))
+                    + " / " + formatNanos(histogram.getMax()));
+        }
+
+        OutpostWriteQueue writeQueue = plugin.getWriteQueue();
+        if (writeQueue != null) {
+            lines.add("Write queue: depth " + writeQueue.getQueueDepth() + " (peak " + writeQueue.getPeakQueueDepth()
+                    + "), enqueued " + writeQueue.getEnqueuedCount() + ", coalesced " + writeQueue.getCoalescedCount()
+                    + ", overflows " + writeQueue.getOverflowCount());
+        }
+
+        ChestRefillManager chestRefills = plugin.getChestRefillManager();
+        if (chestRefills != null) {
+            lines.add("Chest refills: ready " + chestRefills.getReadyCount() + ", waiting for chunk load "
+                    + chestRefills.getDeferredCount() + ", applied " + chestRefills.getAppliedCount()
+                    + ", missing chests " + chestRefills.getMissingCount());
+        }
+
+        OutpostNotifier notifier = plugin.getNotifier();
+        if (notifier != null) {
+            lines.add("Notifications: messages sent " + notifier.getSentCount() + ", coalesced " + notifier.getCoalescedCount()
+                    + ", dropped " + notifier.getDroppedCount() + ", boss bar updates " + notifier.getBarUpdateCount()
+                    + ", unchanged refreshes skipped " + notifier.getBarSkipCount());
+        }
+
+        OutpostShards shards = plugin.getOutpostManager().getShards();
+        lines.add("Scheduler: " + shards.getShardCount() + " shards, deadlines pending " + shards.getPendingCount()
+                + ", deferred last tick " + shards.getLastDeferredCount()
+                + ", deferred total " + shards.getTotalDeferredCount());
+        return lines;
+    }
+
+    // Prometheus text exposition format
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# TYPE wocoutposts_outpost_tick_seconds summary\n");
+        for (Map.Entry<String, OutpostStats> entry : outposts.entrySet()) {
+            appendSummary(out, "wocoutposts_outpost_tick_seconds", "outpost", entry.getKey(), entry.getValue().tickTime);
+        }
+
+        out.append("# TYPE wocoutposts_outpost_players_evaluated_total counter\n");
+        for (Map.Entry<String, OutpostStats> entry : outposts.entrySet()) {
+            out.append("wocoutposts_outpost_players_evaluated_total{outpost=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(entry.getValue().playersEvaluated.sum()).append('\n');
+        }
+
+        out.append("# TYPE wocoutposts_outpost_players_inside gauge\n");
+        for (Map.Entry<String, OutpostStats> entry : outposts.entrySet()) {
+            out.append("wocoutposts_outpost_players_inside{outpost=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(entry.getValue().playersInside).append('\n');
+        }
+
+        out.append("# TYPE wocoutposts_db_latency_seconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> entry : dbLatency.entrySet()) {
+            appendSummary(out, "wocoutposts_db_latency_seconds", "operation", entry.getKey(), entry.getValue());
+        }
+
+        OutpostWriteQueue writeQueue = plugin.getWriteQueue();
+        if (writeQueue != null) {
+            appendValue(out, "wocoutposts_write_queue_depth", "gauge", writeQueue.getQueueDepth());
+            appendValue(out, "wocoutposts_write_queue_peak_depth", "gauge", writeQueue.getPeakQueueDepth());
+            appendValue(out, "wocoutposts_write_queue_enqueued_total", "counter", writeQueue.getEnqueuedCount());
+            appendValue(out, "wocoutposts_write_queue_coalesced_total", "counter", writeQueue.getCoalescedCount());
+            appendValue(out, "wocoutposts_write_queue_rows_written_total", "counter", writeQueue.getFlushedRowCount());
+            appendValue(out, "wocoutposts_write_queue_overflows_total", "counter", writeQueue.getOverflowCount());
+        }
+
+        ChestRefillManager chestRefills = plugin.getChestRefillManager();
+        if (chestRefills != null) {
+            appendValue(out, "wocoutposts_chest_refills_ready", "gauge", chestRefills.getReadyCount());
+            appendValue(out, "wocoutposts_chest_refills_deferred", "gauge", chestRefills.getDeferredCount());
+            appendValue(out, "wocoutposts_chest_refills_applied_total", "counter", chestRefills.getAppliedCount());
+            appendValue(out, "wocoutposts_chest_refills_missing_total", "counter", chestRefills.getMissingCount());
+        }
+
+        OutpostNotifier notifier = plugin.getNotifier();
+        if (notifier != null) {
+            appendValue(out, "wocoutposts_messages_sent_total", "counter", notifier.getSentCount());
+            appendValue(out, "wocoutposts_messages_coalesced_total", "counter", notifier.getCoalescedCount());
+            appendValue(out, "wocoutposts_messages_dropped_total", "counter", notifier.getDroppedCount());
+            appendValue(out, "wocoutposts_boss_bar_updates_total", "counter", notifier.getBarUpdateCount());
+            appendValue(out, "wocoutposts_boss_bar_skipped_total", "counter", notifier.getBarSkipCount());
+        }
+
+        OutpostShards shards = plugin.getOutpostManager().getShards();
+        appendValue(out, "wocoutposts_scheduler_shards", "gauge", shards.getShardCount());
+        appendValue(out, "wocoutposts_scheduler_pending_deadlines", "gauge", shards.getPendingCount());
+        appendValue(out, "wocoutposts_scheduler_deferred_outposts", "gauge", shards.getLastDeferredCount());
+        appendValue(out, "wocoutposts_scheduler_deferred_outposts_total", "counter", shards.getTotalDeferredCount());
+        return out.toString();
+    }
+
+    // Write the Prometheus text to a file atomically (for a textfile collector to scrape)
+    public void writePrometheusFile(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        Files.write(tempFile.toPath(), toPrometheusText().getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void appendSummary(StringBuilder out, String name, String label, String labelValue, LatencyHistogram histogram) {
+        String escaped = escape(labelValue);
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 1.0}) {
+            out.append(name).append('{').append(label).append("=\"").append(escaped).append("\",quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getValueAtQuantile(quantile) / NANOS_PER_SECOND).append('\n');
+        }
+        out.append(name).append("_sum{").append(label).append("=\"").append(escaped).append("\"} ")
+                .append(histogram.getSum() / NANOS_PER_SECOND).append('\n');
+        out.append(name).append("_count{").append(label).append("=\"").append(escaped).append("\"} ")
+                .append(histogram.getCount()).append('\n');
+    }
+
+    private void appendValue(StringBuilder out, String name, String type, long value) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000L) {
+            return String.format("%.2fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.1fus", nanos / 1_000.0);
+    }
+}
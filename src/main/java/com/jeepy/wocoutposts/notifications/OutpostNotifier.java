@@ -0,0 +1,183 @@
+package com.jeepy.wocoutposts.notifications;
+
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Player-facing outpost notifications. Chat messages go through a per-player mailbox: a message identical to one the
+// player got within the repeat window is dropped, and a player gets at most one message per message interval, the
+// rest waiting their turn (oldest dropped beyond MAX_PENDING). Charge progress is shown on one shared boss bar per
+// outpost (OutpostProgressBar) instead of a message per player. Messages may be sent from any region thread.
+public class OutpostNotifier {
+
+    private static final int MAX_PENDING = 4;
+    private static final long SWEEP_INTERVAL_TICKS = 20L * 60;
+
+    // Delivery state for one player (guarded by itself)
+    private static final class Mailbox {
+        private final Player player;
+        private final ArrayDeque<String> pending = new ArrayDeque<>(MAX_PENDING);
+        private String lastMessage;
+        private long lastSentAt = Long.MIN_VALUE / 2;
+        private boolean queued = false;  // In readyMailboxes
+
+        private Mailbox(Player player) {
+            this.player = player;
+        }
+    }
+
+    private final RegionScheduler regions;
+    private final Server server;
+    private final long messageIntervalMillis;
+    private final long repeatWindowMillis;
+    private final boolean bossBars;
+
+    private final Map<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    // Mailboxes with pending messages, drained by the flush task
+    private final ConcurrentLinkedQueue<Mailbox> readyMailboxes = new ConcurrentLinkedQueue<>();
+    private RegionScheduler.Task flushTask;
+    private long ticks = 0;
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    final LongAdder barUpdateCount = new LongAdder();
+    final LongAdder barSkipCount = new LongAdder();
+
+    public OutpostNotifier(RegionScheduler regions, Server server, long messageIntervalMillis, long repeatWindowMillis,
+                           boolean bossBars) {
+        this.regions = regions;
+        this.server = server;
+        this.messageIntervalMillis = messageIntervalMillis;
+        this.repeatWindowMillis = repeatWindowMillis;
+        this.bossBars = bossBars;
+    }
+
+    public void start() {
+        flushTask = regions.runGlobalAtFixedRate(this::flush, 1L, 1L);
+    }
+
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        readyMailboxes.clear();
+        mailboxes.clear();
+    }
+
+    // Progress bar for an outpost (one that never shows anything if boss bars are disabled)
+    public OutpostProgressBar createProgressBar(String outpostName) {
+        return new OutpostProgressBar(this, regions, bossBars ? server : null, outpostName);
+    }
+
+    // Send a chat message, subject to the repeat window and the per-player message interval
+    public void send(Player player, String message) {
+        long now = System.currentTimeMillis();
+        // A player who logged back in is a new Player object
+        Mailbox mailbox = mailboxes.compute(player.getUniqueId(),
+                (uuid, current) -> current != null && current.player == player ? current : new Mailbox(player));
+        synchronized (mailbox) {
+            if ((message.equals(mailbox.lastMessage) && now - mailbox.lastSentAt < repeatWindowMillis)
+                    || mailbox.pending.contains(message)) {
+                coalescedCount.increment();
+                return;
+            }
+            if (mailbox.pending.isEmpty() && now - mailbox.lastSentAt >= messageIntervalMillis) {
+                deliver(mailbox, message, now);
+                return;
+            }
+            if (mailbox.pending.size() >= MAX_PENDING) {
+                mailbox.pending.pollFirst();
+                droppedCount.increment();
+            }
+            mailbox.pending.addLast(message);
+            if (!mailbox.queued) {
+                mailbox.queued = true;
+                readyMailboxes.add(mailbox);
+            }
+        }
+    }
+
+    // Called with the mailbox lock held
+    private void deliver(Mailbox mailbox, String message, long now) {
+        mailbox.lastMessage = message;
+        mailbox.lastSentAt = now;
+        sentCount.increment();
+        Player player = mailbox.player;
+        regions.executeForPlayer(player, () -> player.sendMessage(message));
+    }
+
+    // Called every tick: send the next message of each mailbox whose interval has passed, and now and then forget
+    // players who have gone quiet
+    private void flush() {
+        long now = System.currentTimeMillis();
+        List<Mailbox> notDue = null;
+        Mailbox mailbox;
+        while ((mailbox = readyMailboxes.poll()) != null) {
+            synchronized (mailbox) {
+                if (now - mailbox.lastSentAt >= messageIntervalMillis) {
+                    String message = mailbox.pending.pollFirst();
+                    if (message != null) {
+                        deliver(mailbox, message, now);
+                    }
+                }
+                if (mailbox.pending.isEmpty()) {
+                    mailbox.queued = false;
+                    continue;
+                }
+            }
+            if (notDue == null) {
+                notDue = new ArrayList<>();
+            }
+            notDue.add(mailbox);
+        }
+        if (notDue != null) {
+            readyMailboxes.addAll(notDue);
+        }
+
+        if (++ticks % SWEEP_INTERVAL_TICKS == 0) {
+            long idleMillis = Math.max(messageIntervalMillis, repeatWindowMillis);
+            mailboxes.values().removeIf(idle -> {
+                synchronized (idle) {
+                    return !idle.queued && now - idle.lastSentAt >= idleMillis;
+                }
+            });
+        }
+    }
+
+    // ---- Metrics ----
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    // Messages dropped as repeats of one just sent or already waiting
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    // Messages dropped because too many were waiting for the same player
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    // Boss bar changes sent to viewers
+    public long getBarUpdateCount() {
+        return barUpdateCount.sum();
+    }
+
+    // Boss bar refreshes skipped because the displayed percentage and state had not changed
+    public long getBarSkipCount() {
+        return barSkipCount.sum();
+    }
+}
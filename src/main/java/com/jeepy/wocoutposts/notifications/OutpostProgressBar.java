@@ -0,0 +1,113 @@
+package com.jeepy.wocoutposts.notifications;
+
+import com.jeepy.wocoutposts.objectives.CaptureState;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+import org.bukkit.Server;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.boss.BossBar;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+// One boss bar per outpost, shared by every player inside its radius. A refresh only reaches the viewers (and only
+// builds a new title) when the displayed whole percentage or the capture state has changed, so the packet and string
+// cost of a refresh does not grow with the charge rate or the number of players. Used from the outpost's thread only;
+// adding or removing a viewer is handed to that player's own thread.
+public class OutpostProgressBar {
+
+    private final OutpostNotifier notifier;
+    private final RegionScheduler regions;
+    private final BossBar bar;  // Null if boss bars are disabled
+    private final String outpostName;
+    private CaptureState shownState;
+    private int shownPercent = -1;
+
+    OutpostProgressBar(OutpostNotifier notifier, RegionScheduler regions, Server server, String outpostName) {
+        this.notifier = notifier;
+        this.regions = regions;
+        this.outpostName = outpostName;
+        this.bar = server != null ? server.createBossBar(outpostName, BarColor.WHITE, BarStyle.SEGMENTED_10) : null;
+    }
+
+    public void show(Player player) {
+        if (bar != null) {
+            regions.executeForPlayer(player, () -> bar.addPlayer(player));
+        }
+    }
+
+    public void hide(Player player) {
+        if (bar != null) {
+            regions.executeForPlayer(player, () -> bar.removePlayer(player));
+        }
+    }
+
+    // Hide the bar from a player who may have logged out already
+    public void hide(UUID playerUUID) {
+        if (bar == null) {
+            return;
+        }
+        for (Player viewer : bar.getPlayers()) {
+            if (viewer.getUniqueId().equals(playerUUID)) {
+                bar.removePlayer(viewer);
+                return;
+            }
+        }
+    }
+
+    public void hideAll() {
+        if (bar != null) {
+            bar.removeAll();
+        }
+    }
+
+    public void update(CaptureState state, double charge) {
+        if (bar == null) {
+            return;
+        }
+        int percent = (int) Math.max(0.0, Math.min(100.0, charge));
+        if (percent == shownPercent && state == shownState) {
+            notifier.barSkipCount.increment();
+            return;
+        }
+
+        if (state != shownState) {
+            bar.setColor(colorOf(state));
+            shownState = state;
+        }
+        shownPercent = percent;
+        bar.setProgress(percent / 100.0);
+        bar.setTitle(outpostName + " - " + labelOf(state) + " " + percent + "%");
+        notifier.barUpdateCount.increment();
+    }
+
+    private static BarColor colorOf(CaptureState state) {
+        switch (state) {
+            case CHARGING:
+                return BarColor.GREEN;
+            case CONTESTED:
+                return BarColor.RED;
+            case OVERTIME:
+                return BarColor.YELLOW;
+            case CAPTURED:
+                return BarColor.BLUE;
+            default:
+                return BarColor.WHITE;
+        }
+    }
+
+    private static String labelOf(CaptureState state) {
+        switch (state) {
+            case CHARGING:
+                return "Charging";
+            case CONTESTED:
+                return "Contested";
+            case OVERTIME:
+                return "Overtime";
+            case CAPTURED:
+                return "Captured";
+            default:
+                return "Idle";
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.jeepy.wocoutposts.objectives;
+
+import com.jeepy.wocoutposts.logging.CaptureEvent;
+
+import java.util.UUID;
+
+// Side effects of a CaptureModel. On the server ClassifiedOutpost sends them to the capture journal, event log and
+// state store; the simulation tallies them.
+public interface CaptureListener {
+
+    // A journaled transition (see CaptureEvent for what the team and value hold)
+    void record(CaptureEvent event, int teamId, double value);
+
+    // A transition worth a line in the event log
+    void info(String event, String message);
+
+    // Progress detail, only wanted while debugging
+    void debug(String event, String key, double value);
+
+    void debug(String event, String key1, double value1, String key2, double value2);
+
+    // Capture progress changed: saved right away for transitions, otherwise on the next periodic save
+    void changed(boolean saveNow);
+
+    // A charge deadline passed while a solo player was charging the outpost
+    void soloCharge(UUID playerUUID, double charge);
+
+    // Time spent re-evaluating the state or handling a deadline
+    void evaluated(long nanos);
+}
@@ -0,0 +1,604 @@
+package com.jeepy.wocoutposts.objectives;
+
+import com.jeepy.wocoutposts.database.OutpostState;
+import com.jeepy.wocoutposts.logging.CaptureEvent;
+import com.jeepy.wocoutposts.util.IntDoubleHashMap;
+import com.jeepy.wocoutposts.util.IntHashSet;
+import com.jeepy.wocoutposts.util.IntIntHashMap;
+import com.jeepy.wocoutposts.util.TimerWheel;
+import com.jeepy.wocoutposts.util.UuidHashSet;
+import com.jeepy.wocoutposts.util.UuidIntHashMap;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Capture rules of one outpost as an explicit state machine (see CaptureState), free of Bukkit types so the same code
+// runs on the server (wrapped by ClassifiedOutpost) and in the headless simulation. Radius entry/exit, kills and
+// start/stop re-evaluate the state; everything time-based (the next charge threshold, contest decay, overtime expiry)
+// is a single deadline on the timer wheel. While charging, the charge is a linear function of the clock, so nothing
+// runs between deadlines. Not thread-safe: driven from the thread that advances the timer wheel.
+public class CaptureModel {
+
+    // Team id of players inside the radius without a team
+    public static final int NO_TEAM = CaptureEvent.NO_TEAM;
+    // Interval between charge reductions while several teams contest the outpost
+    private static final long CONTEST_DECAY_MILLIS = 60_000L;
+    private static final int OVERTIME_RESET_LIMIT = 4; // Number of resets before reducing overtime
+
+    private final Clock clock;
+    private final TimerWheel timers;
+    private final TeamLookup teams;
+    private final CaptureListener listener;
+
+    // Track players and teams currently inside the radius (primitive collections, so the entry and kill paths never box)
+    private final UuidHashSet playersInRadius = new UuidHashSet();
+    private final IntHashSet teamsInRadius = new IntHashSet();
+    // Every player inside the radius mapped to their team id (NO_TEAM for solo players)
+    private final UuidIntHashMap occupants = new UuidIntHashMap(32);
+    private final IntIntHashMap teamOccupantCount = new IntIntHashMap();
+    private final UuidIntHashMap playerKillCount = new UuidIntHashMap();
+    private final IntDoubleHashMap teamKillCount = new IntDoubleHashMap();
+
+    private final double chargePerSecond; // How much charge to add per second
+    private final double chargeReductionRate;
+    private final int[] chargeThresholds; // Charge thresholds from the config
+    private final double soloPlayerBoost;
+    private final double teamBoost;
+    private int overtimeDuration;
+
+    private CaptureState state = CaptureState.IDLE;
+    private double currentCharge = 0.0; // Outpost charge (0 to 100%) as of chargeUpdatedAt
+    private long chargeUpdatedAt; // While CHARGING, the charge grows from currentCharge at chargeRate from this time
+    private double chargeRate; // Charge per second while CHARGING, kill boost included
+    private int controllingTeamId = NO_TEAM; // The team currently controlling the outpost
+    private long overtimeStartTime = -1; // Start time for overtime
+    private long overtimeRemaining = 0; // Overtime remaining time in milliseconds
+    private boolean overtimeExpired = false; // Overtime ran out while several teams were inside; decided on the next entry or exit
+    private int overtimeResetCount = 0; // How many times overtime has been reset
+    private boolean chargingEnabled = false;
+
+    // The deadline of the current state (at most one at a time), rescheduled rather than replaced once created
+    private TimerWheel.Timeout deadline;
+    private final Runnable deadlineTask = this::onDeadline;
+
+    public CaptureModel(CaptureSettings settings, Clock clock, TimerWheel timers, TeamLookup teams, CaptureListener listener) {
+        this.clock = clock;
+        this.timers = timers;
+        this.teams = teams;
+        this.listener = listener;
+        this.chargePerSecond = settings.getChargePerSecond();
+        this.chargeReductionRate = settings.getChargeReductionRate();
+        this.chargeThresholds = settings.getChargeThresholds();
+        this.soloPlayerBoost = settings.getSoloPlayerBoost();
+        this.teamBoost = settings.getTeamBoost();
+        this.overtimeDuration = settings.getOvertimeDuration();
+        this.chargeUpdatedAt = clock.millis();
+    }
+
+    // ---- Start / stop ----
+
+    // Fresh capture: no charge, no controlling team and no overtime
+    public void reset() {
+        currentCharge = 0.0;
+        chargeUpdatedAt = clock.millis();
+        controllingTeamId = NO_TEAM;
+        clearOvertime();
+        setState(CaptureState.IDLE);
+    }
+
+    public void setChargingEnabled(boolean enabled) {
+        if (enabled) {
+            listener.record(CaptureEvent.CHARGING_STARTED, NO_TEAM, currentCharge);
+        } else if (chargingEnabled) {
+            listener.record(CaptureEvent.CHARGING_STOPPED, NO_TEAM, currentCharge);
+        }
+        this.chargingEnabled = enabled; // Set the charging status
+    }
+
+    // Pick up whoever is already inside once charging is enabled
+    public void start() {
+        evaluate();
+    }
+
+    // Stop charging and forget who is inside
+    public void stop() {
+        settleCharge(clock.millis());
+        if (chargingEnabled) {
+            listener.record(CaptureEvent.CHARGING_STOPPED, NO_TEAM, currentCharge);
+        }
+        chargingEnabled = false;  // Set charging to disabled
+        clearOvertime();
+        setState(CaptureState.IDLE);  // Cancels the pending deadline
+        listener.changed(true);
+
+        // Clear out any other state, like players or teams in the radius
+        playersInRadius.clear();
+        teamsInRadius.clear();
+        occupants.clear();
+        teamOccupantCount.clear();
+    }
+
+    // Drop the pending deadline (also used when the outpost is deleted)
+    public void cancelDeadline() {
+        if (deadline != null) {
+            deadline.cancel();
+        }
+    }
+
+    // ---- Radius membership and kills ----
+
+    // Add a player to the radius; returns true if their team (or they, as a solo player) just entered
+    public boolean enter(UUID playerUUID, int teamId) {
+        if (occupants.containsKey(playerUUID)) {
+            return false;
+        }
+
+        occupants.put(playerUUID, teamId);
+        if (teamId == NO_TEAM) {
+            playersInRadius.add(playerUUID);  // Track the player in radius
+        } else if (teamOccupantCount.addTo(teamId, 1) > 1) {
+            return false;  // The team was already inside
+        } else {
+            teamsInRadius.add(teamId);  // Track the team in radius
+        }
+        evaluate();
+        return true;
+    }
+
+    // Remove a player from the radius; returns true if their team (or they, as a solo player) has now left.
+    // A team only leaves once its last member inside has gone.
+    public boolean leave(UUID playerUUID) {
+        if (!occupants.containsKey(playerUUID)) {
+            return false;
+        }
+
+        int teamId = occupants.removeOrDefault(playerUUID, NO_TEAM);
+        if (teamId == NO_TEAM) {
+            playersInRadius.remove(playerUUID);
+        } else if (teamOccupantCount.addTo(teamId, -1) > 0) {
+            return false;
+        } else {
+            teamOccupantCount.remove(teamId);
+            teamsInRadius.remove(teamId);
+        }
+        evaluate();
+        return true;
+    }
+
+    // Assign the boost for a kill in the combat zone and return it (team kills count in full while the killer's team
+    // is no bigger than the smallest team inside, and half otherwise; solo kills always count in full)
+    public double creditKill(UUID killerUUID, int teamId) {
+        double boost;
+        if (teamId != NO_TEAM) {
+            int teamSize = teams.getMemberCount(teamId);
+            boost = teamSize >= 0 && teamSize <= getSmallestTeamSize() ? 1.0 : 0.5;
+            teamKillCount.addTo(teamId, boost);
+        } else {
+            // Solo player boost
+            boost = 1.0;
+            playerKillCount.addTo(killerUUID, 1);
+        }
+        listener.record(CaptureEvent.KILL_BOOST, teamId, boost);
+        listener.changed(false);
+        evaluate();  // The boost raises the charge rate of a charging outpost
+        return boost;
+    }
+
+    // Smallest known team size in the radius (teams with no known size yet are skipped)
+    private int getSmallestTeamSize() {
+        int smallestSize = Integer.MAX_VALUE;
+
+        for (int slot = teamsInRadius.nextSlot(0); slot >= 0; slot = teamsInRadius.nextSlot(slot + 1)) {
+            int teamSize = teams.getMemberCount(teamsInRadius.keyAt(slot));
+            if (teamSize >= 0 && teamSize < smallestSize) {
+                smallestSize = teamSize;
+            }
+        }
+        return smallestSize == Integer.MAX_VALUE ? 0 : smallestSize;
+    }
+
+    // ---- Queries ----
+
+    public boolean isChargingEnabled() {
+        return chargingEnabled;
+    }
+
+    public CaptureState getState() {
+        return state;
+    }
+
+    // Charge right now, including progress since the last state change
+    public double getCurrentCharge() {
+        return chargeAt(clock.millis());
+    }
+
+    // NO_TEAM while no team controls the outpost
+    public int getControllingTeamId() {
+        return controllingTeamId;
+    }
+
+    public boolean isOccupant(UUID playerUUID) {
+        return occupants.containsKey(playerUUID);
+    }
+
+    // Team id of a player inside the radius (NO_TEAM for solo players and players outside)
+    public int getOccupantTeam(UUID playerUUID) {
+        return occupants.getOrDefault(playerUUID, NO_TEAM);
+    }
+
+    // Number of players (solo or in a team) currently inside the radius
+    public int getOccupantCount() {
+        return occupants.size();
+    }
+
+    // ---- State machine ----
+
+    // Re-derive the state after a team or solo player entered or left, a kill, or a start. The charge is settled
+    // first, so a new rate only applies from now on.
+    private void evaluate() {
+        if (!chargingEnabled || state == CaptureState.CAPTURED) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        long now = clock.millis();
+        if (state == CaptureState.OVERTIME) {
+            // Overtime only reacts to who is inside once its timer has run out
+            if (overtimeExpired) {
+                resolveOvertime(now);
+            }
+        } else {
+            settleCharge(now);
+            updateCaptureState(now);
+        }
+        listener.evaluated(System.nanoTime() - startTime);
+    }
+
+    private void updateCaptureState(long now) {
+        // Only one team or player in the radius
+        if (teamsInRadius.size() == 1) {
+            int teamId = teamsInRadius.first();
+
+            if (controllingTeamId == NO_TEAM) {
+                // First team to capture the outpost
+                controllingTeamId = teamId;
+                listener.info("capture_start", "Team " + teamId + " has started capturing the outpost.");
+                listener.record(CaptureEvent.CAPTURE_START, teamId, currentCharge);
+                listener.changed(true);
+            }
+
+            if (controllingTeamId == teamId) {
+                // The controlling team is charging, with a team boost based on kills
+                charge(now, chargePerSecond + teamKillCount.getOrDefault(teamId, 0.0) * teamBoost);
+            } else {
+                // New team is contesting, stop the previous team's progress
+                contest(now, teamId, false);
+            }
+
+            // Solo player case: No teams but at least one player in radius
+        } else if (teamsInRadius.isEmpty() && playersInRadius.size() == 1 && controllingTeamId == NO_TEAM) {
+            int slot = playersInRadius.nextSlot(0);
+            double boost = playerKillCount.getOrDefault(playersInRadius.mostSigBitsAt(slot),
+                    playersInRadius.leastSigBitsAt(slot), 0) * soloPlayerBoost;
+            charge(now, chargePerSecond + boost);
+        } else if (teamsInRadius.size() > 1) {
+            // Multiple teams are contesting the outpost
+            contest(now, NO_TEAM, true);
+        } else {
+            // Nobody who can charge the outpost is inside
+            setState(CaptureState.IDLE);
+        }
+    }
+
+    // Charge at the given rate (per second) from the settled charge, until the next threshold deadline
+    private void charge(long now, double rate) {
+        if (state == CaptureState.CHARGING && rate == chargeRate) {
+            return;  // Same line, so the pending deadline still holds
+        }
+        setState(CaptureState.CHARGING);
+        chargeRate = rate;
+        scheduleChargeDeadline(now);
+    }
+
+    // Deadline at the next charge threshold (or full charge), so each crossing is journaled and saved when it happens
+    private void scheduleChargeDeadline(long now) {
+        double target = 100.0;
+        for (int threshold : chargeThresholds) {
+            if (threshold > currentCharge && threshold < target) {
+                target = threshold;
+            }
+        }
+        long delay = (long) Math.ceil((target - currentCharge) / chargeRate * 1000.0);
+        schedule(now + Math.max(delay, 1L));
+    }
+
+    private void onChargeDeadline(long now) {
+        settleCharge(now);
+        listener.debug("charge", "charge", currentCharge, "rate", chargeRate);
+
+        // Send charge update to a solo player charging the outpost
+        if (controllingTeamId == NO_TEAM && playersInRadius.size() == 1) {
+            listener.soloCharge(playersInRadius.uuidAt(playersInRadius.nextSlot(0)), currentCharge);
+        }
+
+        // If the outpost reaches 100% charge, enter overtime
+        if (currentCharge >= 100) {
+            enterOvertime(now);
+        } else {
+            scheduleChargeDeadline(now);
+        }
+    }
+
+    // Fold the progress made since the last update into currentCharge, journaling any thresholds passed
+    private void settleCharge(long now) {
+        if (state == CaptureState.CHARGING) {
+            double previousCharge = currentCharge;
+            currentCharge = chargeAt(now);
+            recordThresholdsCrossed(previousCharge, controllingTeamId);
+            listener.changed(false);
+        }
+        chargeUpdatedAt = now;
+    }
+
+    private double chargeAt(long now) {
+        if (state != CaptureState.CHARGING) {
+            return currentCharge;
+        }
+        return Math.min(currentCharge + chargeRate * (now - chargeUpdatedAt) / 1000.0, 100.0);  // Cap at 100%
+    }
+
+    // A rival team blocks the controlling team; the charge only decays while several teams are inside
+    private void contest(long now, int teamId, boolean decaying) {
+        if (state != CaptureState.CONTESTED) {
+            setState(CaptureState.CONTESTED);
+            listener.debug("contested", "team", teamId);
+            listener.record(CaptureEvent.CONTESTED, teamId, currentCharge);
+        }
+
+        if (!decaying) {
+            cancelDeadline();
+        } else if (deadline == null || !deadline.isPending()) {
+            schedule(now + CONTEST_DECAY_MILLIS);
+        }
+    }
+
+    // Reduce charge by the reduction rate every minute of contesting
+    private void decayCharge(long now) {
+        currentCharge = Math.max(currentCharge - chargeReductionRate, 0);
+        applyChargeBalancing();  // Ensure charge doesn't drop below thresholds
+        listener.info("contest_decay", "Outpost charge reduced to " + currentCharge + "% due to contesting.");
+        listener.record(CaptureEvent.CONTEST_DECAY, NO_TEAM, currentCharge);
+        listener.changed(true);
+        schedule(now + CONTEST_DECAY_MILLIS);
+    }
+
+    private void applyChargeBalancing() {
+        // Ensure the charge does not drop below the nearest threshold
+        for (int threshold : chargeThresholds) {
+            if (currentCharge >= threshold) {
+                // This is the highest threshold we have passed, set as the minimum
+                currentCharge = Math.max(currentCharge, threshold);
+                break;
+            }
+        }
+    }
+
+    // Journal each charge threshold passed by the last increment
+    private void recordThresholdsCrossed(double previousCharge, int teamId) {
+        for (int threshold : chargeThresholds) {
+            if (previousCharge < threshold && currentCharge >= threshold) {
+                listener.record(CaptureEvent.THRESHOLD_CROSSED, teamId, threshold);
+            }
+        }
+    }
+
+    // Timer wheel callback for the deadline of the current state
+    private void onDeadline() {
+        long startTime = System.nanoTime();
+        long now = clock.millis();
+        switch (state) {
+            case CHARGING:
+                onChargeDeadline(now);
+                break;
+            case CONTESTED:
+                decayCharge(now);
+                break;
+            case OVERTIME:
+                overtimeExpired = true;
+                resolveOvertime(now);
+                break;
+            default:
+                break;
+        }
+        listener.evaluated(System.nanoTime() - startTime);
+    }
+
+    // Leaving a state drops its deadline
+    private void setState(CaptureState newState) {
+        if (state != newState) {
+            cancelDeadline();
+            state = newState;
+        }
+    }
+
+    private void schedule(long deadlineMillis) {
+        if (deadline == null) {
+            deadline = timers.schedule(deadlineMillis, deadlineTask);
+        } else {
+            timers.reschedule(deadline, deadlineMillis);
+        }
+    }
+
+    // ---- Overtime ----
+
+    private void enterOvertime(long now) {
+        setState(CaptureState.OVERTIME);
+        overtimeStartTime = now;
+        overtimeRemaining = overtimeDuration * 1000L; // Start with full overtime duration
+        overtimeExpired = false;
+        listener.info("overtime_start", "Overtime has started for the outpost.");
+        listener.record(CaptureEvent.OVERTIME_START, controllingTeamId, currentCharge);
+        listener.changed(true);
+        schedule(overtimeStartTime + overtimeRemaining);
+    }
+
+    // Overtime duration has elapsed, check if a team has won
+    private void resolveOvertime(long now) {
+        if (teamsInRadius.size() == 1) {
+            int teamId = teamsInRadius.first();
+
+            // Check if it's the controlling team
+            if (controllingTeamId == teamId) {
+                listener.info("overtime_capture", "Team " + controllingTeamId + " has successfully captured the outpost during overtime!");
+                endOvertime(teamId);  // End the overtime and declare the winner
+            } else {
+                // A new team has contested the outpost
+                listener.info("overtime_contest", "Team " + teamId + " has contested the outpost.");
+                resetOvertime(now, teamId);  // Reset the overtime timer for the new team
+            }
+        } else if (teamsInRadius.isEmpty()) {
+            // No teams are contesting the point, end overtime with the controlling team winning
+            listener.info("overtime_uncontested", "No teams contested the outpost. Team " + controllingTeamId + " has won!");
+            endOvertime(controllingTeamId);
+        }
+        // Several teams inside: evaluate() decides as soon as one of them enters or leaves
+    }
+
+    // Helper method to reset overtime with a new team or reset the timer with decreasing time
+    private void resetOvertime(long now, int newControllingTeamId) {
+        controllingTeamId = newControllingTeamId; // Change controlling team
+
+        if (overtimeResetCount < OVERTIME_RESET_LIMIT) {
+            overtimeRemaining = overtimeDuration * 1000L;  // Reset to full duration (e.g., 5 seconds)
+            overtimeResetCount++;
+            listener.info("overtime_reset", "Overtime reset to " + overtimeRemaining / 1000.0 + " seconds. Reset count: " + overtimeResetCount);
+            listener.record(CaptureEvent.OVERTIME_RESET, controllingTeamId, overtimeRemaining / 1000.0);
+        } else {
+            // After 4 resets, start reducing the overtime timer
+            overtimeDuration = Math.max(overtimeDuration - 1, 1);  // Decrease overtime by 1 second but not below 1 second
+            overtimeRemaining = overtimeDuration * 1000L;  // Update overtime timer
+            listener.info("overtime_reduced", "Overtime duration reduced to " + overtimeDuration + " seconds.");
+            listener.record(CaptureEvent.OVERTIME_REDUCED, controllingTeamId, overtimeDuration);
+        }
+        overtimeStartTime = now;  // Reset the timer start point
+        overtimeExpired = false;
+        schedule(overtimeStartTime + overtimeRemaining);
+        listener.changed(true);
+    }
+
+    // Helper method to end overtime and declare a winner
+    private void endOvertime(int winningTeamId) {
+        clearOvertime();
+        setState(CaptureState.CAPTURED);
+        listener.record(CaptureEvent.OVERTIME_END, winningTeamId, currentCharge);
+
+        if (winningTeamId != NO_TEAM) {
+            listener.info("overtime_end", "Team " + winningTeamId + " has officially won the outpost!");
+            // Implement logic to reward the winning team (points, resources, etc.)
+        } else {
+            listener.info("overtime_end", "Overtime ended with no winner.");
+        }
+        listener.changed(true);
+    }
+
+    private void clearOvertime() {
+        overtimeStartTime = -1;
+        overtimeRemaining = 0;
+        overtimeExpired = false;
+        overtimeResetCount = 0;  // Reset overtime reset counter
+    }
+
+    // ---- Persistence (see OutpostStateStore) ----
+
+    // Snapshot of the outpost definition and capture progress
+    public OutpostState captureState(String outpostName, String worldName, double x, double y, double z) {
+        long now = clock.millis();
+        boolean inOvertime = state == CaptureState.OVERTIME;
+        long overtimeElapsed = inOvertime ? now - overtimeStartTime : 0L;
+        Integer storedTeamId = controllingTeamId != NO_TEAM ? controllingTeamId : null;  // Stored as NULL without a team
+        return new OutpostState(outpostName, worldName, x, y, z, false,
+                chargingEnabled, chargeAt(now), storedTeamId, inOvertime, overtimeElapsed, overtimeRemaining,
+                overtimeDuration, overtimeResetCount, encodeTeamKills(), encodePlayerKills());
+    }
+
+    // Resume from a stored snapshot; time the server was down does not count towards charging or overtime.
+    // Returns the entries of the stored kill counters that could not be parsed.
+    public List<String> restoreState(OutpostState state) {
+        long now = clock.millis();
+        chargingEnabled = state.isChargingEnabled();
+        currentCharge = state.getCurrentCharge();
+        chargeUpdatedAt = now;
+        controllingTeamId = state.getControllingTeamId() != null ? state.getControllingTeamId() : NO_TEAM;
+        boolean inOvertime = state.isInOvertime();
+        overtimeStartTime = inOvertime ? now - state.getOvertimeElapsedMillis() : -1;
+        overtimeRemaining = state.getOvertimeRemainingMillis();
+        overtimeExpired = false;
+        if (state.getOvertimeDuration() > 0) {
+            overtimeDuration = state.getOvertimeDuration();
+        }
+        overtimeResetCount = state.getOvertimeResetCount();
+
+        List<String> invalidEntries = new ArrayList<>();
+        teamKillCount.clear();
+        for (String entry : splitEntries(state.getTeamKills())) {
+            int separator = entry.indexOf('=');
+            try {
+                teamKillCount.put(Integer.parseInt(entry.substring(0, separator)), Double.parseDouble(entry.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                invalidEntries.add(entry);
+            }
+        }
+
+        playerKillCount.clear();
+        for (String entry : splitEntries(state.getPlayerKills())) {
+            int separator = entry.indexOf('=');
+            try {
+                playerKillCount.put(UUID.fromString(entry.substring(0, separator)), Integer.parseInt(entry.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                invalidEntries.add(entry);
+            }
+        }
+
+        // Resume the state machine; players already inside are picked up by OutpostManager.resumeOutpost
+        if (chargingEnabled && inOvertime) {
+            setState(CaptureState.OVERTIME);
+            schedule(overtimeStartTime + overtimeRemaining);
+        } else if (chargingEnabled && currentCharge >= 100) {
+            setState(CaptureState.CAPTURED);
+        } else {
+            setState(CaptureState.IDLE);
+        }
+        return invalidEntries;
+    }
+
+    // teamId=kills,...
+    private String encodeTeamKills() {
+        StringBuilder out = new StringBuilder();
+        for (int slot = teamKillCount.nextSlot(0); slot >= 0; slot = teamKillCount.nextSlot(slot + 1)) {
+            if (out.length() > 0) {
+                out.append(',');
+            }
+            out.append(teamKillCount.keyAt(slot)).append('=').append(teamKillCount.valueAt(slot));
+        }
+        return out.toString();
+    }
+
+    // playerUUID=kills,...
+    private String encodePlayerKills() {
+        StringBuilder out = new StringBuilder();
+        for (int slot = playerKillCount.nextSlot(0); slot >= 0; slot = playerKillCount.nextSlot(slot + 1)) {
+            if (out.length() > 0) {
+                out.append(',');
+            }
+            out.append(new UUID(playerKillCount.mostSigBitsAt(slot), playerKillCount.leastSigBitsAt(slot)))
+                    .append('=').append(playerKillCount.valueAt(slot));
+        }
+        return out.toString();
+    }
+
+    private static String[] splitEntries(String encoded) {
+        return encoded == null || encoded.isEmpty() ? new String[0] : encoded.split(",");
+    }
+}
@@ -0,0 +1,53 @@
+package com.jeepy.wocoutposts.objectives;
+
+// Capture rules from the classified_outpost section of config.yml. Plain values, so the simulation can build them
+// from command line flags without a server.
+public final class CaptureSettings {
+
+    private final int chargeTimeSeconds;
+    private final double chargeReductionRate;
+    private final int overtimeDuration;
+    private final int[] chargeThresholds;
+    private final double teamBoost;
+    private final double soloPlayerBoost;
+
+    public CaptureSettings(int chargeTimeSeconds, double chargeReductionRate, int overtimeDuration,
+                           int[] chargeThresholds, double teamBoost, double soloPlayerBoost) {
+        this.chargeTimeSeconds = Math.max(chargeTimeSeconds, 1);
+        this.chargeReductionRate = chargeReductionRate;
+        this.overtimeDuration = overtimeDuration;
+        this.chargeThresholds = chargeThresholds.clone();
+        this.teamBoost = teamBoost;
+        this.soloPlayerBoost = soloPlayerBoost;
+    }
+
+    public int getChargeTimeSeconds() {
+        return chargeTimeSeconds;
+    }
+
+    // How much charge to add per second, before kill boosts
+    public double getChargePerSecond() {
+        return 100.0 / chargeTimeSeconds;
+    }
+
+    public double getChargeReductionRate() {
+        return chargeReductionRate;
+    }
+
+    // Overtime duration in seconds
+    public int getOvertimeDuration() {
+        return overtimeDuration;
+    }
+
+    public int[] getChargeThresholds() {
+        return chargeThresholds.clone();
+    }
+
+    public double getTeamBoost() {
+        return teamBoost;
+    }
+
+    public double getSoloPlayerBoost() {
+        return soloPlayerBoost;
+    }
+}
@@ -0,0 +1,11 @@
+package com.jeepy.wocoutposts.objectives;
+
+// Capture phase of a ClassifiedOutpost. Transitions happen only on radius entry/exit, kills, start/stop and
+// timer deadlines, never by polling.
+public enum CaptureState {
+    IDLE,       // Not running, or nobody who can charge it is inside
+    CHARGING,   // One team (or one solo player) is charging; the charge grows linearly until the next deadline
+    CONTESTED,  // A rival team is inside; the charge decays every minute while several teams are inside
+    OVERTIME,   // Fully charged; the controlling team must hold the point until the overtime timer runs out
+    CAPTURED    // Overtime decided; nothing changes until the outpost is started again
+}
@@ -1,305 +1,315 @@
 package com.jeepy.wocoutposts.objectives;
 
 import com.jeepy.wocoutposts.Main;
-import com.jeepy.wocoutposts.database.OutpostDatabaseManager;
-import com.jeepy.database.WocTeamsDatabaseManager;
+import com.jeepy.wocoutposts.database.OutpostState;
+import com.jeepy.wocoutposts.database.OutpostStateStore;
+import com.jeepy.wocoutposts.database.OutpostWriteQueue;
+import com.jeepy.wocoutposts.database.TeamMembershipCache;
+import com.jeepy.wocoutposts.logging.CaptureEvent;
+import com.jeepy.wocoutposts.logging.CaptureJournal;
+import com.jeepy.wocoutposts.logging.OutpostEventLog;
+import com.jeepy.wocoutposts.managers.OutpostShard;
+import com.jeepy.wocoutposts.managers.OutpostTickScheduler;
+import com.jeepy.wocoutposts.metrics.OutpostMetrics;
+import com.jeepy.wocoutposts.notifications.OutpostNotifier;
+import com.jeepy.wocoutposts.notifications.OutpostProgressBar;
+import com.jeepy.wocoutposts.scheduling.RegionScheduler;
+import com.jeepy.wocoutposts.util.TimerWheel;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import com.jeepy.teams.Team;
-import org.bukkit.event.entity.PlayerDeathEvent;
-import org.bukkit.scheduler.BukkitRunnable;
 
-import java.sql.SQLException;
+import java.time.Clock;
 import java.util.*;
 
+// A classified outpost in the world. The capture rules live in CaptureModel; this class decides who is inside the
+// radius or combat zone, resolves their team through the TeamMembershipCache, and turns the model's transitions into
+// player messages, progress bar updates, journal entries, event log lines and state store saves.
 public class ClassifiedOutpost extends Outpost {
 
     private final Main plugin;
-    private final WocTeamsDatabaseManager teamsDbManager;
-    private final OutpostDatabaseManager outpostDbManager;
+    private final TeamMembershipCache teamCache;
+    private final OutpostWriteQueue outpostWriteQueue;
+    private final OutpostEventLog eventLog;
+    private final OutpostStateStore stateStore;
+    private final CaptureJournal journal;
+    private final OutpostMetrics.OutpostStats stats;
+    private final OutpostNotifier notifier;
+    private final OutpostProgressBar progressBar;
     private final Location beaconLocation;
 
-    // Track players and teams currently inside the radius
-    private final Set<UUID> playersInRadius = new HashSet<>();
-    private final Set<Integer> teamsInRadius = new HashSet<>();
-    private final Map<UUID, Integer> playerKillCount = new HashMap<>();
-    private final Map<Integer, Double> teamKillCount = new HashMap<>();
-
     // Configurable properties specific to ClassifiedOutpost
     private int captureRadius;
-    private double chargeReductionRate;
-    private int overtimeDuration;
-    private List<Integer> chargeThresholds; // List of charge thresholds
-    private double soloPlayerBoost;
-    private double teamBoost;
-    private BukkitRunnable chargingTask;
-
-    private double currentCharge = 0.0; // Track outpost charge (0 to 100%)
-    private Integer controllingTeamId = null; // The team currently controlling the outpost
-    private long contestStartTime = -1; // Timer for contested state
-    private boolean inOvertime = false; // Whether the outpost is in overtime
-    private long overtimeStartTime = -1; // Start time for overtime
-    private long overtimeRemaining = 0; // Overtime remaining time in milliseconds
-    private int overtimeResetCount = 0; // How many times overtime has been reset
-    private static final int OVERTIME_RESET_LIMIT = 4; // Number of resets before reducing overtime
-    private boolean chargingEnabled = false;
-    private boolean chargingLogDisplayed = false;
-
-    private double chargePerSecond; // How much charge to add per second
-    private long lastChargeTime;
+    private long captureRadiusSquared;
+    private int combatRadius; // Kills within this radius count towards the outpost (never less than the capture radius)
+    private long combatRadiusSquared;
+
+    private final CaptureModel model;
+    private final OutpostShard shard;  // Ticks this outpost's deadlines; registered with by OutpostManager
+    private final Clock clock;
+    private final TimerWheel timers;
+    private final long progressRefreshMillis;
+    // Next progress bar refresh, pending while someone is inside a running outpost
+    private TimerWheel.Timeout progressRefresh;
+    private final Runnable progressRefreshTask = this::onProgressRefresh;
 
     // Constructor accepting plugin reference for loading configuration
     public ClassifiedOutpost(String outpostName, Location beaconLocation, Main plugin) {
         super(outpostName, beaconLocation);
         this.beaconLocation = beaconLocation;
         this.plugin = plugin;
-        this.teamsDbManager = plugin.getTeamsDatabaseManager();
-        this.outpostDbManager = plugin.getDatabaseManager();
-        loadConfig();
-        this.lastChargeTime = System.currentTimeMillis();
+        this.teamCache = plugin.getTeamCache();
+        this.outpostWriteQueue = plugin.getWriteQueue();
+        this.eventLog = plugin.getEventLog();
+        this.stateStore = plugin.getStateStore();
+        this.journal = plugin.getCaptureJournal();
+        this.stats = plugin.getMetrics().outpost(outpostName);
+        this.notifier = plugin.getNotifier();
+        this.progressBar = notifier.createProgressBar(outpostName);
+        this.progressRefreshMillis = plugin.getConfigManager().getProgressRefreshTicks() * 50L;
+        this.shard = plugin.getOutpostManager().getShards().shardFor(beaconLocation);
+        OutpostTickScheduler scheduler = shard.getScheduler();
+        this.clock = scheduler.getClock();
+        this.timers = scheduler.getTimerWheel();
+        this.model = new CaptureModel(loadConfig(), clock, timers, teamCache, new CaptureSink());
     }
 
     // Method to load configuration settings
-    private void loadConfig() {
+    private CaptureSettings loadConfig() {
         captureRadius = plugin.getConfig().getInt("classified_outpost.capture_radius", 15);
-        chargeReductionRate = plugin.getConfig().getDouble("classified_outpost.charge_reduction_rate", 1.0);
-        overtimeDuration = plugin.getConfig().getInt("classified_outpost.overtime.duration", 5);
-        chargeThresholds = plugin.getConfig().getIntegerList("classified_outpost.charge_thresholds");
-        teamBoost = plugin.getConfig().getDouble("classified_outpost.team_boost", 0.5);
-        soloPlayerBoost = plugin.getConfig().getDouble("classified_outpost.solo_player_boost", 1.0);
-
-        int chargeTimeSeconds = plugin.getConfig().getInt("classified_outpost.charge_time_seconds", 180);
-        chargePerSecond = 100.0 / chargeTimeSeconds;
+        captureRadiusSquared = (long) captureRadius * captureRadius;
+        combatRadius = Math.max(captureRadius, plugin.getConfig().getInt("classified_outpost.combat_zone_radius", 0));
+        combatRadiusSquared = (long) combatRadius * combatRadius;
+
+        List<Integer> thresholds = plugin.getConfig().getIntegerList("classified_outpost.charge_thresholds");
+        int[] chargeThresholds = new int[thresholds.size()];
+        for (int i = 0; i < chargeThresholds.length; i++) {
+            chargeThresholds[i] = thresholds.get(i);
+        }
+        return new CaptureSettings(
+                plugin.getConfig().getInt("classified_outpost.charge_time_seconds", 180),
+                plugin.getConfig().getDouble("classified_outpost.charge_reduction_rate", 1.0),
+                plugin.getConfig().getInt("classified_outpost.overtime.duration", 5),
+                chargeThresholds,
+                plugin.getConfig().getDouble("classified_outpost.team_boost", 0.5),
+                plugin.getConfig().getDouble("classified_outpost.solo_player_boost", 1.0));
     }
 
     public void stopOutpost() {
-        if (chargingTask != null) {
-            chargingTask.cancel();  // Cancel any ongoing charging task
-            chargingTask = null;
-        }
-        chargingEnabled = false;  // Set charging to disabled
+        model.stop();
+        hideProgressBar();
         plugin.getLogger().info("Charging for the outpost has been stopped.");
-
-        // Clear out any other state, like players or teams in the radius
-        playersInRadius.clear();
-        teamsInRadius.clear();
-
         plugin.getLogger().info("All events for this outpost have been cancelled.");
     }
 
-
-    // Method to handle player kills and assign boosts
-    public void onPlayerKill(PlayerDeathEvent event) throws SQLException {
-        Player killer = event.getEntity().getKiller();
-        if (killer != null) {
-            UUID killerUUID = killer.getUniqueId();
-
-            Team team = teamsDbManager.getTeamByPlayer(killer);
-
-            if (team != null) {
-                int teamId = team.getId();  // Get the team ID
-                int teamSize = teamsDbManager.getTeamMembersById(teamId).size();
-                int smallestTeamSize = getSmallestTeamSize();
-
-                if (teamSize <= smallestTeamSize) {
-                    teamKillCount.put(teamId, teamKillCount.getOrDefault(teamId, 0.0) + 1.0);
-                    killer.sendMessage("Your team's capture speed has increased due to your kill!");
-                } else {
-                    teamKillCount.put(teamId, teamKillCount.getOrDefault(teamId, 0.0) + 0.5);
-                    killer.sendMessage("Your team's capture speed has slightly increased.");
-                }
-
+    // Assign the boost for a kill in the combat zone; called by OutpostManager.handlePlayerKill with the killer's team
+    public void creditKill(Player killer, Team team) {
+        if (team != null) {
+            double boost = model.creditKill(killer.getUniqueId(), team.getId());
+            if (boost >= 1.0) {
+                notifier.send(killer, "Your team's capture speed has increased due to your kill!");
             } else {
-                // Solo player boost
-                playerKillCount.put(killerUUID, playerKillCount.getOrDefault(killerUUID, 0) + 1);
-                killer.sendMessage("Your solo capture speed has increased!");
+                notifier.send(killer, "Your team's capture speed has slightly increased.");
             }
+        } else {
+            // Solo player boost
+            model.creditKill(killer.getUniqueId(), CaptureModel.NO_TEAM);
+            notifier.send(killer, "Your solo capture speed has increased!");
         }
     }
 
-    private int getSmallestTeamSize() throws SQLException {
-        int smallestSize = Integer.MAX_VALUE;
+    public Location getBeaconLocation() {
+        return beaconLocation;
+    }
 
-        for (Integer teamId : teamsInRadius) {
-            int teamSize = teamsDbManager.getTeamMembersById(teamId).size();
-            if (teamSize < smallestSize) {
-                smallestSize = teamSize;
-            }
-        }
-        return smallestSize == Integer.MAX_VALUE ? 0 : smallestSize;
+    public OutpostShard getShard() {
+        return shard;
     }
 
-    // Check if a player is inside the outpost radius and handle adding/removing teams or players to/from the database
-    public void updatePlayerInRadius(Player player) {
-        Location playerLocation = player.getLocation();
-        double distance = playerLocation.distance(beaconLocation);  // Get the distance from player to beacon
-        UUID playerUUID = player.getUniqueId();
+    public int getCaptureRadius() {
+        return captureRadius;
+    }
 
-        try {
-            if (distance <= captureRadius) {
-                // Player/team is inside the capture radius
-                if (!playersInRadius.contains(playerUUID)) {
-                    // New player enters the radius
-                    Team team = teamsDbManager.getTeamByPlayer(player);  // Fetch the player's team (null if solo player)
-
-                    if (team != null && !teamsInRadius.contains(team.getId())) {
-                        // Handle team players
-                        UUID ownerUUID = team.getOwner();
-                        outpostDbManager.saveTeamToOutpostsDb(team.getId(), team.getName(), ownerUUID);  // Save team to database
-                        teamsInRadius.add(team.getId());  // Track the team in radius
-                        player.sendMessage("Your team has entered the outpost radius.");
-                    } else if (team == null) {
-                        // Handle solo player (team is null)
-                        outpostDbManager.savePlayerToOutpostsDb(playerUUID, player.getName());
-                        playersInRadius.add(playerUUID);  // Track the player in radius
-                        player.sendMessage("You have entered the outpost radius as a solo player.");
-                    }
-                }
-            } else {
-                // Player/team is outside the capture radius, remove them from the database
-                if (playersInRadius.contains(playerUUID)) {
-                    outpostDbManager.removePlayerFromOutpostsDb(playerUUID);
-                    playersInRadius.remove(playerUUID);
-                    player.sendMessage("You have exited the outpost radius.");
-                }
+    public int getCombatRadius() {
+        return combatRadius;
+    }
 
-                Team team = teamsDbManager.getTeamByPlayer(player);  // Fetch the player's team
-                if (team != null && teamsInRadius.contains(team.getId())) {
-                    // Remove team from the database
-                    outpostDbManager.removeTeamFromOutpostsDb(team.getId());
-                    teamsInRadius.remove(team.getId());
-                    player.sendMessage("Your team has exited the outpost radius.");
-                }
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error updating player/team in radius: " + e.getMessage());
-        }
+    public boolean isChargingEnabled() {
+        return model.isChargingEnabled();
     }
 
-    @Override
-    public void startCharging() {
-        if (!chargingEnabled) {
-            plugin.getLogger().info("Charging is not enabled for this outpost.");
-            return;
-        }
+    public CaptureState getState() {
+        return model.getState();
+    }
 
-        for (Player player : plugin.getServer().getOnlinePlayers()) {
-            updatePlayerInRadius(player);  // Update the player's presence in the radius
-        }
+    // Charge right now, including progress since the last state change
+    public double getCurrentCharge() {
+        return model.getCurrentCharge();
+    }
 
-        // If outpost is in overtime, handle that separately
-        if (inOvertime) {
-            enterOvertime();
-            return;
+    // Squared-distance check against the capture radius (no sqrt, and safe across worlds)
+    public boolean isInsideRadius(Location location) {
+        if (location.getWorld() == null || !location.getWorld().equals(beaconLocation.getWorld())) {
+            return false;
         }
+        return location.distanceSquared(beaconLocation) <= captureRadiusSquared;
+    }
 
-        long currentTime = System.currentTimeMillis();
-        long elapsedTime = (currentTime - lastChargeTime) / 1000;  // Convert to seconds
-
-        // Ensure enough time has passed since the last charge increment
-        if (elapsedTime < 1) {
-            return;  // Only charge every second
+    // Squared-distance check against the combat zone radius
+    public boolean isInsideCombatZone(Location location) {
+        if (location.getWorld() == null || !location.getWorld().equals(beaconLocation.getWorld())) {
+            return false;
         }
+        return location.distanceSquared(beaconLocation) <= combatRadiusSquared;
+    }
 
-        lastChargeTime = currentTime;
-
-        // Calculate how much charge to add based on the charge per second (configured in charge_time_seconds)
-        double chargeIncrement = chargePerSecond * elapsedTime;
-
-        // Only one team or player in the radius
-        if (teamsInRadius.size() == 1) {
-            Integer teamId = teamsInRadius.iterator().next();
+    public boolean isOccupant(UUID playerUUID) {
+        return model.isOccupant(playerUUID);
+    }
 
-            if (controllingTeamId == null) {
-                // First team to capture the outpost
-                controllingTeamId = teamId;
-                plugin.getLogger().info("Team " + teamId + " has started capturing the outpost.");
-            }
+    // Number of players (solo or in a team) currently inside the radius
+    public int getOccupantCount() {
+        return model.getOccupantCount();
+    }
 
-            if (controllingTeamId.equals(teamId)) {
-                // The controlling team is charging
-                double boost = 0.0;
+    public OutpostMetrics.OutpostStats getStats() {
+        return stats;
+    }
 
-                // Apply team boost based on kills if it's a team capture
-                if (teamId != null) {
-                    boost = teamKillCount.getOrDefault(teamId, 0.0) * teamBoost;
+    // Check if a player at the given location (read on the player's own thread, e.g. the destination of a
+    // PlayerMoveEvent) is inside the outpost radius and handle adding/removing teams or players to/from the database.
+    // Only the player's UUID and name are read here, the outpost's thread does not own the player.
+    public void updatePlayerInRadius(Player player, Location location) {
+        UUID playerUUID = player.getUniqueId();
+        stats.recordPlayerEvaluated();
+
+        if (isInsideRadius(location)) {
+            // Player/team is inside the capture radius
+            if (!model.isOccupant(playerUUID)) {
+                // New player enters the radius
+                TeamMembershipCache.Membership membership = teamCache.getMembership(player);
+                if (membership == null) {
+                    // Not cached yet: re-evaluate once the team lookup completes off the main thread, with the
+                    // location read again on the player's thread (skipped if they logged out meanwhile)
+                    RegionScheduler regions = plugin.getRegionScheduler();
+                    teamCache.load(player, loaded -> regions.executeForPlayer(player, () -> {
+                        Location current = player.getLocation();
+                        regions.execute(beaconLocation, () -> {
+                            if (model.isChargingEnabled()) {
+                                updatePlayerInRadius(player, current);
+                            }
+                        });
+                    }));
+                    return;
                 }
 
-                // Increment charge based on chargePerSecond and any boosts
-                currentCharge = Math.min(currentCharge + chargeIncrement + boost, 100.0);  // Cap at 100%
-                plugin.getLogger().info("Outpost charge: " + currentCharge + "% with boost: " + boost + "%");
+                Team team = membership.getTeam();  // The player's team (null if solo player)
+                progressBar.show(player);
 
-                // If the outpost reaches 100% charge, enter overtime
-                if (currentCharge >= 100) {
-                    enterOvertime();
+                if (team != null) {
+                    // Handle team players
+                    int teamId = team.getId();
+                    if (model.enter(playerUUID, teamId)) {
+                        outpostWriteQueue.enqueueSaveTeam(teamId, team.getName(), team.getOwner());  // Queue the team for saving
+                        notifier.send(player, "Your team has entered the outpost radius.");
+                    }
+                } else {
+                    // Handle solo player (team is null)
+                    outpostWriteQueue.enqueueSavePlayer(playerUUID, player.getName());
+                    model.enter(playerUUID, CaptureModel.NO_TEAM);
+                    notifier.send(player, "You have entered the outpost radius as a solo player.");
                 }
-            } else {
-                // New team is contesting, stop the previous team's progress
-                plugin.getLogger().info("Outpost is being contested by another team.");
-                pauseCharging();
+                refreshProgress();
             }
+        } else if (model.isOccupant(playerUUID)) {
+            // Player/team is outside the capture radius, remove them from the database
+            removeOccupant(playerUUID, player);
+        }
+    }
 
-            // Solo player case: No teams but at least one player in radius
-        } else if (teamsInRadius.isEmpty() && playersInRadius.size() == 1) {
-            UUID playerUUID = playersInRadius.iterator().next();
-            if (controllingTeamId == null) {
-                // Solo player charging
-                double boost = playerKillCount.getOrDefault(playerUUID, 0) * soloPlayerBoost;
-                currentCharge = Math.min(currentCharge + chargeIncrement + boost, 100.0);  // Cap at 100%
-                plugin.getLogger().info("Solo player outpost charge: " + currentCharge + "% with boost: " + boost + "%");
-
-                // Send charge update to player
-                Player player = plugin.getServer().getPlayer(playerUUID);
-                if (player != null) {
-                    sendChargeUpdate(player, currentCharge);
-                }
+    // Remove a player who left the radius; a team only leaves once its last member inside has gone
+    private void removeOccupant(UUID playerUUID, Player player) {
+        int teamId = model.getOccupantTeam(playerUUID);
+        if (player != null) {
+            progressBar.hide(player);
+        } else {
+            progressBar.hide(playerUUID);
+        }
+        if (!model.leave(playerUUID)) {
+            return;
+        }
 
-                if (currentCharge >= 100) {
-                    enterOvertime();
-                }
+        if (teamId == CaptureModel.NO_TEAM) {
+            outpostWriteQueue.enqueueRemovePlayer(playerUUID);
+            if (player != null) {
+                notifier.send(player, "You have exited the outpost radius.");
             }
-        } else if (teamsInRadius.size() > 1) {
-            // Multiple teams are contesting the outpost
-            handleContest();
         } else {
-            // No teams in radius, stop charging
-            pauseCharging();
+            outpostWriteQueue.enqueueRemoveTeam(teamId);
+            if (player != null) {
+                notifier.send(player, "Your team has exited the outpost radius.");
+            }
         }
     }
 
-    public void setChargingEnabled(boolean enabled) {
-        this.chargingEnabled = enabled; // Set the charging status
+    // Drop a player who is no longer online, without messaging them
+    public void removePlayer(UUID playerUUID) {
+        if (model.isOccupant(playerUUID)) {
+            removeOccupant(playerUUID, null);
+        }
     }
 
-    private void handleContest() {
-        if (contestStartTime == -1) {
-            contestStartTime = System.currentTimeMillis();
+    @Override
+    public void startCharging() {
+        if (!model.isChargingEnabled()) {
+            plugin.getLogger().info("Charging is not enabled for this outpost.");
+            return;
         }
+        model.start();  // Pick up whoever is already inside
+    }
 
-        long elapsed = System.currentTimeMillis() - contestStartTime;
-        if (elapsed >= 60_000L) { // 1 minute contesting
-            // Reduce charge by 1% every 1 minutes
-            currentCharge = Math.max(currentCharge - chargeReductionRate, 0);
-            applyChargeBalancing();  // Ensure charge doesn't drop below thresholds
-            plugin.getLogger().info("Outpost charge reduced to " + currentCharge + "% due to contesting.");
-            contestStartTime = System.currentTimeMillis(); // Reset contest timer
-        }
+    public void setChargingEnabled(boolean enabled) {
+        model.setChargingEnabled(enabled);
+    }
 
-        pauseCharging();
+    // Drop the pending deadline (also used when the outpost is deleted)
+    public void cancelDeadline() {
+        model.cancelDeadline();
+        hideProgressBar();
     }
 
+    // ---- Progress bar ----
 
-    private void applyChargeBalancing() {
-        // Ensure the charge does not drop below the nearest threshold
-        for (int threshold : chargeThresholds) {
-            if (currentCharge >= threshold) {
-                // This is the highest threshold we have passed, set as the minimum
-                currentCharge = Math.max(currentCharge, threshold);
-                break;
+    // Bring the progress bar up to date, and keep refreshing it while someone is inside a running outpost
+    private void refreshProgress() {
+        progressBar.update(model.getState(), model.getCurrentCharge());
+        if ((progressRefresh == null || !progressRefresh.isPending())
+                && model.isChargingEnabled() && model.getOccupantCount() > 0) {
+            if (progressRefresh == null) {
+                progressRefresh = timers.schedule(clock.millis() + progressRefreshMillis, progressRefreshTask);
+            } else {
+                timers.reschedule(progressRefresh, clock.millis() + progressRefreshMillis);
             }
         }
     }
 
+    private void onProgressRefresh() {
+        refreshProgress();
+    }
+
+    // Release the boss bar of an outpost that was never registered (its name was already taken)
+    public void discard() {
+        progressBar.hideAll();
+    }
+
+    // Take the progress bar down for everyone (also on plugin disable)
+    public void hideProgressBar() {
+        if (progressRefresh != null) {
+            progressRefresh.cancel();
+        }
+        progressBar.hideAll();
+    }
+
     @Override
     public void stopCharging() {
         plugin.getLogger().info("Stopped charging for Classified Outpost.");
@@ -307,96 +317,72 @@ public class ClassifiedOutpost extends Outpost {
 
     @Override
     public void refillLoot() {
-        plugin.getLogger().info("Refilling loot for " + this.getOutpostName());
+        int chestCount = plugin.getChestRefillManager().requestRefill(outpostName);
+        plugin.getLogger().info("Refilling " + chestCount + " loot chests for " + this.getOutpostName());
     }
 
-    private void pauseCharging() {
-        contestStartTime = -1; // Reset contest timer
+    // Fresh capture: no charge, no controlling team and no overtime
+    public void resetCharge() {
+        model.reset();
     }
 
-    public void updateCharging() {
-        if (!chargingEnabled) {
-            if (!chargingLogDisplayed) {
-                plugin.getLogger().info("Charging is not enabled for this outpost.");
-                chargingLogDisplayed = true; // Only log this message once.
-            }
-            return; // Exit if charging is disabled.
-        }
-        chargingLogDisplayed = false; // Reset the log flag when charging is enabled again.
-        startCharging(); // Call the charging process only if enabled.
-    }
+    // ---- Persistence (see OutpostStateStore) ----
 
-    public void resetCharge() {
-        this.currentCharge = 0.0;
-        this.lastChargeTime = System.currentTimeMillis();
+    // Snapshot of the outpost definition and capture progress
+    public OutpostState captureState() {
+        return model.captureState(outpostName, beaconLocation.getWorld().getName(),
+                beaconLocation.getX(), beaconLocation.getY(), beaconLocation.getZ());
     }
 
-    private void enterOvertime() {
-        if (!inOvertime) {
-            inOvertime = true;
-            overtimeStartTime = System.currentTimeMillis();
-            overtimeRemaining = overtimeDuration * 1000L; // Start with full overtime duration
-            plugin.getLogger().info("Overtime has started for the outpost.");
+    // Resume from a stored snapshot; time the server was down does not count towards charging or overtime
+    public void restoreState(OutpostState state) {
+        for (String entry : model.restoreState(state)) {
+            plugin.getLogger().warning("Ignoring invalid stored kill count '" + entry + "' for outpost " + outpostName);
         }
+    }
 
-        long elapsed = System.currentTimeMillis() - overtimeStartTime;
+    // Routes the model's transitions to the journal, event log, state store and metrics
+    private final class CaptureSink implements CaptureListener {
 
-        if (elapsed >= overtimeRemaining) {
-            // Overtime duration has elapsed, check if a team has won
-            if (teamsInRadius.size() == 1) {
-                Integer teamId = teamsInRadius.iterator().next();
+        @Override
+        public void record(CaptureEvent event, int teamId, double value) {
+            journal.record(event, outpostName, teamId, value);
+        }
 
-                // Check if it's the controlling team
-                if (teamId.equals(controllingTeamId)) {
-                    plugin.getLogger().info("Team " + controllingTeamId + " has successfully captured the outpost during overtime!");
-                    endOvertime(teamId);  // End the overtime and declare the winner
-                } else {
-                    // A new team has contested the outpost
-                    plugin.getLogger().info("Team " + teamId + " has contested the outpost.");
-                    resetOvertime(teamId);  // Reset the overtime timer for the new team
-                }
-            } else if (teamsInRadius.isEmpty()) {
-                // No teams are contesting the point, end overtime with the controlling team winning
-                plugin.getLogger().info("No teams contested the outpost. Team " + controllingTeamId + " has won!");
-                endOvertime(controllingTeamId);
-            }
-        } else {
-            // Overtime is still running
-            plugin.getLogger().info("Overtime ongoing. Remaining time: " + (overtimeRemaining - elapsed) / 1000.0 + " seconds.");
+        @Override
+        public void info(String event, String message) {
+            eventLog.info(outpostName, event, message);
         }
-    }
 
-    // Helper method to reset overtime with a new team or reset the timer with decreasing time
-    private void resetOvertime(Integer newControllingTeamId) {
-        if (newControllingTeamId != null) {
-            controllingTeamId = newControllingTeamId; // Change controlling team
+        @Override
+        public void debug(String event, String key, double value) {
+            eventLog.debug(outpostName, event, key, value);
         }
 
-        if (overtimeResetCount < OVERTIME_RESET_LIMIT) {
-            overtimeRemaining = overtimeDuration * 1000L;  // Reset to full duration (e.g., 5 seconds)
-            overtimeResetCount++;
-            plugin.getLogger().info("Overtime reset to " + overtimeRemaining / 1000.0 + " seconds. Reset count: " + overtimeResetCount);
-        } else {
-            // After 4 resets, start reducing the overtime timer
-            overtimeDuration = Math.max(overtimeDuration - 1, 1);  // Decrease overtime by 1 second but not below 1 second
-            overtimeRemaining = overtimeDuration * 1000L;  // Update overtime timer
-            plugin.getLogger().info("Overtime duration reduced to " + overtimeDuration + " seconds.");
+        @Override
+        public void debug(String event, String key1, double value1, String key2, double value2) {
+            eventLog.debug(outpostName, event, key1, value1, key2, value2);
         }
-        overtimeStartTime = System.currentTimeMillis();  // Reset the timer start point
-    }
 
-    // Helper method to end overtime and declare a winner
-    private void endOvertime(Integer winningTeamId) {
-        inOvertime = false;
-        overtimeStartTime = -1;
-        overtimeRemaining = 0;
-        overtimeResetCount = 0;  // Reset overtime reset counter
+        @Override
+        public void changed(boolean saveNow) {
+            if (saveNow) {
+                stateStore.saveNow(ClassifiedOutpost.this);
+            } else {
+                stateStore.markDirty(ClassifiedOutpost.this);
+            }
+            refreshProgress();
+        }
 
-        if (winningTeamId != null) {
-            plugin.getLogger().info("Team " + winningTeamId + " has officially won the outpost!");
-            // Implement logic to reward the winning team (points, resources, etc.)
-        } else {
-            plugin.getLogger().info("Overtime ended with no winner.");
+        @Override
+        public void soloCharge(UUID playerUUID, double charge) {
+            // The solo player sees their charge on the shared progress bar like everyone else
+            refreshProgress();
+        }
+
+        @Override
+        public void evaluated(long nanos) {
+            stats.recordTick(nanos, model.getOccupantCount());
         }
     }
 }
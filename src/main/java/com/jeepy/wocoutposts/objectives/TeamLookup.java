@@ -0,0 +1,8 @@
+package com.jeepy.wocoutposts.objectives;
+
+// Team sizes for the kill boost. TeamMembershipCache serves them on the server, the simulation from its own teams.
+public interface TeamLookup {
+
+    // Number of members of the team, or -1 if unknown
+    int getMemberCount(int teamId);
+}
@@ -0,0 +1,83 @@
+package com.jeepy.wocoutposts.scheduling;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+// Single-threaded server: every region is the main thread, so work already on it runs inline
+public class BukkitRegionScheduler implements RegionScheduler {
+
+    private final Plugin plugin;
+    private final BukkitScheduler scheduler;
+
+    public BukkitRegionScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getServer().getScheduler();
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return false;
+    }
+
+    @Override
+    public Task runAtFixedRate(World world, int chunkX, int chunkZ, Runnable task, long delayTicks, long periodTicks) {
+        return scheduler.runTaskTimer(plugin, task, delayTicks, periodTicks)::cancel;
+    }
+
+    @Override
+    public void execute(Location location, Runnable task) {
+        executeGlobal(task);
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Location location) {
+        return plugin.getServer().isPrimaryThread();
+    }
+
+    @Override
+    public void executeGlobal(Runnable task) {
+        if (plugin.getServer().isPrimaryThread()) {
+            task.run();
+        } else if (plugin.isEnabled()) {
+            scheduler.runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public Task runGlobalAtFixedRate(Runnable task, long delayTicks, long periodTicks) {
+        return scheduler.runTaskTimer(plugin, task, delayTicks, periodTicks)::cancel;
+    }
+
+    @Override
+    public void executeForPlayer(Player player, Runnable task) {
+        executeGlobal(() -> {
+            if (player.isOnline()) {
+                task.run();
+            }
+        });
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task) {
+        if (plugin.isEnabled()) {
+            scheduler.runTask(plugin, () -> {
+                if (player.isOnline()) {
+                    task.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        scheduler.runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public Task runAsyncAtFixedRate(Runnable task, long delayTicks, long periodTicks) {
+        return scheduler.runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks)::cancel;
+    }
+}
@@ -0,0 +1,169 @@
+package com.jeepy.wocoutposts.scheduling;
+
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Region-threaded server (Folia): region, global, entity and async schedulers. The plugin is built against the
+// Bukkit API, so the Folia scheduler methods are looked up once by reflection and called through Method handles.
+public class FoliaRegionScheduler implements RegionScheduler {
+
+    private static final String REGIONIZED_SERVER_CLASS = "io.papermc.paper.threadedregions.RegionizedServer";
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final Plugin plugin;
+    private final Server server;
+
+    private final Object regionScheduler;
+    private final Object globalScheduler;
+    private final Object asyncScheduler;
+    private final Method regionExecute;
+    private final Method regionRunAtFixedRate;
+    private final Method globalExecute;
+    private final Method globalRunAtFixedRate;
+    private final Method asyncRunNow;
+    private final Method asyncRunAtFixedRate;
+    private final Method isOwnedByCurrentRegion;
+    private final Method isGlobalTickThread;
+    private final Method getEntityScheduler;
+    private final Method entityRun;
+    private final Method cancelTask;
+
+    // Whether the server is Folia (or a fork of it)
+    public static boolean isSupported() {
+        try {
+            Class.forName(REGIONIZED_SERVER_CLASS);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public FoliaRegionScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.server = plugin.getServer();
+        try {
+            Class<?> serverClass = Server.class;
+            regionScheduler = serverClass.getMethod("getRegionScheduler").invoke(server);
+            globalScheduler = serverClass.getMethod("getGlobalRegionScheduler").invoke(server);
+            asyncScheduler = serverClass.getMethod("getAsyncScheduler").invoke(server);
+            isOwnedByCurrentRegion = serverClass.getMethod("isOwnedByCurrentRegion", Location.class);
+            isGlobalTickThread = serverClass.getMethod("isGlobalTickThread");
+
+            Class<?> regionSchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.RegionScheduler");
+            regionExecute = regionSchedulerClass.getMethod("execute", Plugin.class, Location.class, Runnable.class);
+            regionRunAtFixedRate = regionSchedulerClass.getMethod("runAtFixedRate", Plugin.class, World.class,
+                    int.class, int.class, Consumer.class, long.class, long.class);
+
+            Class<?> globalSchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler");
+            globalExecute = globalSchedulerClass.getMethod("execute", Plugin.class, Runnable.class);
+            globalRunAtFixedRate = globalSchedulerClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class,
+                    long.class, long.class);
+
+            Class<?> asyncSchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.AsyncScheduler");
+            asyncRunNow = asyncSchedulerClass.getMethod("runNow", Plugin.class, Consumer.class);
+            asyncRunAtFixedRate = asyncSchedulerClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class,
+                    long.class, long.class, TimeUnit.class);
+
+            getEntityScheduler = Entity.class.getMethod("getScheduler");
+            Class<?> entitySchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.EntityScheduler");
+            entityRun = entitySchedulerClass.getMethod("run", Plugin.class, Consumer.class, Runnable.class);
+
+            cancelTask = Class.forName("io.papermc.paper.threadedregions.scheduler.ScheduledTask").getMethod("cancel");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Region scheduler API not found", e);
+        }
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return true;
+    }
+
+    @Override
+    public Task runAtFixedRate(World world, int chunkX, int chunkZ, Runnable task, long delayTicks, long periodTicks) {
+        Consumer<Object> body = scheduledTask -> task.run();
+        return handle(invoke(regionRunAtFixedRate, regionScheduler, plugin, world, chunkX, chunkZ, body,
+                Math.max(delayTicks, 1L), periodTicks));
+    }
+
+    @Override
+    public void execute(Location location, Runnable task) {
+        if (isOwnedByCurrentThread(location)) {
+            task.run();
+        } else {
+            invoke(regionExecute, regionScheduler, plugin, location, task);
+        }
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Location location) {
+        return (Boolean) invoke(isOwnedByCurrentRegion, server, location);
+    }
+
+    @Override
+    public void executeGlobal(Runnable task) {
+        if ((Boolean) invoke(isGlobalTickThread, server)) {
+            task.run();
+        } else {
+            invoke(globalExecute, globalScheduler, plugin, task);
+        }
+    }
+
+    @Override
+    public Task runGlobalAtFixedRate(Runnable task, long delayTicks, long periodTicks) {
+        Consumer<Object> body = scheduledTask -> task.run();
+        return handle(invoke(globalRunAtFixedRate, globalScheduler, plugin, body, Math.max(delayTicks, 1L), periodTicks));
+    }
+
+    @Override
+    public void executeForPlayer(Player player, Runnable task) {
+        Consumer<Object> body = scheduledTask -> task.run();
+        Object entityScheduler = invoke(getEntityScheduler, player);
+        invoke(entityRun, entityScheduler, plugin, body, null);  // Null retired callback: dropped on logout
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task) {
+        executeForPlayer(player, task);  // The entity scheduler never runs a task inline
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Consumer<Object> body = scheduledTask -> task.run();
+        invoke(asyncRunNow, asyncScheduler, plugin, body);
+    }
+
+    @Override
+    public Task runAsyncAtFixedRate(Runnable task, long delayTicks, long periodTicks) {
+        Consumer<Object> body = scheduledTask -> task.run();
+        return handle(invoke(asyncRunAtFixedRate, asyncScheduler, plugin, body,
+                Math.max(delayTicks, 1L) * MILLIS_PER_TICK, periodTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS));
+    }
+
+    private Task handle(Object scheduledTask) {
+        return () -> invoke(cancelTask, scheduledTask);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
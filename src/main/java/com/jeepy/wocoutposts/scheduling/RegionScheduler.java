@@ -0,0 +1,43 @@
+package com.jeepy.wocoutposts.scheduling;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+// Runs plugin work on the thread that owns it. On a region-threaded server (Folia) each region of a world ticks on
+// its own thread, so outpost state is only touched from the region owning its beacon, player work from the player's
+// region, and registry-wide work (periodic saves, database callbacks) from the global region. On a regular server
+// all of these are the main thread. Delays and periods are in server ticks.
+public interface RegionScheduler {
+
+    // A repeating task; cancel() stops it
+    interface Task {
+        void cancel();
+    }
+
+    // True when regions tick on separate threads
+    boolean isRegionThreaded();
+
+    // Repeat the task on the thread owning the chunk
+    Task runAtFixedRate(World world, int chunkX, int chunkZ, Runnable task, long delayTicks, long periodTicks);
+
+    // Run the task on the thread owning the location: right away if that is the current thread, otherwise queued
+    void execute(Location location, Runnable task);
+
+    boolean isOwnedByCurrentThread(Location location);
+
+    // Run the task on the global region (the main thread on a regular server), right away if already on it
+    void executeGlobal(Runnable task);
+
+    Task runGlobalAtFixedRate(Runnable task, long delayTicks, long periodTicks);
+
+    // Run the task on the thread owning the player; dropped if the player has logged out
+    void executeForPlayer(Player player, Runnable task);
+
+    // Like executeForPlayer, but always queued for a later tick, never run inline (e.g. to leave an event handler)
+    void runForPlayer(Player player, Runnable task);
+
+    void runAsync(Runnable task);
+
+    Task runAsyncAtFixedRate(Runnable task, long delayTicks, long periodTicks);
+}
@@ -0,0 +1,384 @@
+package com.jeepy.wocoutposts.simulation;
+
+import com.jeepy.wocoutposts.logging.CaptureEvent;
+import com.jeepy.wocoutposts.objectives.CaptureListener;
+import com.jeepy.wocoutposts.objectives.CaptureModel;
+import com.jeepy.wocoutposts.objectives.CaptureSettings;
+import com.jeepy.wocoutposts.util.TimerWheel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Headless world for the capture rules: outposts on a flat plane, players with a team and a position, and a clock
+// that only moves when advanceTo is called. Each outpost runs the same CaptureModel as the server, on a timer wheel
+// with the server's resolution, so charge, contest, overtime and kill boost timings match a live match exactly.
+// Captured outposts restart after a delay, so one run covers many matches. Not thread-safe.
+public class CaptureSimulation {
+
+    // Outposts a player is inside are tracked as a bitmask
+    public static final int MAX_OUTPOSTS = 64;
+    // Same resolution as the OutpostTickScheduler wheel: one server tick
+    private static final long WHEEL_TICK_MILLIS = 50L;
+    // A player only rescans every outpost after moving this far; until then only the ones near the last scan can hold them
+    private static final double RESCAN_DISTANCE = 32.0;
+
+    private final CaptureSettings settings;
+    private final SimulationClock clock;
+    private final TimerWheel timers;
+    private final SimulatedTeams teams = new SimulatedTeams();
+    private final List<SimulatedOutpost> outposts = new ArrayList<>();
+    private final long startMillis;
+    private final long restartDelayMillis;
+
+    // Players, by index
+    private int playerCount = 0;
+    private UUID[] playerUUIDs = new UUID[64];
+    private int[] playerTeams = new int[64];
+    private double[] playerX = new double[64];
+    private double[] playerZ = new double[64];
+    private boolean[] present = new boolean[64];
+    private long[] insideMask = new long[64]; // Outposts whose capture radius the player is in
+    private long[] nearMask = new long[64]; // Outposts within RESCAN_DISTANCE of the capture radius at the last scan
+    private double[] scanX = new double[64];
+    private double[] scanZ = new double[64];
+
+    private long kills = 0;
+    private long deadlinesRun = 0;
+
+    public CaptureSimulation(CaptureSettings settings, long startMillis, long restartDelayMillis) {
+        this.settings = settings;
+        this.clock = new SimulationClock(startMillis);
+        this.timers = new TimerWheel(WHEEL_TICK_MILLIS, startMillis);
+        this.startMillis = startMillis;
+        this.restartDelayMillis = restartDelayMillis;
+    }
+
+    // ---- World setup ----
+
+    // Returns the outpost index
+    public int addOutpost(String name, double x, double z, int captureRadius, int combatRadius) {
+        if (outposts.size() >= MAX_OUTPOSTS) {
+            throw new IllegalStateException("At most " + MAX_OUTPOSTS + " outposts can be simulated");
+        }
+        SimulatedOutpost outpost = new SimulatedOutpost(name, x, z, captureRadius, Math.max(captureRadius, combatRadius));
+        outposts.add(outpost);
+        return outposts.size() - 1;
+    }
+
+    // Returns the player index; teamId is CaptureModel.NO_TEAM for solo players. Players start outside the world.
+    public int addPlayer(int teamId) {
+        if (playerCount == playerUUIDs.length) {
+            int capacity = playerCount * 2;
+            playerUUIDs = Arrays.copyOf(playerUUIDs, capacity);
+            playerTeams = Arrays.copyOf(playerTeams, capacity);
+            playerX = Arrays.copyOf(playerX, capacity);
+            playerZ = Arrays.copyOf(playerZ, capacity);
+            present = Arrays.copyOf(present, capacity);
+            insideMask = Arrays.copyOf(insideMask, capacity);
+            nearMask = Arrays.copyOf(nearMask, capacity);
+            scanX = Arrays.copyOf(scanX, capacity);
+            scanZ = Arrays.copyOf(scanZ, capacity);
+        }
+        int player = playerCount++;
+        // Name-based, so runs with the same seed match, but spread like real UUIDs in the occupancy tables
+        playerUUIDs[player] = UUID.nameUUIDFromBytes(("simulated-player-" + player).getBytes(StandardCharsets.UTF_8));
+        playerTeams[player] = teamId;
+        if (teamId != CaptureModel.NO_TEAM) {
+            teams.addMember(teamId);
+        }
+        return player;
+    }
+
+    // Start a fresh capture, like /outpost start
+    public void startOutpost(int outpost) {
+        outposts.get(outpost).start();
+    }
+
+    public void startAll() {
+        for (SimulatedOutpost outpost : outposts) {
+            outpost.start();
+        }
+    }
+
+    // ---- Events ----
+
+    // Place a player (spawning them if needed) and update the capture radii they are in
+    public void movePlayer(int player, double x, double z) {
+        double dx = x - scanX[player];
+        double dz = z - scanZ[player];
+        if (!present[player] || dx * dx + dz * dz > RESCAN_DISTANCE * RESCAN_DISTANCE) {
+            scanNearOutposts(player, x, z);
+        }
+        present[player] = true;
+        playerX[player] = x;
+        playerZ[player] = z;
+
+        long mask = insideMask[player];
+        long candidates = nearMask[player] | mask;
+        while (candidates != 0) {
+            int i = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            SimulatedOutpost outpost = outposts.get(i);
+            long bit = 1L << i;
+            boolean inside = outpost.distanceSquared(x, z) <= outpost.captureRadiusSquared;
+            if (inside && (mask & bit) == 0) {
+                mask |= bit;
+                outpost.model.enter(playerUUIDs[player], playerTeams[player]);
+            } else if (!inside && (mask & bit) != 0) {
+                mask &= ~bit;
+                outpost.model.leave(playerUUIDs[player]);
+            }
+        }
+        insideMask[player] = mask;
+    }
+
+    private void scanNearOutposts(int player, double x, double z) {
+        long near = 0L;
+        for (int i = 0; i < outposts.size(); i++) {
+            SimulatedOutpost outpost = outposts.get(i);
+            double reach = outpost.captureRadius + RESCAN_DISTANCE;
+            if (outpost.distanceSquared(x, z) <= reach * reach) {
+                near |= 1L << i;
+            }
+        }
+        nearMask[player] = near;
+        scanX[player] = x;
+        scanZ[player] = z;
+    }
+
+    // Take a player out of the world (death, logout), leaving every radius they were in
+    public void removePlayer(int player) {
+        present[player] = false;
+        long mask = insideMask[player];
+        while (mask != 0) {
+            int i = Long.numberOfTrailingZeros(mask);
+            outposts.get(i).model.leave(playerUUIDs[player]);
+            mask &= mask - 1;
+        }
+        insideMask[player] = 0L;
+    }
+
+    // Credit the kill to every charging outpost whose combat zone holds the victim or the killer (as
+    // OutpostManager.handlePlayerKill does), then remove the victim
+    public void kill(int killer, int victim) {
+        kills++;
+        for (SimulatedOutpost outpost : outposts) {
+            if (outpost.model.isChargingEnabled() && (isInCombatZone(outpost, victim) || isInCombatZone(outpost, killer))) {
+                outpost.model.creditKill(playerUUIDs[killer], playerTeams[killer]);
+            }
+        }
+        removePlayer(victim);
+    }
+
+    private boolean isInCombatZone(SimulatedOutpost outpost, int player) {
+        return present[player] && outpost.distanceSquared(playerX[player], playerZ[player]) <= outpost.combatRadiusSquared;
+    }
+
+    // Move the clock forward one wheel tick at a time, running deadlines at the moment they fall due
+    public void advanceTo(long millis) {
+        long now = clock.millis();
+        while (now < millis) {
+            now = Math.min(now + WHEEL_TICK_MILLIS, millis);
+            if (timers.size() == 0) {
+                now = millis;  // Nothing scheduled, so nothing can happen on the way
+            }
+            clock.setMillis(now);
+            timers.advance(now);
+            while (timers.runNext()) {
+                deadlinesRun++;
+            }
+        }
+    }
+
+    // ---- Queries ----
+
+    public long getMillis() {
+        return clock.millis();
+    }
+
+    public long getElapsedMillis() {
+        return clock.millis() - startMillis;
+    }
+
+    public int getOutpostCount() {
+        return outposts.size();
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getPlayerTeam(int player) {
+        return playerTeams[player];
+    }
+
+    public boolean isPresent(int player) {
+        return present[player];
+    }
+
+    public double getOutpostX(int outpost) {
+        return outposts.get(outpost).x;
+    }
+
+    public double getOutpostZ(int outpost) {
+        return outposts.get(outpost).z;
+    }
+
+    public int getCaptureRadius(int outpost) {
+        return outposts.get(outpost).captureRadius;
+    }
+
+    public int getCombatRadius(int outpost) {
+        return outposts.get(outpost).combatRadius;
+    }
+
+    public boolean isInCombatZone(int outpost, int player) {
+        return isInCombatZone(outposts.get(outpost), player);
+    }
+
+    public CaptureModel getModel(int outpost) {
+        return outposts.get(outpost).model;
+    }
+
+    public CaptureSettings getSettings() {
+        return settings;
+    }
+
+    // Per-outpost results plus totals, in the same shape as /outpost stats
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        long captures = 0;
+        long captureMillis = 0;
+
+        lines.add("Outposts (captures, capture time avg / min / max, contest decays, overtime resets / reductions, kill boosts):");
+        for (SimulatedOutpost outpost : outposts) {
+            captures += outpost.captures;
+            captureMillis += outpost.captureMillisTotal;
+            lines.add(String.format("  %s: %d, %s / %s / %s, %d, %d / %d, %d (now %s, %.1f%%)",
+                    outpost.name, outpost.captures,
+                    formatDuration(outpost.captures > 0 ? outpost.captureMillisTotal / outpost.captures : 0L),
+                    formatDuration(outpost.captures > 0 ? outpost.captureMillisMin : 0L),
+                    formatDuration(outpost.captureMillisMax),
+                    outpost.contestDecays, outpost.overtimeResets, outpost.overtimeReductions, outpost.killBoosts,
+                    outpost.model.getState(), outpost.model.getCurrentCharge()));
+        }
+
+        lines.add(String.format("Simulated %s: %d players in %d teams, %d kills, %d captures (avg %s), %d deadlines run",
+                formatDuration(getElapsedMillis()), playerCount, teams.getTeamCount(), kills, captures,
+                formatDuration(captures > 0 ? captureMillis / captures : 0L), deadlinesRun));
+        return lines;
+    }
+
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000L;
+        if (seconds >= 3600L) {
+            return String.format("%dh%02dm%02ds", seconds / 3600L, seconds / 60L % 60L, seconds % 60L);
+        }
+        return String.format("%dm%02ds", seconds / 60L, seconds % 60L);
+    }
+
+    // One outpost: its geometry, its CaptureModel, and the tallies of what the model reported
+    private final class SimulatedOutpost implements CaptureListener {
+        private final String name;
+        private final double x;
+        private final double z;
+        private final int captureRadius;
+        private final int combatRadius;
+        private final long captureRadiusSquared;
+        private final long combatRadiusSquared;
+        private final CaptureModel model;
+        private final Runnable restartTask = this::start;
+
+        private long matchStartedAt;
+        private int captures = 0;
+        private long captureMillisTotal = 0;
+        private long captureMillisMin = Long.MAX_VALUE;
+        private long captureMillisMax = 0;
+        private int contestDecays = 0;
+        private int overtimeResets = 0;
+        private int overtimeReductions = 0;
+        private int killBoosts = 0;
+
+        private SimulatedOutpost(String name, double x, double z, int captureRadius, int combatRadius) {
+            this.name = name;
+            this.x = x;
+            this.z = z;
+            this.captureRadius = captureRadius;
+            this.combatRadius = combatRadius;
+            this.captureRadiusSquared = (long) captureRadius * captureRadius;
+            this.combatRadiusSquared = (long) combatRadius * combatRadius;
+            this.model = new CaptureModel(settings, clock, timers, teams, this);
+        }
+
+        private double distanceSquared(double px, double pz) {
+            double dx = px - x;
+            double dz = pz - z;
+            return dx * dx + dz * dz;
+        }
+
+        // Same order as OutpostManager.startOutpost; players already inside stay tracked by the model
+        private void start() {
+            matchStartedAt = clock.millis();
+            model.reset();
+            model.setChargingEnabled(true);
+            model.start();
+        }
+
+        @Override
+        public void record(CaptureEvent event, int teamId, double value) {
+            switch (event) {
+                case CONTEST_DECAY:
+                    contestDecays++;
+                    break;
+                case OVERTIME_RESET:
+                    overtimeResets++;
+                    break;
+                case OVERTIME_REDUCED:
+                    overtimeReductions++;
+                    break;
+                case KILL_BOOST:
+                    killBoosts++;
+                    break;
+                case OVERTIME_END:
+                    long captureMillis = clock.millis() - matchStartedAt;
+                    captures++;
+                    captureMillisTotal += captureMillis;
+                    captureMillisMin = Math.min(captureMillisMin, captureMillis);
+                    captureMillisMax = Math.max(captureMillisMax, captureMillis);
+                    if (restartDelayMillis >= 0) {
+                        timers.schedule(clock.millis() + restartDelayMillis, restartTask);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void info(String event, String message) {
+        }
+
+        @Override
+        public void debug(String event, String key, double value) {
+        }
+
+        @Override
+        public void debug(String event, String key1, double value1, String key2, double value2) {
+        }
+
+        @Override
+        public void changed(boolean saveNow) {
+        }
+
+        @Override
+        public void soloCharge(UUID playerUUID, double charge) {
+        }
+
+        @Override
+        public void evaluated(long nanos) {
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.jeepy.wocoutposts.simulation;
+
+import com.jeepy.wocoutposts.objectives.CaptureModel;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Generates a seeded stream of movement and deaths for a CaptureSimulation. Players spend most of their time away
+// from the outposts and visit them now and then; teams pick an outpost to push and switch now and then. Visitors
+// spawn at the edge of their outpost's arena, walk between points in and around the capture radius, and die at a
+// fixed rate while in a combat zone, killed by another player in the same arena. The dead are out of the world for
+// a respawn delay and then head for their team's current outpost. The same seed replays the same matches.
+public class RandomMatchDriver {
+
+    private final CaptureSimulation simulation;
+    private final SplittableRandom random;
+    private final long stepMillis;
+    private final double walkSpeed; // Blocks per second
+    private final double deathsPerSecond; // Chance per second for a player in a combat zone to be killed
+    private final long respawnMillis;
+    private final long visitMillis; // Average time a player stays around the outposts per visit
+    private final long awayMillis; // Average time between visits
+    private final double captureFocus; // Share of walk targets inside the capture radius rather than the wider arena
+    private final long retargetMillis; // How long a team pushes one outpost on average
+
+    // Per player
+    private final int[] target;
+    private final double[] x;
+    private final double[] z;
+    private final double[] walkX;
+    private final double[] walkZ;
+    private final long[] awayUntil;
+    // Per team (index = team id)
+    private final int[] teamTarget;
+
+    // Players in each arena this step, rebuilt every step to pick killers from
+    private final int[][] arenaPlayers;
+    private final int[] arenaSizes;
+
+    public RandomMatchDriver(CaptureSimulation simulation, long seed, long stepMillis, double walkSpeed,
+                             double deathsPerSecond, long respawnMillis, long visitMillis, long awayMillis,
+                             double captureFocus, long retargetMillis, int maxTeamId) {
+        this.simulation = simulation;
+        this.random = new SplittableRandom(seed);
+        this.stepMillis = stepMillis;
+        this.walkSpeed = walkSpeed;
+        this.deathsPerSecond = deathsPerSecond;
+        this.respawnMillis = respawnMillis;
+        this.visitMillis = visitMillis;
+        this.awayMillis = awayMillis;
+        this.captureFocus = captureFocus;
+        this.retargetMillis = retargetMillis;
+
+        int players = simulation.getPlayerCount();
+        this.target = new int[players];
+        this.x = new double[players];
+        this.z = new double[players];
+        this.walkX = new double[players];
+        this.walkZ = new double[players];
+        this.awayUntil = new long[players];
+        this.teamTarget = new int[maxTeamId + 1];
+        this.arenaPlayers = new int[simulation.getOutpostCount()][players];
+        this.arenaSizes = new int[simulation.getOutpostCount()];
+
+        for (int team = 0; team < teamTarget.length; team++) {
+            teamTarget[team] = random.nextInt(simulation.getOutpostCount());
+        }
+        long now = simulation.getMillis();
+        for (int player = 0; player < players; player++) {
+            target[player] = pickTarget(player);
+            awayUntil[player] = now + randomAwayMillis();  // Stagger the first visits
+        }
+    }
+
+    // Drive the simulation up to the given time
+    public void runUntil(long millis) {
+        long now = simulation.getMillis();
+        while (now < millis) {
+            now = Math.min(now + stepMillis, millis);
+            simulation.advanceTo(now);
+            retargetTeams();
+            step(now);
+            killPlayers(now);
+        }
+    }
+
+    // Some teams move on to another outpost; the change applies to their members as they respawn
+    private void retargetTeams() {
+        double chance = (double) stepMillis / retargetMillis;
+        for (int team = 0; team < teamTarget.length; team++) {
+            if (random.nextDouble() < chance) {
+                teamTarget[team] = random.nextInt(simulation.getOutpostCount());
+            }
+        }
+    }
+
+    private void step(long now) {
+        double stride = walkSpeed * stepMillis / 1000.0;
+        double leaveChance = (double) stepMillis / visitMillis;
+        Arrays.fill(arenaSizes, 0);
+
+        for (int player = 0; player < target.length; player++) {
+            if (!simulation.isPresent(player)) {
+                if (now < awayUntil[player]) {
+                    continue;
+                }
+                spawn(player);
+            } else if (random.nextDouble() < leaveChance) {
+                // End of the visit
+                simulation.removePlayer(player);
+                awayUntil[player] = now + randomAwayMillis();
+                target[player] = pickTarget(player);
+                continue;
+            } else {
+                walk(player, stride);
+            }
+            simulation.movePlayer(player, x[player], z[player]);
+
+            int outpost = target[player];
+            arenaPlayers[outpost][arenaSizes[outpost]++] = player;
+        }
+    }
+
+    // Uniform between none and twice the average
+    private long randomAwayMillis() {
+        return random.nextLong(2 * awayMillis + 1);
+    }
+
+    // Appear at the edge of the target arena
+    private void spawn(int player) {
+        int outpost = target[player];
+        double angle = random.nextDouble() * 2 * Math.PI;
+        double radius = arenaRadius(outpost);
+        x[player] = simulation.getOutpostX(outpost) + Math.cos(angle) * radius;
+        z[player] = simulation.getOutpostZ(outpost) + Math.sin(angle) * radius;
+        pickWalkTarget(player);
+    }
+
+    private void walk(int player, double stride) {
+        double dx = walkX[player] - x[player];
+        double dz = walkZ[player] - z[player];
+        double distance = Math.sqrt(dx * dx + dz * dz);
+        if (distance <= stride) {
+            x[player] = walkX[player];
+            z[player] = walkZ[player];
+            pickWalkTarget(player);
+        } else {
+            x[player] += dx / distance * stride;
+            z[player] += dz / distance * stride;
+        }
+    }
+
+    // Next point to walk to: inside the capture radius, or anywhere in the arena
+    private void pickWalkTarget(int player) {
+        int outpost = target[player];
+        double radius = random.nextDouble() < captureFocus
+                ? simulation.getCaptureRadius(outpost) : arenaRadius(outpost);
+        double angle = random.nextDouble() * 2 * Math.PI;
+        double distance = Math.sqrt(random.nextDouble()) * radius;  // Uniform over the disc
+        walkX[player] = simulation.getOutpostX(outpost) + Math.cos(angle) * distance;
+        walkZ[player] = simulation.getOutpostZ(outpost) + Math.sin(angle) * distance;
+    }
+
+    // Fights spill out a little past the combat zone
+    private double arenaRadius(int outpost) {
+        return simulation.getCombatRadius(outpost) * 1.5;
+    }
+
+    private void killPlayers(long now) {
+        double chance = deathsPerSecond * stepMillis / 1000.0;
+        for (int outpost = 0; outpost < arenaSizes.length; outpost++) {
+            int size = arenaSizes[outpost];
+            if (size < 2) {
+                continue;
+            }
+            int[] players = arenaPlayers[outpost];
+            for (int i = 0; i < size; i++) {
+                int victim = players[i];
+                if (!simulation.isPresent(victim) || !simulation.isInCombatZone(outpost, victim)
+                        || random.nextDouble() >= chance) {
+                    continue;
+                }
+                int killer = pickKiller(players, size, victim);
+                if (killer < 0) {
+                    continue;
+                }
+                simulation.kill(killer, victim);
+                awayUntil[victim] = now + respawnMillis;
+                target[victim] = pickTarget(victim);
+            }
+        }
+    }
+
+    // A random living player of another team in the same arena (a few tries, then none)
+    private int pickKiller(int[] players, int size, int victim) {
+        int victimTeam = simulation.getPlayerTeam(victim);
+        for (int attempt = 0; attempt < 4; attempt++) {
+            int killer = players[random.nextInt(size)];
+            if (killer != victim && simulation.isPresent(killer)
+                    && (victimTeam == CaptureModel.NO_TEAM || simulation.getPlayerTeam(killer) != victimTeam)) {
+                return killer;
+            }
+        }
+        return -1;
+    }
+
+    // Team members follow their team's outpost; solo players roam
+    private int pickTarget(int player) {
+        int team = simulation.getPlayerTeam(player);
+        if (team == CaptureModel.NO_TEAM) {
+            return random.nextInt(simulation.getOutpostCount());
+        }
+        return teamTarget[team];
+    }
+}
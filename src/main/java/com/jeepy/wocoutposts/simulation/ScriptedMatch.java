@@ -0,0 +1,102 @@
+package com.jeepy.wocoutposts.simulation;
+
+import com.jeepy.wocoutposts.objectives.CaptureModel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Replays a hand-written match against a CaptureSimulation. One command per line, '#' starts a comment:
+//
+//   outpost <name> <x> <z> [captureRadius] [combatRadius]   define an outpost (before any timed line)
+//   player <name> <teamId|solo>                             define a player (before any timed line)
+//   <seconds> start [outpost]                               start one outpost, or all of them
+//   <seconds> move <player> <x> <z>                         place a player
+//   <seconds> leave <player>                                take a player out of the world
+//   <seconds> kill <killer> <victim>                        a kill; the victim leaves the world
+//
+// Times are seconds since the start of the match and must not go backwards.
+public class ScriptedMatch {
+
+    private final CaptureSimulation simulation;
+    private final int defaultCaptureRadius;
+    private final int defaultCombatRadius;
+    private final Map<String, Integer> outposts = new HashMap<>();
+    private final Map<String, Integer> players = new HashMap<>();
+
+    public ScriptedMatch(CaptureSimulation simulation, int defaultCaptureRadius, int defaultCombatRadius) {
+        this.simulation = simulation;
+        this.defaultCaptureRadius = defaultCaptureRadius;
+        this.defaultCombatRadius = defaultCombatRadius;
+    }
+
+    public void run(BufferedReader reader) throws IOException {
+        long startMillis = simulation.getMillis();
+        long lastMillis = startMillis;
+        String line;
+        int lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String[] args = (comment >= 0 ? line.substring(0, comment) : line).trim().split("\\s+");
+            if (args[0].isEmpty()) {
+                continue;
+            }
+
+            try {
+                if (args[0].equals("outpost")) {
+                    simulation.addOutpost(args[1], Double.parseDouble(args[2]), Double.parseDouble(args[3]),
+                            args.length > 4 ? Integer.parseInt(args[4]) : defaultCaptureRadius,
+                            args.length > 5 ? Integer.parseInt(args[5]) : defaultCombatRadius);
+                    outposts.put(args[1], simulation.getOutpostCount() - 1);
+                } else if (args[0].equals("player")) {
+                    int teamId = args[2].equalsIgnoreCase("solo") ? CaptureModel.NO_TEAM : Integer.parseInt(args[2]);
+                    players.put(args[1], simulation.addPlayer(teamId));
+                } else {
+                    long millis = startMillis + (long) (Double.parseDouble(args[0]) * 1000.0);
+                    if (millis < lastMillis) {
+                        throw new IllegalArgumentException("time goes backwards");
+                    }
+                    simulation.advanceTo(millis);
+                    lastMillis = millis;
+                    runCommand(args);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + line.trim() + " (" + e.getMessage() + ")", e);
+            }
+        }
+    }
+
+    private void runCommand(String[] args) {
+        switch (args[1]) {
+            case "start":
+                if (args.length > 2) {
+                    simulation.startOutpost(lookup(outposts, "outpost", args[2]));
+                } else {
+                    simulation.startAll();
+                }
+                break;
+            case "move":
+                simulation.movePlayer(lookup(players, "player", args[2]), Double.parseDouble(args[3]), Double.parseDouble(args[4]));
+                break;
+            case "leave":
+                simulation.removePlayer(lookup(players, "player", args[2]));
+                break;
+            case "kill":
+                simulation.kill(lookup(players, "player", args[2]), lookup(players, "player", args[3]));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown command " + args[1]);
+        }
+    }
+
+    private static int lookup(Map<String, Integer> names, String kind, String name) {
+        Integer index = names.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("unknown " + kind + " " + name);
+        }
+        return index;
+    }
+}
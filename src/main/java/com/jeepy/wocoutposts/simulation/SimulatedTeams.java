@@ -0,0 +1,23 @@
+package com.jeepy.wocoutposts.simulation;
+
+import com.jeepy.wocoutposts.objectives.TeamLookup;
+import com.jeepy.wocoutposts.util.IntIntHashMap;
+
+// Team sizes of the simulated players, standing in for the TeamMembershipCache (sizes are always known)
+public final class SimulatedTeams implements TeamLookup {
+
+    private final IntIntHashMap memberCounts = new IntIntHashMap();
+
+    public void addMember(int teamId) {
+        memberCounts.addTo(teamId, 1);
+    }
+
+    @Override
+    public int getMemberCount(int teamId) {
+        return memberCounts.getOrDefault(teamId, -1);
+    }
+
+    public int getTeamCount() {
+        return memberCounts.size();
+    }
+}
@@ -0,0 +1,40 @@
+package com.jeepy.wocoutposts.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// Clock the simulation moves by hand, so capture timing is deterministic and runs as fast as the CPU allows
+public final class SimulationClock extends Clock {
+
+    private long millis;
+
+    public SimulationClock(long startMillis) {
+        this.millis = startMillis;
+    }
+
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return Clock.fixed(instant(), zone);
+    }
+}
@@ -0,0 +1,169 @@
+package com.jeepy.wocoutposts.simulation;
+
+import com.jeepy.wocoutposts.objectives.CaptureModel;
+import com.jeepy.wocoutposts.objectives.CaptureSettings;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+// Command line entry point for tuning the capture settings without a server, e.g.
+//
+//   java -cp WocOutposts.jar com.jeepy.wocoutposts.simulation.SimulationMain --players 5000 --days 3 --charge-time 240
+//   java -cp WocOutposts.jar com.jeepy.wocoutposts.simulation.SimulationMain --script match.txt
+//
+// Capture flags default to the values in the shipped config.yml. Without --script, matches are generated by the
+// RandomMatchDriver from --seed, so a run can be repeated with a single setting changed.
+public final class SimulationMain {
+
+    private SimulationMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> flags;
+        try {
+            flags = parseFlags(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        if (flags.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        CaptureSettings settings = new CaptureSettings(
+                intFlag(flags, "charge-time", 300),
+                doubleFlag(flags, "reduction-rate", 1.5),
+                intFlag(flags, "overtime", 10),
+                parseThresholds(flags.getOrDefault("thresholds", "10,20,30,40,50,60,70,80,90,100")),
+                doubleFlag(flags, "team-boost", 0.5),
+                doubleFlag(flags, "solo-boost", 1.0));
+        int captureRadius = intFlag(flags, "capture-radius", 20);
+        int combatRadius = intFlag(flags, "combat-radius", 0);
+        long restartDelayMillis = (long) (doubleFlag(flags, "restart-delay", 300.0) * 1000.0);
+        CaptureSimulation simulation = new CaptureSimulation(settings, 0L, restartDelayMillis);
+
+        long startTime = System.nanoTime();
+        if (flags.containsKey("script")) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(flags.get("script")), StandardCharsets.UTF_8)) {
+                new ScriptedMatch(simulation, captureRadius, combatRadius).run(reader);
+            }
+        } else {
+            runRandom(simulation, flags, captureRadius, combatRadius);
+        }
+        long wallMillis = (System.nanoTime() - startTime) / 1_000_000L;
+
+        for (String line : simulation.describe()) {
+            System.out.println(line);
+        }
+        System.out.println("Wall time: " + wallMillis + " ms");
+    }
+
+    private static void runRandom(CaptureSimulation simulation, Map<String, String> flags, int captureRadius, int combatRadius) {
+        int players = intFlag(flags, "players", 5000);
+        int outposts = intFlag(flags, "outposts", 16);
+        int teamSize = Math.max(intFlag(flags, "team-size", 5), 1);
+        double soloShare = doubleFlag(flags, "solo-share", 0.1);
+        double hours = doubleFlag(flags, "hours", 0.0) + doubleFlag(flags, "days", flags.containsKey("hours") ? 0.0 : 1.0) * 24.0;
+        long seed = Long.parseLong(flags.getOrDefault("seed", "1"));
+        if (outposts < 1 || outposts > CaptureSimulation.MAX_OUTPOSTS) {
+            throw new IllegalArgumentException("--outposts must be between 1 and " + CaptureSimulation.MAX_OUTPOSTS);
+        }
+
+        // Outposts on a ring, far enough apart that their arenas never overlap
+        double ringRadius = outposts == 1 ? 0.0 : 1000.0 * outposts / (2 * Math.PI);
+        for (int i = 0; i < outposts; i++) {
+            double angle = 2 * Math.PI * i / outposts;
+            simulation.addOutpost("outpost" + (i + 1), Math.cos(angle) * ringRadius, Math.sin(angle) * ringRadius,
+                    captureRadius, combatRadius);
+        }
+
+        // The first players are solo, the rest fill teams of teamSize (team ids from 1)
+        int soloPlayers = (int) Math.round(players * soloShare);
+        int maxTeamId = 0;
+        for (int i = 0; i < players; i++) {
+            if (i < soloPlayers) {
+                simulation.addPlayer(CaptureModel.NO_TEAM);
+            } else {
+                maxTeamId = (i - soloPlayers) / teamSize + 1;
+                simulation.addPlayer(maxTeamId);
+            }
+        }
+
+        RandomMatchDriver driver = new RandomMatchDriver(simulation, seed,
+                intFlag(flags, "step-millis", 1000),
+                doubleFlag(flags, "walk-speed", 4.3),
+                doubleFlag(flags, "death-rate", 0.01),
+                (long) (doubleFlag(flags, "respawn", 60.0) * 1000.0),
+                (long) (doubleFlag(flags, "visit", 600.0) * 1000.0),
+                (long) (doubleFlag(flags, "away", 86400.0) * 1000.0),
+                doubleFlag(flags, "capture-focus", 0.5),
+                (long) (doubleFlag(flags, "retarget", 1800.0) * 1000.0),
+                maxTeamId);
+        simulation.startAll();
+        driver.runUntil(simulation.getMillis() + (long) (hours * 3_600_000.0));
+    }
+
+    // --name value pairs; --help takes no value
+    private static Map<String, String> parseFlags(String[] args) {
+        Map<String, String> flags = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (name.equals("help")) {
+                flags.put(name, "");
+            } else if (i + 1 < args.length) {
+                flags.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+        return flags;
+    }
+
+    private static int intFlag(Map<String, String> flags, String name, int defaultValue) {
+        String value = flags.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static double doubleFlag(Map<String, String> flags, String name, double defaultValue) {
+        String value = flags.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    private static int[] parseThresholds(String value) {
+        if (value.trim().isEmpty()) {
+            return new int[0];
+        }
+        String[] parts = value.split(",");
+        int[] thresholds = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            thresholds[i] = Integer.parseInt(parts[i].trim());
+        }
+        return thresholds;
+    }
+
+    private static void printUsage() {
+        System.out.println("Capture settings (defaults from config.yml):");
+        System.out.println("  --charge-time <seconds>  --reduction-rate <percent>  --overtime <seconds>");
+        System.out.println("  --thresholds <a,b,...>  --team-boost <n>  --solo-boost <n>");
+        System.out.println("  --capture-radius <blocks>  --combat-radius <blocks>  --restart-delay <seconds>");
+        System.out.println("Scripted match:");
+        System.out.println("  --script <file>  (see ScriptedMatch for the format)");
+        System.out.println("Generated matches:");
+        System.out.println("  --players <n> (5000)  --outposts <n> (16)  --team-size <n> (5)  --solo-share <0-1> (0.1)");
+        System.out.println("  --days <n> (1)  --hours <n>  --seed <n> (1)  --step-millis <n> (1000)");
+        System.out.println("  --walk-speed <blocks/s> (4.3)  --death-rate <per second in combat> (0.01)");
+        System.out.println("  --respawn <seconds> (60)  --visit <seconds> (600)  --away <seconds> (86400)");
+        System.out.println("  --capture-focus <0-1> (0.5)  --retarget <seconds> (1800)");
+    }
+}
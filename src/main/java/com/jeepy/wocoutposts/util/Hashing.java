@@ -0,0 +1,33 @@
+package com.jeepy.wocoutposts.util;
+
+// Hash mixing and sizing shared by the primitive open-addressing collections in this package
+final class Hashing {
+
+    static final float LOAD_FACTOR = 0.75f;
+
+    private Hashing() {
+    }
+
+    // Spread an int key so sequential team ids do not cluster in neighbouring slots
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Hash a UUID from its two halves without creating the UUID
+    static int mix(long mostSigBits, long leastSigBits) {
+        long h = (mostSigBits ^ leastSigBits) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Smallest power-of-two table that holds expectedSize entries under the load factor
+    static int tableSize(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    // Whether the entry in slot pos (home slot `home`) may move back into the hole at `last` after a removal
+    static boolean canShift(int last, int home, int pos) {
+        return last <= pos ? (last >= home || home > pos) : (last >= home && home > pos);
+    }
+}
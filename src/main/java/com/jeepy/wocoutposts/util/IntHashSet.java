@@ -0,0 +1,147 @@
+package com.jeepy.wocoutposts.util;
+
+import java.util.Arrays;
+
+// Open-addressing set of ints (linear probing, backward-shift removal). Adding, removing and
+// iterating never box, and clear() keeps the table so a steady-state set does not allocate.
+public class IntHashSet {
+
+    private int[] keys;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public IntHashSet() {
+        this(8);
+    }
+
+    public IntHashSet(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * Hashing.LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    // Returns false if the key was already present
+    public boolean add(int key) {
+        int pos = Hashing.mix(key) & mask;
+        while (used[pos]) {
+            if (keys[pos] == key) {
+                return false;
+            }
+            pos = (pos + 1) & mask;
+        }
+
+        keys[pos] = key;
+        used[pos] = true;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(int key) {
+        int pos = indexOf(key);
+        if (pos < 0) {
+            return false;
+        }
+        size--;
+        shiftKeys(pos);
+        return true;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+    }
+
+    // Any element of a non-empty set (the only one when size() == 1)
+    public int first() {
+        int slot = nextSlot(0);
+        if (slot < 0) {
+            throw new IllegalStateException("Set is empty");
+        }
+        return keys[slot];
+    }
+
+    // ---- Allocation-free iteration: for (int s = set.nextSlot(0); s >= 0; s = set.nextSlot(s + 1)) ----
+
+    public int nextSlot(int from) {
+        for (int i = from; i < used.length; i++) {
+            if (used[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    private int indexOf(int key) {
+        int pos = Hashing.mix(key) & mask;
+        while (used[pos]) {
+            if (keys[pos] == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Close the hole at pos by moving back entries that probed past it
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if (!used[pos]) {
+                    used[last] = false;
+                    return;
+                }
+                int home = Hashing.mix(keys[pos]) & mask;
+                if (Hashing.canShift(last, home, pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int pos = Hashing.mix(oldKeys[i]) & mask;
+                while (used[pos]) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[i];
+                used[pos] = true;
+            }
+        }
+    }
+}
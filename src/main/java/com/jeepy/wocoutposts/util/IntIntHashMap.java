@@ -0,0 +1,147 @@
+package com.jeepy.wocoutposts.util;
+
+import java.util.Arrays;
+
+// Open-addressing int -> int map (linear probing, backward-shift removal) with no boxing on any path
+public class IntIntHashMap {
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public IntIntHashMap() {
+        this(8);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * Hashing.LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        int pos = indexOf(key);
+        return pos >= 0 ? values[pos] : defaultValue;
+    }
+
+    public void put(int key, int value) {
+        int pos = insertionSlot(key);
+        values[pos] = value;
+        afterInsert(pos, key);
+    }
+
+    // Add delta to the value (missing keys start at 0) and return the new value
+    public int addTo(int key, int delta) {
+        int pos = insertionSlot(key);
+        int value = (used[pos] ? values[pos] : 0) + delta;
+        values[pos] = value;
+        afterInsert(pos, key);
+        return value;
+    }
+
+    public boolean remove(int key) {
+        int pos = indexOf(key);
+        if (pos < 0) {
+            return false;
+        }
+        size--;
+        shiftKeys(pos);
+        return true;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+    }
+
+    private int indexOf(int key) {
+        int pos = Hashing.mix(key) & mask;
+        while (used[pos]) {
+            if (keys[pos] == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Slot holding the key, or the free slot it would be inserted into
+    private int insertionSlot(int key) {
+        int pos = Hashing.mix(key) & mask;
+        while (used[pos] && keys[pos] != key) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private void afterInsert(int pos, int key) {
+        if (!used[pos]) {
+            keys[pos] = key;
+            used[pos] = true;
+            if (++size >= resizeAt) {
+                rehash(keys.length << 1);
+            }
+        }
+    }
+
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if (!used[pos]) {
+                    used[last] = false;
+                    return;
+                }
+                int home = Hashing.mix(keys[pos]) & mask;
+                if (Hashing.canShift(last, home, pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int pos = Hashing.mix(oldKeys[i]) & mask;
+                while (used[pos]) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[i];
+                values[pos] = oldValues[i];
+                used[pos] = true;
+            }
+        }
+    }
+}
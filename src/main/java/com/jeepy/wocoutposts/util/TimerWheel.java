@@ -0,0 +1,237 @@
+package com.jeepy.wocoutposts.util;
+
+// Hierarchical timing wheel: four levels of 64 slots, so a deadline up to 64^4 wheel ticks away is filed in O(1)
+// and only moves down a level when its slot comes round. Advancing visits one slot per wheel tick, skipping
+// stretches where the lower levels are empty; due timeouts collect in an expired list and run in the order they fell due.
+// Not thread-safe: used from the server thread only.
+public final class TimerWheel {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    // Deadlines beyond the top level are parked in its furthest slot and refiled when that slot cascades
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    // A scheduled task; cancel() unlinks it from whichever slot (or the expired list) it is in
+    public static final class Timeout {
+        private final TimerWheel owner;  // The wheel it was scheduled on, the only one that may reschedule it
+        private long deadlineTick;
+        private final Runnable task;
+        private TimerWheel wheel;
+        private boolean due;
+        private int level;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(TimerWheel owner, long deadlineTick, Runnable task) {
+            this.owner = owner;
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        public boolean isPending() {
+            return wheel != null;
+        }
+
+        // Returns false if the timeout already ran or was cancelled
+        public boolean cancel() {
+            if (wheel == null) {
+                return false;
+            }
+            wheel.unlink(this);
+            wheel.size--;
+            wheel = null;
+            return true;
+        }
+    }
+
+    private final long tickMillis;
+    // Sentinel heads of circular lists, one per slot
+    private final Timeout[][] wheels = new Timeout[LEVELS][SLOTS];
+    private final Timeout expired = sentinel();
+    // Timeouts filed in each level
+    private final int[] filed = new int[LEVELS];
+    private long currentTick;
+    private int size;
+    private int expiredCount;
+
+    public TimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (Timeout[] level : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = sentinel();
+            }
+        }
+    }
+
+    private static Timeout sentinel() {
+        Timeout head = new Timeout(null, 0L, null);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    // Run the task on the first advance at or after deadlineMillis (rounded up to the wheel resolution)
+    public Timeout schedule(long deadlineMillis, Runnable task) {
+        Timeout timeout = new Timeout(this, toTick(deadlineMillis), task);
+        timeout.wheel = this;
+        size++;
+        file(timeout);
+        return timeout;
+    }
+
+    // Move a timeout of this wheel to a new deadline, whether it is still pending, due, already run or cancelled.
+    // Reuses the timeout, so a deadline that keeps moving (e.g. on every kill) costs no allocation.
+    public void reschedule(Timeout timeout, long deadlineMillis) {
+        if (timeout.owner != this) {
+            throw new IllegalArgumentException("Timeout belongs to another timer wheel");
+        }
+        if (timeout.wheel != null) {
+            unlink(timeout);
+        } else {
+            timeout.wheel = this;
+            size++;
+        }
+        timeout.deadlineTick = toTick(deadlineMillis);
+        timeout.due = false;
+        file(timeout);
+    }
+
+    // Rounded up to the wheel resolution
+    private long toTick(long deadlineMillis) {
+        return Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+    }
+
+    // Move every timeout due by nowMillis to the expired list
+    public void advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (size == expiredCount) {
+            // Nothing filed in the wheel, so there is nothing to cascade on the way
+            currentTick = Math.max(currentTick, targetTick);
+            return;
+        }
+
+        while (currentTick < targetTick) {
+            // Ticks that are not a multiple of 64^n, for n empty lower levels, have nothing to drain or cascade
+            int emptyLevels = 0;
+            while (emptyLevels < LEVELS - 1 && filed[emptyLevels] == 0) {
+                emptyLevels++;
+            }
+            long step = 1L << (SLOT_BITS * emptyLevels);
+            long nextTick = (currentTick | (step - 1)) + 1;
+            if (nextTick > targetTick) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick = nextTick;
+            cascade(currentTick);
+            drain(wheels[0][(int) (currentTick & SLOT_MASK)]);
+            if (size == expiredCount) {
+                currentTick = targetTick;
+            }
+        }
+    }
+
+    public boolean hasExpired() {
+        return expiredCount > 0;
+    }
+
+    // Timeouts that are due but have not run yet
+    public int getExpiredCount() {
+        return expiredCount;
+    }
+
+    // Timeouts not yet run or cancelled, due ones included
+    public int size() {
+        return size;
+    }
+
+    // Run the oldest due timeout; returns false if none is due
+    public boolean runNext() {
+        Timeout timeout = expired.next;
+        if (timeout == expired) {
+            return false;
+        }
+        timeout.cancel();
+        timeout.task.run();
+        return true;
+    }
+
+    // When a level's slot index wraps to 0, the next slot of the level above comes round and is refiled downwards
+    // (highest level first, so timeouts falling through several levels land in their final slot)
+    private void cascade(long tick) {
+        int level = 0;
+        while (level < LEVELS - 1 && ((tick >>> (SLOT_BITS * level)) & SLOT_MASK) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            Timeout head = wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            Timeout timeout = head.next;
+            head.prev = head;
+            head.next = head;
+            while (timeout != head) {
+                Timeout next = timeout.next;
+                filed[level]--;
+                file(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    private void drain(Timeout head) {
+        Timeout timeout = head.next;
+        head.prev = head;
+        head.next = head;
+        while (timeout != head) {
+            Timeout next = timeout.next;
+            filed[0]--;
+            expire(timeout);
+            timeout = next;
+        }
+    }
+
+    private void expire(Timeout timeout) {
+        timeout.due = true;
+        append(expired, timeout);
+        expiredCount++;
+    }
+
+    // File a timeout in the lowest level whose span covers its remaining delay
+    private void file(Timeout timeout) {
+        long delay = timeout.deadlineTick - currentTick;
+        if (delay <= 0) {
+            expire(timeout);
+            return;
+        }
+
+        long tick = delay < MAX_SPAN ? timeout.deadlineTick : currentTick + MAX_SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && (tick - currentTick) >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        timeout.level = level;
+        filed[level]++;
+        append(wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)], timeout);
+    }
+
+    private static void append(Timeout head, Timeout timeout) {
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.due) {
+            expiredCount--;
+        } else {
+            filed[timeout.level]--;
+        }
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+}
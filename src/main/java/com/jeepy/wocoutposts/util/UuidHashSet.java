@@ -0,0 +1,155 @@
+package com.jeepy.wocoutposts.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// Open-addressing set of UUIDs stored as two longs per entry (linear probing, backward-shift removal).
+// Membership changes keep no references to UUID objects; only uuidAt() creates one.
+public class UuidHashSet {
+
+    private long[] mostSigBits;
+    private long[] leastSigBits;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public UuidHashSet() {
+        this(8);
+    }
+
+    public UuidHashSet(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        mostSigBits = new long[capacity];
+        leastSigBits = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * Hashing.LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(UUID uuid) {
+        return indexOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >= 0;
+    }
+
+    // Returns false if the UUID was already present
+    public boolean add(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int pos = Hashing.mix(msb, lsb) & mask;
+        while (used[pos]) {
+            if (mostSigBits[pos] == msb && leastSigBits[pos] == lsb) {
+                return false;
+            }
+            pos = (pos + 1) & mask;
+        }
+
+        mostSigBits[pos] = msb;
+        leastSigBits[pos] = lsb;
+        used[pos] = true;
+        if (++size >= resizeAt) {
+            rehash(used.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(UUID uuid) {
+        int pos = indexOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (pos < 0) {
+            return false;
+        }
+        size--;
+        shiftKeys(pos);
+        return true;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+    }
+
+    // ---- Allocation-free iteration: for (int s = set.nextSlot(0); s >= 0; s = set.nextSlot(s + 1)) ----
+
+    public int nextSlot(int from) {
+        for (int i = from; i < used.length; i++) {
+            if (used[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long mostSigBitsAt(int slot) {
+        return mostSigBits[slot];
+    }
+
+    public long leastSigBitsAt(int slot) {
+        return leastSigBits[slot];
+    }
+
+    // Creates a UUID; use the *At accessors on hot paths
+    public UUID uuidAt(int slot) {
+        return new UUID(mostSigBits[slot], leastSigBits[slot]);
+    }
+
+    private int indexOf(long msb, long lsb) {
+        int pos = Hashing.mix(msb, lsb) & mask;
+        while (used[pos]) {
+            if (mostSigBits[pos] == msb && leastSigBits[pos] == lsb) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if (!used[pos]) {
+                    used[last] = false;
+                    return;
+                }
+                int home = Hashing.mix(mostSigBits[pos], leastSigBits[pos]) & mask;
+                if (Hashing.canShift(last, home, pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            mostSigBits[last] = mostSigBits[pos];
+            leastSigBits[last] = leastSigBits[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMostSigBits = mostSigBits;
+        long[] oldLeastSigBits = leastSigBits;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int pos = Hashing.mix(oldMostSigBits[i], oldLeastSigBits[i]) & mask;
+                while (used[pos]) {
+                    pos = (pos + 1) & mask;
+                }
+                mostSigBits[pos] = oldMostSigBits[i];
+                leastSigBits[pos] = oldLeastSigBits[i];
+                used[pos] = true;
+            }
+        }
+    }
+}
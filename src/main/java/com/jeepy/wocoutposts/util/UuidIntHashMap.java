@@ -0,0 +1,184 @@
+package com.jeepy.wocoutposts.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// Open-addressing UUID -> int map, keys stored as two longs per entry (linear probing, backward-shift removal)
+public class UuidIntHashMap {
+
+    private long[] mostSigBits;
+    private long[] leastSigBits;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public UuidIntHashMap() {
+        this(8);
+    }
+
+    public UuidIntHashMap(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        mostSigBits = new long[capacity];
+        leastSigBits = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * Hashing.LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(UUID key) {
+        return indexOf(key.getMostSignificantBits(), key.getLeastSignificantBits()) >= 0;
+    }
+
+    public int getOrDefault(UUID key, int defaultValue) {
+        return getOrDefault(key.getMostSignificantBits(), key.getLeastSignificantBits(), defaultValue);
+    }
+
+    // Lookup by the two halves of a UUID (e.g. straight from a UuidHashSet slot)
+    public int getOrDefault(long msb, long lsb, int defaultValue) {
+        int pos = indexOf(msb, lsb);
+        return pos >= 0 ? values[pos] : defaultValue;
+    }
+
+    public void put(UUID key, int value) {
+        int pos = insertionSlot(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        values[pos] = value;
+        afterInsert(pos, key);
+    }
+
+    // Add delta to the value (missing keys start at 0) and return the new value
+    public int addTo(UUID key, int delta) {
+        int pos = insertionSlot(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        int value = (used[pos] ? values[pos] : 0) + delta;
+        values[pos] = value;
+        afterInsert(pos, key);
+        return value;
+    }
+
+    // Remove the key and return its value, or defaultValue if it was not present
+    public int removeOrDefault(UUID key, int defaultValue) {
+        int pos = indexOf(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (pos < 0) {
+            return defaultValue;
+        }
+        int value = values[pos];
+        size--;
+        shiftKeys(pos);
+        return value;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+    }
+
+    // ---- Allocation-free iteration: for (int s = map.nextSlot(0); s >= 0; s = map.nextSlot(s + 1)) ----
+
+    public int nextSlot(int from) {
+        for (int i = from; i < used.length; i++) {
+            if (used[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long mostSigBitsAt(int slot) {
+        return mostSigBits[slot];
+    }
+
+    public long leastSigBitsAt(int slot) {
+        return leastSigBits[slot];
+    }
+
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    private int indexOf(long msb, long lsb) {
+        int pos = Hashing.mix(msb, lsb) & mask;
+        while (used[pos]) {
+            if (mostSigBits[pos] == msb && leastSigBits[pos] == lsb) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Slot holding the key, or the free slot it would be inserted into
+    private int insertionSlot(long msb, long lsb) {
+        int pos = Hashing.mix(msb, lsb) & mask;
+        while (used[pos] && (mostSigBits[pos] != msb || leastSigBits[pos] != lsb)) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private void afterInsert(int pos, UUID key) {
+        if (!used[pos]) {
+            mostSigBits[pos] = key.getMostSignificantBits();
+            leastSigBits[pos] = key.getLeastSignificantBits();
+            used[pos] = true;
+            if (++size >= resizeAt) {
+                rehash(used.length << 1);
+            }
+        }
+    }
+
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if (!used[pos]) {
+                    used[last] = false;
+                    return;
+                }
+                int home = Hashing.mix(mostSigBits[pos], leastSigBits[pos]) & mask;
+                if (Hashing.canShift(last, home, pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            mostSigBits[last] = mostSigBits[pos];
+            leastSigBits[last] = leastSigBits[pos];
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMostSigBits = mostSigBits;
+        long[] oldLeastSigBits = leastSigBits;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int pos = Hashing.mix(oldMostSigBits[i], oldLeastSigBits[i]) & mask;
+                while (used[pos]) {
+                    pos = (pos + 1) & mask;
+                }
+                mostSigBits[pos] = oldMostSigBits[i];
+                leastSigBits[pos] = oldLeastSigBits[i];
+                values[pos] = oldValues[i];
+                used[pos] = true;
+            }
+        }
+    }
+}